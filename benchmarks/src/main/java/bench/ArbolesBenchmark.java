@@ -0,0 +1,77 @@
+package bench;
+
+import common.Tokenizer;
+import interpreter.Arboles;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the stages of running an ARB program.  Arboles tokenizes in its
+ * constructor and can only build or compile a program once, so parse
+ * includes tokenizing and compile includes both; interpret runs an already
+ * built program.  Everything the stages print is discarded.
+ *
+ * @author Tiffany Lee
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArbolesBenchmark {
+    /** the program to run */
+    @Param({"complex-1", "complex-2", "complex-3", "generated-10000"})
+    public String program;
+
+    /** the real standard output */
+    private PrintStream console;
+    /** the program text, as bytes */
+    private byte[] source;
+    /** an interpreter with the program built */
+    private Arboles built;
+
+    @Setup
+    public void setUp() throws IOException {
+        console = System.out;
+        System.setOut(Programs.DISCARD);
+        source = Programs.arb(program).getBytes(StandardCharsets.UTF_8);
+        built = new Arboles(new Tokenizer(source));
+        built.buildProgram();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public Arboles tokenize() {
+        return new Arboles(new Tokenizer(source));
+    }
+
+    @Benchmark
+    public Arboles parse() {
+        Arboles arboles = new Arboles(new Tokenizer(source));
+        arboles.buildProgram();
+        return arboles;
+    }
+
+    @Benchmark
+    public Arboles interpret() {
+        built.interpretProgram();
+        return built;
+    }
+
+    @Benchmark
+    public Arboles compile() {
+        Arboles arboles = new Arboles(new Tokenizer(source));
+        arboles.buildProgram();
+        arboles.compileProgram();
+        return arboles;
+    }
+}
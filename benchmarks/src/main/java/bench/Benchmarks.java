@@ -0,0 +1,51 @@
+package bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * The entry point of benchmarks.jar.  It takes the usual JMH command line,
+ * but unless another result format is asked for, it writes the results as
+ * JSON to jmh-result.json, so that two runs can be compared with a diff.
+ *
+ * Usage: java -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regex]
+ *
+ * @author Tiffany Lee
+ */
+public class Benchmarks {
+    /** where the results go unless the command line says otherwise */
+    private static final String RESULT_FILE = "jmh-result.json";
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args the JMH command line
+     * @throws RunnerException if a benchmark fails
+     * @throws CommandLineOptionException if the command line is malformed
+     * @throws IOException if JMH cannot list what was asked for
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions command = new CommandLineOptions(args);
+        if (command.shouldHelp() || command.shouldList() || command.shouldListWithParams()
+                || command.shouldListProfilers() || command.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        Options options = command;
+        if (!command.getResultFormat().hasValue()) {
+            options = new OptionsBuilder()
+                    .parent(command)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(command.getResult().orElse(RESULT_FILE))
+                    .build();
+        }
+        new Runner(options).run();
+    }
+}
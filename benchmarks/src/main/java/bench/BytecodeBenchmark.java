@@ -0,0 +1,84 @@
+package bench;
+
+import machine.Maquina;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A side-by-side comparison of executing an assembled program through the
+ * Instruction objects, through its compact bytecode form, and through the
+ * bytecode once it is verified and runs without underflow checks.  Programs
+ * of a few million instructions are generated by repeating a block that
+ * exercises every instruction except PRINT.
+ *
+ * @author Tiffany Lee
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BytecodeBenchmark {
+    /** a stack-balanced block of instructions, one per line */
+    private static final String[] BLOCK = {
+            "PUSH 7", "STORE a", "LOAD a", "PUSH 3", "MUL", "PUSH 5", "ADD", "STORE b",
+            "LOAD b", "LOAD a", "SUB", "PUSH 4", "MOD", "STORE c", "LOAD c", "NEG",
+            "LOAD b", "PUSH 1", "ADD", "DIV", "STORE d", "LOAD b", "SQRT", "STORE e"
+    };
+
+    /** the minimum number of instructions in the program */
+    @Param({"2000000"})
+    public int instructions;
+
+    /** a machine with the program assembled */
+    private Maquina machine;
+    /** a machine with the program assembled and verified */
+    private Maquina verified;
+
+    /**
+     * Generate the MAQ source for a program of at least the given number
+     * of instructions.
+     *
+     * @param instructions the minimum number of instructions
+     * @return the program text, terminated by the end of input
+     */
+    public static String generate(int instructions) {
+        StringBuilder source = new StringBuilder();
+        for (int count = 0; count < instructions; count += BLOCK.length) {
+            for (String line : BLOCK) {
+                source.append(line).append('\n');
+            }
+        }
+        return source.toString();
+    }
+
+    @Setup
+    public void setUp() {
+        machine = new Maquina(Programs.DISCARD);
+        machine.assemble(new Scanner(generate(instructions)), false);
+        verified = new Maquina(Programs.DISCARD);
+        verified.assemble(new Scanner(generate(instructions)), false);
+        verified.verify();
+    }
+
+    @Benchmark
+    public Maquina instruction() {
+        machine.execute();
+        return machine;
+    }
+
+    @Benchmark
+    public Maquina bytecode() {
+        machine.executeBytecode();
+        return machine;
+    }
+
+    @Benchmark
+    public Maquina verified() {
+        verified.executeBytecode();
+        return verified;
+    }
+}
@@ -0,0 +1,44 @@
+package bench;
+
+import machine.InstructionStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures pushing a run of values onto an InstructionStack and popping
+ * them all off again.
+ *
+ * @author Tiffany Lee
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InstructionStackBenchmark {
+    /** how many values are pushed before they are popped */
+    @Param({"16", "1024"})
+    public int depth;
+
+    /** the stack, which has grown to the depth after the first invocation */
+    private InstructionStack stack;
+
+    @Setup
+    public void setUp() {
+        stack = new InstructionStack();
+    }
+
+    @Benchmark
+    public int pushPop() {
+        for (int i = 0; i < depth; i++) {
+            stack.push(i);
+        }
+        int sum = 0;
+        for (int i = 0; i < depth; i++) {
+            sum += stack.pop();
+        }
+        return sum;
+    }
+}
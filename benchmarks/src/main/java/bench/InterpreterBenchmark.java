@@ -0,0 +1,85 @@
+package bench;
+
+import interpreter.Arboles;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the tree-walking reference interpreter with the specialized
+ * closures on the arb/complex-*.arb programs, repeated to make one large
+ * program.  The program is specialized on its first run, so that run is
+ * measured separately, once per iteration, from the later ones.
+ *
+ * @author Tiffany Lee
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InterpreterBenchmark {
+    /** the programs that are repeated */
+    private static final String[] PROGRAMS = {"complex-1", "complex-2", "complex-3"};
+
+    /** the number of times the programs are repeated */
+    @Param({"10000"})
+    public int repeats;
+
+    /** the real standard output */
+    private PrintStream console;
+    /** the program text */
+    private String source;
+    /** an interpreter with the program built and specialized */
+    private Arboles built;
+    /** an interpreter with the program built, but not yet run */
+    private Arboles fresh;
+
+    @Setup
+    public void setUp() throws IOException {
+        console = System.out;
+        System.setOut(Programs.DISCARD);
+        StringBuilder block = new StringBuilder();
+        for (String program : PROGRAMS) {
+            block.append(Programs.arb(program).strip()).append('\n');
+        }
+        source = block.toString().repeat(repeats);
+        built = new Arboles(new Scanner(source), false);
+        built.buildProgram();
+        built.interpretProgram();
+    }
+
+    @Setup(Level.Iteration)
+    public void build() {
+        fresh = new Arboles(new Scanner(source), false);
+        fresh.buildProgram();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public Arboles reference() {
+        built.interpretReference();
+        return built;
+    }
+
+    @Benchmark
+    public Arboles closures() {
+        built.interpretProgram();
+        return built;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public Arboles firstRun() {
+        fresh.interpretProgram();
+        return fresh;
+    }
+}
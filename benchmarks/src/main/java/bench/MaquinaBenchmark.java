@@ -0,0 +1,103 @@
+package bench;
+
+import common.ProgramCache;
+import common.Tokenizer;
+import machine.Context;
+import machine.Executable;
+import machine.Maquina;
+import machine.ObjectFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures assembling MAQ programs, taking them from a ProgramCache instead,
+ * loading them from binary object files, and executing them, both through
+ * the Instruction objects and through their bytecode, and running one linked
+ * program against a fresh context each time.
+ *
+ * @author Tiffany Lee
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MaquinaBenchmark {
+    /** the program to run */
+    @Param({"complex-1", "complex-2", "complex-3", "generated-10000"})
+    public String program;
+
+    /** the program text, as bytes */
+    private byte[] source;
+    /** the program written as an object file */
+    private Path object;
+    /** a machine with the program assembled */
+    private Maquina machine;
+    /** the assembled program, linked for running against any context */
+    private Executable linked;
+    /** a cache that holds the assembled program */
+    private ProgramCache<Executable> cache;
+
+    @Setup
+    public void setUp() throws IOException {
+        source = Programs.maq(program).getBytes(StandardCharsets.UTF_8);
+        machine = new Maquina(Programs.DISCARD);
+        machine.assemble(new Tokenizer(source));
+        linked = machine.link();
+        cache = new ProgramCache<>(1);
+        cache.put(ProgramCache.key(source), linked);
+        object = Files.createTempFile(program, ObjectFile.EXTENSION);
+        machine.writeObject(object);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(object);
+    }
+
+    @Benchmark
+    public Maquina assemble() {
+        Maquina fresh = new Maquina(Programs.DISCARD);
+        fresh.assemble(new Tokenizer(source));
+        return fresh;
+    }
+
+    @Benchmark
+    public Maquina assembleCached() {
+        Maquina fresh = new Maquina(Programs.DISCARD);
+        fresh.assemble(source, cache);
+        return fresh;
+    }
+
+    @Benchmark
+    public Maquina load() throws IOException {
+        Maquina fresh = new Maquina(Programs.DISCARD);
+        fresh.load(object);
+        return fresh;
+    }
+
+    @Benchmark
+    public Maquina execute() {
+        machine.execute();
+        return machine;
+    }
+
+    @Benchmark
+    public Maquina executeBytecode() {
+        machine.executeBytecode();
+        return machine;
+    }
+
+    @Benchmark
+    public Context executeLinked() {
+        Context context = new Context(Programs.DISCARD);
+        linked.executeBytecode(context);
+        return context;
+    }
+}
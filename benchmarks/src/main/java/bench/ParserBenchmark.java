@@ -0,0 +1,70 @@
+package bench;
+
+import interpreter.Arboles;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures tokenizing and parsing generated ARB programs of increasing size,
+ * to show that the cost per statement stays flat as programs grow.
+ *
+ * @author Tiffany Lee
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+    /** the number of statements in the program */
+    @Param({"10000", "100000", "1000000"})
+    public int statements;
+
+    /** the real standard output */
+    private PrintStream console;
+    /** the program text */
+    private String source;
+
+    /**
+     * Generate an ARB program that mixes assignments and prints over a few
+     * variables, with every operator appearing.
+     *
+     * @param statements the number of statements
+     * @return the program text
+     */
+    public static String generate(int statements) {
+        StringBuilder source = new StringBuilder("= a 1\n= b 2\n= c 3\n");
+        for (int i = 3; i < statements; i++) {
+            switch (i % 4) {
+                case 0 -> source.append("= a + * b c - a ! ").append(i % 100).append('\n');
+                case 1 -> source.append("= b / $ * a a + 1 % c 7\n");
+                case 2 -> source.append("= c % + a b 1000\n");
+                default -> source.append("@ - a * b c\n");
+            }
+        }
+        return source.toString();
+    }
+
+    @Setup
+    public void setUp() {
+        console = System.out;
+        System.setOut(Programs.DISCARD);
+        source = generate(statements);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public Arboles parse() {
+        Arboles interpreter = new Arboles(new Scanner(source), false);
+        interpreter.buildProgram();
+        return interpreter;
+    }
+}
@@ -0,0 +1,56 @@
+package bench;
+
+import interpreter.bench.ProgramGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The programs the benchmarks run: either one of the sample programs in
+ * arb/ and maq/, read relative to the directory the benchmarks are run from,
+ * or a large one made by the ProgramGenerator, named "generated-" followed by
+ * its number of statements.  A generated MAQ program is the one its ARB
+ * program compiles to.
+ *
+ * @author Tiffany Lee
+ */
+public class Programs {
+    /** the prefix of the names of generated programs */
+    private static final String GENERATED = "generated-";
+    /** the seed of the generated programs, so every run measures the same ones */
+    private static final long SEED = 1;
+    /** an output stream that discards everything the programs print */
+    public static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    /**
+     * The source of an ARB program.
+     *
+     * @param name a sample name, like complex-1, or generated-N for N statements
+     * @return the program text
+     * @throws IOException if the sample cannot be read
+     */
+    public static String arb(String name) throws IOException {
+        if (name.startsWith(GENERATED)) {
+            return new ProgramGenerator(SEED, Integer.parseInt(name.substring(GENERATED.length()))).arb();
+        }
+        return Files.readString(Path.of("arb", name + ".arb"));
+    }
+
+    /**
+     * The source of a MAQ program.
+     *
+     * @param name a sample name, like complex-1, or generated-N for the
+     *             program N generated statements compile to
+     * @return the program text
+     * @throws IOException if the sample cannot be read
+     */
+    public static String maq(String name) throws IOException {
+        if (name.startsWith(GENERATED)) {
+            return new ProgramGenerator(SEED, Integer.parseInt(name.substring(GENERATED.length()))).maq();
+        }
+        return Files.readString(Path.of("maq", name + ".maq"));
+    }
+}
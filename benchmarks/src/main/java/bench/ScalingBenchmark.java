@@ -0,0 +1,99 @@
+package bench;
+
+import common.Tokenizer;
+import interpreter.Arboles;
+import interpreter.bench.ProgramGenerator;
+import machine.Maquina;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Times each stage of running generated programs of increasing size, to
+ * show where the cost per statement stops being flat.  The ARB stages are
+ * tokenizing and parsing, interpreting, and compiling; the MAQ stages run
+ * the matching MAQ program made by the ProgramGenerator, assembling it and
+ * executing it.  Each size is timed once, after a warm up on the smallest.
+ *
+ * Usage: java -cp benchmarks/target/benchmarks.jar bench.ScalingBenchmark [statements ...]
+ *
+ * @author Tiffany Lee
+ */
+public class ScalingBenchmark {
+    /** the seed of the generated programs */
+    private static final long SEED = 1;
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args the program sizes, in statements
+     */
+    public static void main(String[] args) {
+        int[] sizes = {10_000, 100_000, 1_000_000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        PrintStream console = System.out;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+        // warm up on the smallest size before timing anything
+        System.setOut(discard);
+        for (int i = 0; i < 5; i++) {
+            run(sizes[0], discard);
+        }
+        System.setOut(console);
+
+        console.printf("%12s %12s %12s %12s %12s %12s%n", "statements", "parse", "interpret", "compile",
+                "assemble", "execute");
+        console.printf("%12s %12s %12s %12s %12s %12s%n", "", "ns/stmt", "ns/stmt", "ns/stmt",
+                "ns/stmt", "ns/stmt");
+        for (int size : sizes) {
+            System.setOut(discard);
+            long[] times = run(size, discard);
+            System.setOut(console);
+            console.printf("%12d", size);
+            for (long time : times) {
+                console.printf(" %12.1f", (double) time / size);
+            }
+            console.println();
+        }
+    }
+
+    /**
+     * Generate a program and time each stage of running it.
+     *
+     * @param statements the number of statements
+     * @param discard where the programs' output goes
+     * @return the nanoseconds taken by each stage
+     */
+    private static long[] run(int statements, PrintStream discard) {
+        ProgramGenerator generator = new ProgramGenerator(SEED, statements);
+        byte[] arb = generator.arb().getBytes(StandardCharsets.UTF_8);
+        byte[] maq = generator.maq().getBytes(StandardCharsets.UTF_8);
+        long[] times = new long[5];
+
+        long start = System.nanoTime();
+        Arboles interpreter = new Arboles(new Tokenizer(arb));
+        interpreter.buildProgram();
+        times[0] = System.nanoTime() - start;
+        start = System.nanoTime();
+        interpreter.interpretProgram();
+        times[1] = System.nanoTime() - start;
+        start = System.nanoTime();
+        interpreter.compileProgram();
+        times[2] = System.nanoTime() - start;
+
+        Maquina machine = new Maquina(discard);
+        start = System.nanoTime();
+        machine.assemble(new Tokenizer(maq));
+        times[3] = System.nanoTime() - start;
+        start = System.nanoTime();
+        machine.execute();
+        times[4] = System.nanoTime() - start;
+        return times;
+    }
+}
@@ -0,0 +1,55 @@
+package bench;
+
+import common.SymbolTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures setting and getting every variable of a SymbolTable.
+ *
+ * @author Tiffany Lee
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SymbolTableBenchmark {
+    /** how many variables the table holds */
+    @Param({"8", "256"})
+    public int variables;
+
+    /** the variable names */
+    private String[] names;
+    /** the table, with every variable set */
+    private SymbolTable table;
+
+    @Setup
+    public void setUp() {
+        names = new String[variables];
+        table = new SymbolTable();
+        for (int i = 0; i < variables; i++) {
+            names[i] = "v" + i;
+            table.set(names[i], i);
+        }
+    }
+
+    @Benchmark
+    public SymbolTable set() {
+        for (int i = 0; i < names.length; i++) {
+            table.set(names[i], i);
+        }
+        return table;
+    }
+
+    @Benchmark
+    public int get() {
+        int sum = 0;
+        for (String name : names) {
+            sum += table.get(name);
+        }
+        return sum;
+    }
+}
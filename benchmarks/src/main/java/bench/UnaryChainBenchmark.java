@@ -0,0 +1,63 @@
+package bench;
+
+import interpreter.nodes.expression.Constant;
+import interpreter.nodes.expression.ExpressionNode;
+import interpreter.nodes.expression.Expressions;
+import interpreter.nodes.expression.UnaryOperation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A regression benchmark for evaluating nested unary chains such as
+ * $ ! ! $ ! ! ... 7, with the nodes' own recursive evaluate() and with the
+ * explicit-stack walker.  Every subtree must be evaluated once per visit, so
+ * the time should grow in step with the depth; before square root stopped
+ * evaluating its child twice it doubled with every level.
+ *
+ * @author Tiffany Lee
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UnaryChainBenchmark {
+    /** the number of square roots in the chain */
+    @Param({"10", "20", "30", "1000", "3000"})
+    public int depth;
+
+    /** the root of the chain */
+    private ExpressionNode root;
+
+    /**
+     * Build a chain of the given depth that alternates square roots and
+     * double negations, so every square root sees a non-negative value.
+     *
+     * @param depth the number of square roots
+     * @return the root of the chain
+     */
+    public static ExpressionNode chain(int depth) {
+        ExpressionNode root = new Constant(7);
+        for (int i = 0; i < depth; i++) {
+            root = new UnaryOperation("$", new UnaryOperation("!", new UnaryOperation("!", root)));
+        }
+        return root;
+    }
+
+    @Setup
+    public void setUp() {
+        root = chain(depth);
+    }
+
+    @Benchmark
+    public int recursive() {
+        return root.evaluate(null);
+    }
+
+    @Benchmark
+    public int iterative() {
+        return Expressions.evaluate(root, null);
+    }
+}
@@ -22,6 +22,8 @@ public class Errors {
         ILLEGAL_INSTRUCTION("illegal instruction"), // info=token
         /** illegal operator */
         ILLEGAL_OPERATOR("illegal operator in expression"), // info=token
+        /** pop or top on an empty machine stack */
+        STACK_UNDERFLOW("stack underflow"), // no info needed
         /** unitialized variable */
         UNINITIALIZED( "uninitialized variable"); // info=token
 
@@ -36,30 +38,70 @@ public class Errors {
         Type(String message) {
             this.message = message;
         }
+
+        /**
+         * Get the message for this kind of error.
+         *
+         * @return the error message
+         */
+        public String getMessage() {
+            return this.message;
+        }
     }
 
     /**
-     * Report an error and stop the program.   All output goes to standard error.
-     * @param type The kind of error, printed first
+     * Report an error by raising a fault that stops the current program.
+     *
+     * @param type The kind of error
+     * @throws RuntimeFault always
      */
     public static void report(Type type) {
         report(type, null);
     }
 
     /**
-     * Report an error and stop the program. All output goes to standard error.
+     * Report an error by raising a fault that stops the current program.
      *
-     * @param type The kind of error, printed first
-     * @param info if not null, an additional value to be printed after a colon
+     * @param type The kind of error
+     * @param info if not null, the offending token
+     * @throws RuntimeFault always
      */
     public static void report(Type type, Object info) {
-        System.err.print(type.message);
-        if ( info != null ) {
-            System.err.println(": " + info);
+        throw new RuntimeFault(type, info);
+    }
+
+    /**
+     * Display a fault and exit.  All output goes to standard error.  This
+     * is only for the command line programs; everything else lets the
+     * fault propagate to its caller.
+     *
+     * @param fault the fault that stopped the program
+     */
+    public static void exit(RuntimeFault fault) {
+        System.err.print(fault.getType().message);
+        if ( fault.getInfo() != null ) {
+            System.err.println(": " + fault.getInfo());
         }
         System.err.println();
         System.exit(-1);
     }
 
-
+    /**
+     * Display a fault that rejected a program before any of it ran, citing
+     * its source line when that is known, and exit.  All output goes to
+     * standard error.
+     *
+     * @param fault the fault the program was rejected with
+     */
+    public static void reject(RuntimeFault fault) {
+        System.err.print(fault.getType().message);
+        if ( fault.getInfo() != null ) {
+            System.err.print(": " + fault.getInfo());
+        }
+        if ( fault.getLine() != -1 ) {
+            System.err.print(" at line " + fault.getLine());
+        }
+        System.err.println();
+        System.exit(-1);
+    }
 }
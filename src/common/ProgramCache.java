@@ -0,0 +1,273 @@
+package common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of programs that have already been parsed, compiled or assembled,
+ * keyed by a SHA-256 hash of their source text, so that submitting the same
+ * source again skips that work.  It holds a bounded number of programs in
+ * memory and evicts the least recently used one when full.  With a directory,
+ * each program is also written there, and a program missing from memory is
+ * read back from it, so a new process can start from the programs an earlier
+ * one made.  The cache can be shared by many threads.
+ *
+ * A file in the directory that cannot be read, or that its codec fails on
+ * in any other way, is treated as a miss, and is deleted so that the next
+ * put writes it again.
+ *
+ * @param <V> the kind of program held
+ * @author Tiffany Lee
+ */
+public class ProgramCache<V> {
+    /** the number of programs held in memory when no other number is given */
+    public final static int DEFAULT_CAPACITY = 256;
+
+    /**
+     * How the programs are written to and read from the directory.
+     *
+     * @param <V> the kind of program
+     */
+    public interface Codec<V> {
+        /**
+         * The extension of the program files, which is added to the key.
+         *
+         * @return the extension, e.g. ".maqo"
+         */
+        String extension();
+
+        /**
+         * Read a program.
+         *
+         * @param path the program file
+         * @return the program
+         * @throws IOException if the file cannot be read or is not valid
+         */
+        V read(Path path) throws IOException;
+
+        /**
+         * Write a program.
+         *
+         * @param program the program
+         * @param path the program file
+         * @throws IOException if the file cannot be written
+         */
+        void write(V program, Path path) throws IOException;
+    }
+
+    /** the programs held in memory, least recently used first */
+    private final LinkedHashMap<String, V> programs;
+    /** where programs are written, or null if they are only held in memory */
+    private final Path directory;
+    /** how programs are written and read, or null if there is no directory */
+    private final Codec<V> codec;
+    /** the number of lookups found in memory */
+    private long hits;
+    /** the number of lookups found in the directory */
+    private long diskHits;
+    /** the number of lookups not found */
+    private long misses;
+    /** the number of programs evicted from memory */
+    private long evictions;
+
+    /**
+     * Create a cache held only in memory.
+     *
+     * @param capacity the most programs held
+     */
+    public ProgramCache(int capacity) {
+        this.programs = recentlyUsed(capacity);
+        this.directory = null;
+        this.codec = null;
+    }
+
+    /**
+     * Create a cache held in memory and in a directory.
+     *
+     * @param capacity the most programs held in memory
+     * @param directory where the programs are written, which is created if
+     *                  it does not exist
+     * @param codec how the programs are written and read
+     * @throws IOException if the directory cannot be created
+     */
+    public ProgramCache(int capacity, Path directory, Codec<V> codec) throws IOException {
+        this.programs = recentlyUsed(capacity);
+        this.directory = Files.createDirectories(directory);
+        this.codec = codec;
+    }
+
+    /**
+     * Make the map of programs held in memory, which evicts the least
+     * recently used program when it holds too many.
+     *
+     * @param capacity the most programs held
+     * @return the empty map
+     */
+    private LinkedHashMap<String, V> recentlyUsed(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                if (size() > capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The key of a source text, the hex SHA-256 hash of its bytes.
+     *
+     * @param source the source text
+     * @return the key
+     */
+    public static String key(byte[] source) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(source));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to have SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Look up a program, first in memory and then in the directory.  A
+     * program read from the directory is then held in memory too.
+     *
+     * @param key the key of its source text
+     * @return the program, or null if it is not cached
+     */
+    public V get(String key) {
+        synchronized (this) {
+            V program = this.programs.get(key);
+            if (program != null) {
+                this.hits++;
+                return program;
+            }
+        }
+        V program = null;
+        if (this.directory != null) {
+            Path file = file(key);
+            try {
+                if (Files.exists(file)) {
+                    program = this.codec.read(file);
+                }
+            } catch (IOException | RuntimeException e) {
+                // an unreadable file is a miss, and is removed so put() writes it again
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException removing) {
+                    // left in place, it is only ever a miss
+                }
+            }
+        }
+        synchronized (this) {
+            if (program == null) {
+                this.misses++;
+            } else {
+                this.diskHits++;
+                this.programs.put(key, program);
+            }
+        }
+        return program;
+    }
+
+    /**
+     * Hold a program in memory, and write it to the directory if it is not
+     * there already.
+     *
+     * @param key the key of its source text
+     * @param program the program
+     * @throws UncheckedIOException if the program cannot be written
+     */
+    public void put(String key, V program) {
+        synchronized (this) {
+            this.programs.put(key, program);
+        }
+        if (this.directory != null) {
+            Path file = file(key);
+            try {
+                if (!Files.exists(file)) {
+                    // write a file of its own first, so no reader sees part of one
+                    Path written = Files.createTempFile(this.directory, key, ".tmp");
+                    try {
+                        this.codec.write(program, written);
+                        Files.move(written, file, StandardCopyOption.REPLACE_EXISTING,
+                                StandardCopyOption.ATOMIC_MOVE);
+                    } finally {
+                        Files.deleteIfExists(written);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * The file a program is written to.
+     *
+     * @param key the key of its source text
+     * @return the path in the directory
+     */
+    private Path file(String key) {
+        return this.directory.resolve(key + this.codec.extension());
+    }
+
+    /**
+     * The number of programs held in memory.
+     *
+     * @return the number of programs
+     */
+    public synchronized int size() {
+        return this.programs.size();
+    }
+
+    /**
+     * The number of lookups found in memory.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * The number of lookups found in the directory, after missing in memory.
+     *
+     * @return the number of disk hits
+     */
+    public synchronized long getDiskHits() {
+        return this.diskHits;
+    }
+
+    /**
+     * The number of lookups found in neither memory nor the directory.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * The number of programs evicted from memory to make room for others.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+}
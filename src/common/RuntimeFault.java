@@ -0,0 +1,100 @@
+package common;
+
+/**
+ * The fault raised when the machine or interpreter encounters an error.  It
+ * carries the kind of error, the offending token if there is one, and where
+ * in the program it happened, so that callers can recover and keep running
+ * other programs.  Only the command line programs turn a fault into an exit.
+ *
+ * @author Tiffany Lee
+ */
+public class RuntimeFault extends RuntimeException {
+    /** the version of the serialized form */
+    private static final long serialVersionUID = 1L;
+    /** the kind of error */
+    private final Errors.Type type;
+    /** the offending token, or null */
+    private final Object info;
+    /** the index of the faulting machine instruction, or -1 if unknown */
+    private int instruction;
+    /** the source line of the faulting statement, or -1 if unknown */
+    private int line;
+
+    /**
+     * Create a new fault at an unknown location.
+     *
+     * @param type the kind of error
+     * @param info if not null, the offending token
+     */
+    public RuntimeFault(Errors.Type type, Object info) {
+        super(info == null ? type.getMessage() : type.getMessage() + ": " + info);
+        this.type = type;
+        this.info = info;
+        this.instruction = -1;
+        this.line = -1;
+    }
+
+    /**
+     * Get the kind of error.
+     *
+     * @return the error type
+     */
+    public Errors.Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Get the offending token.
+     *
+     * @return the token, or null if the error has none
+     */
+    public Object getInfo() {
+        return this.info;
+    }
+
+    /**
+     * Get the index of the machine instruction that faulted.
+     *
+     * @return the instruction index, or -1 if unknown
+     */
+    public int getInstruction() {
+        return this.instruction;
+    }
+
+    /**
+     * Get the source line of the statement that faulted.
+     *
+     * @return the 1-based line number, or -1 if unknown
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Record the index of the machine instruction that faulted, unless one
+     * is already known.
+     *
+     * @param instruction the instruction index
+     * @return this fault
+     */
+    public RuntimeFault atInstruction(int instruction) {
+        if (this.instruction < 0) {
+            this.instruction = instruction;
+        }
+        return this;
+    }
+
+    /**
+     * Record the source line of the statement that faulted, unless one is
+     * already known.
+     *
+     * @param line the 1-based line number
+     * @return this fault
+     */
+    public RuntimeFault atLine(int line) {
+        if (this.line < 0) {
+            this.line = line;
+        }
+        return this;
+    }
+}
@@ -1,11 +1,14 @@
 package common;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * The machine's symbol table for handling the mapping of
- * variable names to their integer values.
+ * variable names to their integer values.  Temporaries the compiler makes
+ * for shared subexpressions are held apart from the program's variables, so
+ * they never appear in its size or its listing.
  *
  * @author RIT CS
  * @author Tiffany Lee
@@ -13,6 +16,8 @@ import java.util.Map;
 public class SymbolTable {
     /** the symbol table */
     private final Map<String, Integer> symTbl;
+    /** the compiler temporaries */
+    private final Map<String, Integer> temporaries;
 
     /**
      * Create an empty symbol table.
@@ -21,6 +26,7 @@ public class SymbolTable {
          // use a LinkedHashMap so that we have O(1) access,
          // but the insertion order is maintained.
         this.symTbl = new LinkedHashMap<>();
+        this.temporaries = new HashMap<>();
     }
 
     /**
@@ -32,6 +38,24 @@ public class SymbolTable {
         this.symTbl.put(name, value);
     }
 
+    /**
+     * Set a compiler temporary, which is kept out of the table's listing.
+     * @param name the temporary name
+     * @param value the associated value
+     */
+    public void setTemporary(String name, int value) {
+        this.temporaries.put(name, value);
+    }
+
+    /**
+     * Retrieve the value of a compiler temporary.
+     * @param name the temporary name
+     * @return the value
+     */
+    public int getTemporary(String name) {
+        return this.temporaries.get(name);
+    }
+
     /**
      * Retrieve the associated value of a variable name from the table.
      * @param name the variable name
@@ -0,0 +1,413 @@
+package common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Splits ARB and MAQ source into whitespace separated tokens, a line at a
+ * time, straight from its bytes.  Lines end at a newline (or a carriage
+ * return and newline), the same lines Scanner.nextLine() returns.  The current
+ * token is only an offset, a length and a kind into the source, so reading a
+ * token allocates nothing: integers are parsed from the bytes, and a name is
+ * only made into a String the first time it is seen, then interned.  Source
+ * read from a stream is buffered a line at a time, so input of any length can
+ * be tokenized in the space of its longest line.
+ *
+ * @author Tiffany Lee
+ */
+public class Tokenizer {
+    /** a token starting with a letter */
+    public static final byte NAME = 0;
+    /** a token starting with a digit, or a minus and a digit */
+    public static final byte INTEGER = 1;
+    /** any other single byte token, like an operator */
+    public static final byte SYMBOL = 2;
+    /** anything else */
+    public static final byte OTHER = 3;
+
+    /** the size of the buffer a stream is first read into */
+    private static final int BUFFER = 8192;
+
+    /** the source, or the part of a stream that has been read */
+    private byte[] source;
+    /** the end of the source */
+    private int end;
+    /** the stream the source is read from, or null if it is all in memory */
+    private final InputStream in;
+    /** whether the stream has been read to its end */
+    private boolean drained;
+    /** the start of the current line */
+    private int lineStart;
+    /** the end of the current line, before its line terminator */
+    private int lineEnd;
+    /** where the next line starts */
+    private int nextLine;
+    /** the 1-based number of the current line, or 0 before the first */
+    private int line;
+    /** the start of the current token */
+    private int offset;
+    /** the length of the current token, 0 when there is none */
+    private int length;
+    /** the kind of the current token */
+    private byte kind;
+
+    /** the bytes of each interned name, in a table that is half empty */
+    private byte[][] keys;
+    /** the interned names, in the same slots as their bytes */
+    private String[] names;
+    /** the number of interned names */
+    private int interned;
+
+    /**
+     * Tokenize source held in memory.
+     *
+     * @param source the source, which must not change while it is tokenized
+     */
+    public Tokenizer(byte[] source) {
+        this(source, source.length, null);
+    }
+
+    /**
+     * Tokenize source read from a stream as it is needed, such as standard
+     * input.  Only the current line is held in memory.
+     *
+     * @param in the source
+     */
+    public Tokenizer(InputStream in) {
+        this(new byte[BUFFER], 0, in);
+    }
+
+    /**
+     * Create a tokenizer.
+     *
+     * @param source the source, or the buffer a stream is read into
+     * @param end the end of the source in the buffer
+     * @param in the stream, or null if the source is all in memory
+     */
+    private Tokenizer(byte[] source, int end, InputStream in) {
+        this.source = source;
+        this.end = end;
+        this.in = in;
+        this.drained = in == null;
+        this.nextLine = 0;
+        this.line = 0;
+        this.keys = new byte[64][];
+        this.names = new String[64];
+        this.interned = 0;
+    }
+
+    /**
+     * Tokenize a source file, read in a single buffer.
+     *
+     * @param path the source file
+     * @return the tokenizer, before its first line
+     * @throws IOException if the file cannot be read
+     */
+    public static Tokenizer read(Path path) throws IOException {
+        return new Tokenizer(Files.readAllBytes(path));
+    }
+
+    /**
+     * Move to the start of the next line.
+     *
+     * @return whether there was another line
+     * @throws UncheckedIOException if the stream cannot be read
+     */
+    public boolean nextLine() {
+        int at = this.nextLine;
+        while (true) {
+            while (at < this.end && this.source[at] != '\n') {
+                at++;
+            }
+            if (at < this.end || this.drained) {
+                break;
+            }
+            at = fill();
+        }
+        if (this.nextLine >= this.end) {
+            this.length = 0;
+            return false;
+        }
+        this.lineStart = this.nextLine;
+        this.nextLine = at + 1;
+        if (at > this.lineStart && this.source[at - 1] == '\r') {
+            at--;
+        }
+        this.lineEnd = at;
+        this.offset = this.lineStart;
+        this.length = 0;
+        this.line++;
+        return true;
+    }
+
+    /**
+     * Read more of the stream, after dropping the lines already read.  The
+     * buffer grows if the line being read fills it.
+     *
+     * @return where the search for the end of the line resumes
+     * @throws UncheckedIOException if the stream cannot be read
+     */
+    private int fill() {
+        int searched = this.end - this.nextLine;
+        System.arraycopy(this.source, this.nextLine, this.source, 0, searched);
+        this.end = searched;
+        this.nextLine = 0;
+        if (this.end == this.source.length) {
+            this.source = Arrays.copyOf(this.source, this.source.length * 2);
+        }
+        try {
+            int read = this.in.read(this.source, this.end, this.source.length - this.end);
+            if (read < 0) {
+                this.drained = true;
+            } else {
+                this.end += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return searched;
+    }
+
+    /**
+     * Move to the next token of the current line.
+     *
+     * @return whether the line had another token
+     */
+    public boolean next() {
+        int at = this.offset + this.length;
+        while (at < this.lineEnd && isSpace(this.source[at])) {
+            at++;
+        }
+        this.offset = at;
+        if (at == this.lineEnd) {
+            this.length = 0;
+            return false;
+        }
+        while (at < this.lineEnd && !isSpace(this.source[at])) {
+            at++;
+        }
+        this.length = at - this.offset;
+        this.kind = classify();
+        return true;
+    }
+
+    /**
+     * Is a byte whitespace, as split("\\s+") sees it?
+     *
+     * @param b the byte
+     * @return whether it separates tokens
+     */
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+
+    /**
+     * Find the kind of the current token from its first bytes.
+     *
+     * @return the kind of token
+     */
+    private byte classify() {
+        byte first = this.source[this.offset];
+        if ((first >= 'a' && first <= 'z') || (first >= 'A' && first <= 'Z')) {
+            return NAME;
+        }
+        byte digit = first == '-' && this.length > 1 ? this.source[this.offset + 1] : first;
+        if (digit >= '0' && digit <= '9') {
+            return INTEGER;
+        }
+        return this.length == 1 ? SYMBOL : OTHER;
+    }
+
+    /**
+     * The kind of the current token.
+     *
+     * @return NAME, INTEGER, SYMBOL or OTHER
+     */
+    public byte kind() {
+        return this.kind;
+    }
+
+    /**
+     * The 1-based number of the current line.
+     *
+     * @return the line number
+     */
+    public int line() {
+        return this.line;
+    }
+
+    /**
+     * Where the current token starts in the source, or in the buffer when
+     * the source is read from a stream.
+     *
+     * @return the byte offset
+     */
+    public int offset() {
+        return this.offset;
+    }
+
+    /**
+     * The length of the current token.
+     *
+     * @return the number of bytes
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * The byte of a single byte token.
+     *
+     * @return the first byte of the current token, as a character
+     */
+    public char symbol() {
+        return (char) this.source[this.offset];
+    }
+
+    /**
+     * Is the current line exactly some text, with nothing around it?
+     *
+     * @param text the text, in ASCII
+     * @return whether the line is the text
+     */
+    public boolean lineIs(String text) {
+        if (this.lineEnd - this.lineStart != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (this.source[this.lineStart + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The value of the current token, parsed the way Integer.parseInt()
+     * parses it, but from the bytes.
+     *
+     * @return the value
+     * @throws NumberFormatException if the token is not an int
+     */
+    public int intValue() {
+        int at = this.offset;
+        int stop = this.offset + this.length;
+        boolean negative = at < stop && this.source[at] == '-';
+        if (negative || (at < stop && this.source[at] == '+')) {
+            at++;
+        }
+        if (at == stop) {
+            throw new NumberFormatException("For input string: \"" + text() + "\"");
+        }
+        // accumulate negatively, so that Integer.MIN_VALUE fits
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int value = 0;
+        for (; at < stop; at++) {
+            int digit = this.source[at] - '0';
+            if (digit < 0 || digit > 9 || value < limit / 10 || value * 10 < limit + digit) {
+                throw new NumberFormatException("For input string: \"" + text() + "\"");
+            }
+            value = value * 10 - digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * The current token as an interned String.  Each distinct token is only
+     * decoded once, so this allocates nothing for a name seen before.
+     *
+     * @return the token
+     */
+    public String name() {
+        int hash = 1;
+        for (int i = this.offset; i < this.offset + this.length; i++) {
+            hash = 31 * hash + this.source[i];
+        }
+        int mask = this.keys.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (this.keys[slot] != null) {
+            if (Arrays.equals(this.keys[slot], 0, this.keys[slot].length,
+                    this.source, this.offset, this.offset + this.length)) {
+                return this.names[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = Arrays.copyOfRange(this.source, this.offset, this.offset + this.length);
+        this.names[slot] = new String(this.keys[slot], StandardCharsets.UTF_8);
+        String name = this.names[slot];
+        if (++this.interned * 2 > this.keys.length) {
+            rehash();
+        }
+        return name;
+    }
+
+    /**
+     * Double the size of the interned name table.
+     */
+    private void rehash() {
+        byte[][] oldKeys = this.keys;
+        String[] oldNames = this.names;
+        this.keys = new byte[oldKeys.length * 2][];
+        this.names = new String[oldKeys.length * 2];
+        int mask = this.keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int hash = 1;
+                for (byte b : oldKeys[i]) {
+                    hash = 31 * hash + b;
+                }
+                int slot = (hash ^ (hash >>> 16)) & mask;
+                while (this.keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.names[slot] = oldNames[i];
+            }
+        }
+    }
+
+    /**
+     * The current token as a new String, for tokens that are not interned,
+     * like ones reported in an error.
+     *
+     * @return the token
+     */
+    public String text() {
+        return new String(this.source, this.offset, this.length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Print the first lines of the source, each followed by a line
+     * separator, as println() prints the lines Scanner.nextLine() returns.
+     *
+     * @param out where to print them
+     * @param lines how many lines to print
+     * @throws IllegalStateException if the source is read from a stream, so
+     *                               its earlier lines are gone
+     */
+    public void printLines(PrintStream out, int lines) {
+        if (this.in != null) {
+            throw new IllegalStateException("the lines of a stream are not kept");
+        }
+        int at = 0;
+        for (int i = 0; i < lines && at < this.end; i++) {
+            int stop = at;
+            while (stop < this.end && this.source[stop] != '\n') {
+                stop++;
+            }
+            int next = stop + 1;
+            if (stop > at && this.source[stop - 1] == '\r') {
+                stop--;
+            }
+            out.write(this.source, at, stop - at);
+            out.println();
+            at = next;
+        }
+    }
+}
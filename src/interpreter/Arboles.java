@@ -1,19 +1,27 @@
 package interpreter;
 
 import common.Errors;
+import common.ProgramCache;
+import common.RuntimeFault;
 import common.SymbolTable;
+import common.Tokenizer;
 import interpreter.nodes.ArbolesNode;
 import interpreter.nodes.action.ActionNode;
 import interpreter.nodes.action.Assignment;
 import interpreter.nodes.expression.*;
+import machine.Executable;
 import machine.Maquina;
-import machine.instructions.Push;
+import machine.ObjectFile;
+import machine.Program;
+import machine.RegisterFile;
 
-import java.io.File;
 import java.util.*;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 import interpreter.nodes.action.*;
 
@@ -31,20 +39,83 @@ import interpreter.nodes.action.*;
 public class Arboles {
     /** the terminating character when reading machine instructions from user (not file) */
     private final static String EOF = ".";
-    /** the ARB print token */
-    private final static String PRINT = "@";
-    /** the ARB assignment token */
-    private final static String ASSIGN = "=";
-    /** the location to generate the compiled ARB program of MAQ instructions */
-    private final static String TMP_MAQ_FILE = "tmp/TEMP.maq";
-    /** the list of tokens  */
-    private static final List<String> tokenList = new ArrayList<>();
+    /** the command line option that exports the compiled MAQ program to a file */
+    private final static String EXPORT_OPTION = "-export";
+    /** the command line option that simplifies the parse trees before running them */
+    private final static String OPTIMIZE_OPTION = "-optimize";
+    /** the command line option that computes repeated subexpressions once */
+    private final static String SHARE_OPTION = "-share";
+    /** the command line option that removes assignments whose value is never observed */
+    private final static String ELIMINATE_OPTION = "-eliminate";
+    /** the command line option that keeps every variable in the final symbol table */
+    private final static String KEEP_OPTION = "-keep";
+    /** the command line option that compiles deeper operands first */
+    private final static String SHALLOW_OPTION = "-shallow";
+    /** the command line option that interprets by walking the trees instead of specializing them */
+    private final static String REFERENCE_OPTION = "-reference";
+    /** the command line option that runs each statement as soon as it is read */
+    private final static String STREAM_OPTION = "-stream";
+    /** the command line option that keeps compiled programs in a directory */
+    private final static String CACHE_OPTION = "-cache";
+    /** the option to reject programs certain to read an uninitialized variable */
+    private final static String VERIFY_OPTION = "-verify";
+    /** how a ProgramCache writes parsed programs to its directory, as the object file of their compiled program */
+    public final static ProgramCache.Codec<Parsed> CODEC = new ProgramCache.Codec<>() {
+        @Override
+        public String extension() {
+            return ".arb" + ObjectFile.EXTENSION;
+        }
+
+        @Override
+        public Parsed read(Path path) throws IOException {
+            return new Parsed(null, null, ObjectFile.read(path));
+        }
+
+        @Override
+        public void write(Parsed parsed, Path path) throws IOException {
+            ObjectFile.write(parsed.program(), path);
+        }
+    };
+
+    /**
+     * A parsed ARB program, as kept in a ProgramCache.  The parse trees never
+     * change once built, so one parsed program can be used by any number of
+     * interpreters.  Only the compiled program is written to the cache's
+     * directory, so one read back from there has no statements, and they are
+     * parsed again.
+     *
+     * @param actions the statements, or null if they have to be parsed again
+     * @param lines the source line each statement starts on, or null
+     * @param program the statements compiled to MAQ instructions
+     */
+    public record Parsed(List<ActionNode> actions, List<Integer> lines, Executable program) {}
+
+    /** the tokens, read through a cursor */
+    private final TokenStream tokens = new TokenStream();
     /** the list of Action nodes */
-    private static final List<ActionNode> actionList = new ArrayList<>();
+    private final List<ActionNode> actionList = new ArrayList<>();
+    /** the source line each Action node starts on */
+    private final List<Integer> actionLines = new ArrayList<>();
+    /** the variable slots the specialized statements read and write */
+    private final RegisterFile registers = new RegisterFile();
+    /** the statements specialized into closures, built on first use */
+    private List<CompiledAction> compiled;
+    /** the machine that executes the compiled program */
+    private final Maquina machine = new Maquina();
+    /** the compiled program of MAQ instructions */
+    private final Program program = new Program(machine);
+    /** the cache the parsed program is kept in, or null */
+    private ProgramCache<Parsed> cache;
+    /** the cache key of the ARB input */
+    private String key;
+    /** whether the statements came from the cache, and so need not be put in it */
+    private boolean cached;
+    /** the compiled program from the cache, while the statements are still the ones it was compiled from */
+    private Executable linked;
 
     /**
      * Create a new Arboles instance.  The result of this method is the tokenization
-     * of the entire ARB input into a list of strings.
+     * of the entire ARB input into a stream of classified tokens.
      *
      * @param in where to read the ARB input from
      * @param stdin if true, the user should be prompted to enter ARB statements until
@@ -52,70 +123,443 @@ public class Arboles {
      */
     public Arboles(Scanner in, boolean stdin) {
         if (stdin) System.out.print("🌳 ");
-        List<String> prefix = new ArrayList<>();
+        StringBuilder source = new StringBuilder();
         while (in.hasNextLine()){
-            String token = in.nextLine();
-            if (token.equals(EOF)) break;
-            prefix.add(token);
-            tokenList.addAll(List.of(token.strip().split("\\s+")));
+            String line = in.nextLine();
+            if (line.equals(EOF)) break;
+            source.append(line).append('\n');
             if (stdin) System.out.print("🌳 ");
         }
+        tokenize(new Tokenizer(source.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Create a new Arboles instance from source already in memory, such as a
+     * file read by Tokenizer.read().  The result is the same as reading it
+     * through a Scanner, but without making a String of each line or token.
+     *
+     * @param source the ARB input, before its first line
+     */
+    public Arboles(Tokenizer source) {
+        tokenize(source);
+    }
+
+    /**
+     * Create a new Arboles instance from source already in memory, using the
+     * statements and compiled program of the same source from a cache rather
+     * than tokenizing, parsing and compiling it again.  The input is displayed
+     * either way.  A source that is not in the cache is put there by
+     * buildProgram().  The statements from the cache are the ones before any
+     * optimizeProgram(), shareSubexpressions() or eliminateDeadStores(), and
+     * the compiled program is used only while there has been none of them.
+     *
+     * @param source the ARB input
+     * @param cache the programs parsed before, by the hash of their source
+     */
+    public Arboles(byte[] source, ProgramCache<Parsed> cache) {
+        this.cache = cache;
+        this.key = ProgramCache.key(source);
+        Parsed parsed = cache.get(key);
+        if (parsed == null || parsed.actions() == null) {
+            tokenize(new Tokenizer(source));
+        } else {
+            // display the input as tokenize() does, without tokenizing it
+            Tokenizer lines = new Tokenizer(source);
+            int count = 0;
+            while (lines.nextLine() && !lines.lineIs(EOF)) {
+                count++;
+            }
+            System.out.println("(ARB) prefix...");
+            lines.printLines(System.out, count);
+            actionList.addAll(parsed.actions());
+            actionLines.addAll(parsed.lines());
+            cached = true;
+        }
+        if (parsed != null) {
+            linked = parsed.program();
+        }
+    }
+
+    /**
+     * Create a new Arboles instance with no input, to run a program with
+     * streamProgram() as it is read.
+     */
+    public Arboles() {
+    }
+
+    /**
+     * Add every token of the ARB input, up to a line that is just the
+     * terminating ".", to the token stream, then display the input.
+     *
+     * @param source the ARB input, before its first line
+     */
+    private void tokenize(Tokenizer source) {
+        int lines = 0;
+        while (readLine(source)) {
+            lines++;
+        }
         System.out.println("(ARB) prefix...");
-        prefix.forEach(System.out::println);
+        source.printLines(System.out, lines);
+    }
+
+    /**
+     * Add the tokens of the next line of ARB input to the token stream.
+     *
+     * @param source the ARB input
+     * @return false if the input has ended, or the line is the terminating "."
+     */
+    private boolean readLine(Tokenizer source) {
+        if (!source.nextLine() || source.lineIs(EOF)) {
+            return false;
+        }
+        if (!source.next()) {
+            // a blank line splits into a single empty token
+            tokens.add("", source.line());
+            return true;
+        }
+        do {
+            tokens.add(source);
+        } while (source.next());
+        return true;
     }
 
     /**
-     * A recursive helper function that parses enough of the inputted token list
+     * A recursive helper function that parses enough of the token stream
      * to get the fully represented expression and returns the root as an
      * Expression node
      *
-     * @param tokenList the list of tokens
+     * @param tokens the token stream, with the cursor at the expression
      * @return an Expression Node
      */
-    public ExpressionNode helpBuild(List<String> tokenList) {
-        if(tokenList.size() == 0){
-            Errors.report(Errors.Type.PREMATURE_END);
+    public ExpressionNode helpBuild(TokenStream tokens) {
+        switch (tokens.peekKind()) {
+            case TokenStream.UNARY -> {
+                return new UnaryOperation(tokens.next(), helpBuild(tokens));
+            } case TokenStream.BINARY -> {
+                String operator = tokens.next();
+                ExpressionNode left = helpBuild(tokens);
+                return new BinaryOperation(operator, left, helpBuild(tokens));
+            } case TokenStream.VARIABLE -> {
+                return new Variable(tokens.next());
+            } case TokenStream.CONSTANT -> {
+                return new Constant(tokens.nextValue());
+            } default -> {
+                Errors.report(Errors.Type.ILLEGAL_OPERATOR, tokens.peek());
+                return null;
+            }
+        }
+    }
 
-        } else if (UnaryOperation.OPERATORS.contains(tokenList.get(0))) { //UnaryOperation
-            return new UnaryOperation(tokenList.remove(0), helpBuild(tokenList));
+    /**
+     * Parses enough of the token stream to get the fully represented expression
+     * and returns the root as an Expression node.  This produces the same tree
+     * as helpBuild(), but keeps the operators still waiting for operands on an
+     * explicit stack, so expressions of any depth can be parsed.
+     *
+     * @param tokens the token stream, with the cursor at the expression
+     * @return an Expression Node
+     */
+    public ExpressionNode buildExpression(TokenStream tokens) {
+        // the operators still waiting for operands, and for each binary
+        // operator its left child once that has been parsed
+        Deque<String> operators = new ArrayDeque<>();
+        Deque<Optional<ExpressionNode>> lefts = new ArrayDeque<>();
+        while (true) {
+            ExpressionNode node;
+            switch (tokens.peekKind()) {
+                case TokenStream.UNARY, TokenStream.BINARY -> {
+                    operators.push(tokens.next());
+                    lefts.push(Optional.empty());
+                    continue;
+                } case TokenStream.VARIABLE -> {
+                    node = new Variable(tokens.next());
+                } case TokenStream.CONSTANT -> {
+                    node = new Constant(tokens.nextValue());
+                } default -> {
+                    Errors.report(Errors.Type.ILLEGAL_OPERATOR, tokens.peek());
+                    return null;
+                }
+            }
+            // hand the finished operand up to the operators waiting for it
+            while (true) {
+                if (operators.isEmpty()) {
+                    return node;
+                }
+                String operator = operators.peek();
+                if (UnaryOperation.OPERATORS.contains(operator)) {
+                    operators.pop();
+                    lefts.pop();
+                    node = new UnaryOperation(operator, node);
+                } else if (lefts.peek().isEmpty()) {
+                    lefts.pop();
+                    lefts.push(Optional.of(node));
+                    break;
+                } else {
+                    operators.pop();
+                    node = new BinaryOperation(operator, lefts.pop().get(), node);
+                }
+            }
+        }
+    }
 
-        } else if (BinaryOperation.OPERATORS.contains(tokenList.get(0))) { //BinaryOperation
-            return new BinaryOperation(tokenList.remove(0), helpBuild(tokenList), helpBuild(tokenList));
+    /**
+     * Build the parse trees into the program which is a list of ActionNode's -
+     * one per line of ARB input.
+     *
+     * @throws RuntimeFault if the program is malformed, with the line of the
+     *                      offending token
+     */
+    public void buildProgram() {
+        while(tokens.hasNext()) {
+            actionLines.add(tokens.line());
+            try {
+                actionList.add(buildAction());
+            } catch (RuntimeFault fault) {
+                throw fault.atLine(tokens.line());
+            }
+        }
+        if (cache != null && !cached) {
+            if (linked == null) {
+                linked = link();
+            }
+            cache.put(key, new Parsed(List.copyOf(actionList), List.copyOf(actionLines), linked));
+            cached = true;
+        }
+    }
 
-        } else if (tokenList.get(0).matches("^[a-zA-Z].*")) { //Variable
-            return new Variable(tokenList.remove(0));
+    /**
+     * Build the parse tree of the next statement in the token stream.
+     *
+     * @return the statement
+     */
+    private ActionNode buildAction() {
+        if (tokens.peekKind() == TokenStream.ASSIGN) {
+            tokens.next();
+            String name = tokens.next();
+            return new Assignment(name, buildExpression(tokens));
 
-        } else if(tokenList.get(0).matches("^-?[0-9].*")){ //Constant
-            int value = Integer.parseInt(tokenList.remove(0));
-            return new Constant(value);
+        } else if (tokens.peekKind() == TokenStream.PRINT) {
+            tokens.next();
+            return new Print(buildExpression(tokens));
 
         } else {
-            Errors.report(Errors.Type.ILLEGAL_OPERATOR, tokenList.get(0));
+            Errors.report(Errors.Type.ILLEGAL_ACTION, tokens.peek());
+            return null;
         }
-        return null;
     }
 
     /**
-     * Build the parse trees into the program which is a list of ActionNode's -
-     * one per line of ARB input.
+     * Run an ARB program a statement at a time as it is read, rather than
+     * reading and building all of it first.  Each statement is parsed,
+     * optionally simplified, specialized and interpreted as soon as its last
+     * token is read, and then dropped, so only the symbol table and the
+     * statement being read are held in memory, and a program's first output
+     * comes as soon as its first print is read.  A statement may continue
+     * onto later lines.  Unlike interpretProgram(), a malformed statement or
+     * a certain read of an uninitialized variable is only found when it is
+     * reached, after the statements before it have run.
+     *
+     * @param source the ARB input, before its first line
+     * @param optimize if true, each statement is simplified with what is
+     *                 known from the statements before it
+     * @param export if not null, each statement is also compiled, and its
+     *               MAQ instructions are written here
+     * @throws RuntimeFault if a statement is malformed or faults, with its
+     *                      source line
      */
-    public void buildProgram() {
-        while(!tokenList.isEmpty()) {
-            if (tokenList.get(0).equals(ASSIGN)) {
-                tokenList.remove(0);
-                String name = tokenList.remove(0);
-                Assignment assign = new Assignment(name, helpBuild(tokenList));
-                actionList.add(assign);
-
-            } else if (tokenList.get(0).equals(PRINT)) {
-                tokenList.remove(0);
-                Print print = new Print(helpBuild(tokenList));
-                actionList.add(print);
+    public void streamProgram(Tokenizer source, boolean optimize, PrintWriter export) {
+        System.out.println("(ARB) streaming program...");
+        DefiniteAssignment analysis = new DefiniteAssignment();
+        Simplifier simplifier = optimize ? new Simplifier() : null;
+        registers.reset();
+        boolean more = true;
+        while (tokens.hasNext() || (more && (more = readLine(source)))) {
+            int start = tokens.position();
+            int line = tokens.line();
+            ActionNode actionNode;
+            try {
+                actionNode = buildAction();
+            } catch (RuntimeFault fault) {
+                if (fault.getType() == Errors.Type.PREMATURE_END && more && (more = readLine(source))) {
+                    // the statement goes on to the next line
+                    tokens.rewind(start);
+                    continue;
+                }
+                throw fault.atLine(tokens.line());
+            }
+            tokens.discard();
 
+            if (simplifier != null) {
+                if (actionNode instanceof Assignment assignment) {
+                    ExpressionNode value = simplifier.simplify(assignment.getChild());
+                    simplifier.assign(assignment.getName(), value);
+                    actionNode = new Assignment(assignment.getName(), value);
+                } else {
+                    actionNode = new Print(simplifier.simplify(((Print) actionNode).getChild()));
+                }
+            }
+            try {
+                analysis.check(actionNode instanceof Assignment assignment
+                        ? assignment.getChild() : ((Print) actionNode).getChild());
+                actionNode.specialize(registers, analysis.getDefined()).execute(registers);
+            } catch (RuntimeFault fault) {
+                throw fault.atLine(line);
+            }
+            if (actionNode instanceof Assignment assignment) {
+                analysis.assign(assignment.getName());
+            }
+            if (export != null) {
+                Program statement = new Program(machine);
+                actionNode.compile(statement);
+                statement.write(export);
+            }
+        }
+        System.out.println("(ARB) Symbol table:");
+        System.out.print(registers.toSymbolTable());
+    }
+
+    /**
+     * Simplify the parse trees with a Simplifier, statement by statement, so
+     * that both interpretProgram() and compileProgram() run the smaller
+     * program.  Expressions that would fault are kept, so the optimized
+     * program faults on the same line.  The optimized program is displayed
+     * in infix.
+     *
+     * @return the number of nodes removed
+     */
+    public int optimizeProgram() {
+        Simplifier simplifier = new Simplifier();
+        for (int i = 0; i < actionList.size(); i++) {
+            if (actionList.get(i) instanceof Assignment assignment) {
+                ExpressionNode value = simplifier.simplify(assignment.getChild());
+                simplifier.assign(assignment.getName(), value);
+                actionList.set(i, new Assignment(assignment.getName(), value));
+            } else if (actionList.get(i) instanceof Print print) {
+                actionList.set(i, new Print(simplifier.simplify(print.getChild())));
+            }
+        }
+        compiled = null;
+        linked = null;
+        System.out.println("(ARB) optimized infix (" + simplifier.getRemoved() + " nodes removed)...");
+        actionList.forEach(actionNode -> {
+            actionNode.emit();
+            System.out.print("\n");
+        });
+        return simplifier.getRemoved();
+    }
+
+    /**
+     * Find the subexpressions the program computes more than once, with an
+     * ExpressionDag, and rewrite the statements so each is computed once and
+     * then reused from a compiler-generated temporary, by both
+     * interpretProgram() and compileProgram().  The rewritten program is
+     * displayed in infix, along with the number of MAQ instructions it
+     * compiles to before and after.
+     *
+     * @return the number of subexpressions shared
+     */
+    public int shareSubexpressions() {
+        int before = instructionCount();
+        ExpressionDag dag = new ExpressionDag();
+        for (ActionNode actionNode : actionList) {
+            if (actionNode instanceof Assignment assignment) {
+                dag.add(assignment.getChild());
+                dag.assign(assignment.getName());
+            } else {
+                dag.add(((Print) actionNode).getChild());
+            }
+        }
+        List<ExpressionNode> shared = dag.share();
+        for (int i = 0; i < actionList.size(); i++) {
+            if (actionList.get(i) instanceof Assignment assignment) {
+                actionList.set(i, new Assignment(assignment.getName(), shared.get(i)));
             } else {
-                Errors.report(Errors.Type.ILLEGAL_ACTION, tokenList.get(0));
+                actionList.set(i, new Print(shared.get(i)));
             }
         }
+        compiled = null;
+        linked = null;
+        System.out.println("(ARB) shared infix (" + dag.getTemporaries() + " subexpressions shared, "
+                + before + " -> " + instructionCount() + " instructions)...");
+        actionList.forEach(actionNode -> {
+            actionNode.emit();
+            System.out.print("\n");
+        });
+        return dag.getTemporaries();
+    }
+
+    /**
+     * Remove the assignments whose value is never observed, found by a
+     * Liveness pass, so that neither interpretProgram() nor compileProgram()
+     * runs them.  Without keepSymbols, a variable that is only assigned is
+     * left out of the final symbol table.  The remaining program is displayed
+     * in infix.
+     *
+     * @param keepSymbols if true, the final symbol table is exactly the same
+     * @return the number of statements removed
+     */
+    public int eliminateDeadStores(boolean keepSymbols) {
+        List<String> targets = new ArrayList<>(actionList.size());
+        List<ExpressionNode> roots = new ArrayList<>(actionList.size());
+        for (ActionNode actionNode : actionList) {
+            if (actionNode instanceof Assignment assignment) {
+                targets.add(assignment.getName());
+                roots.add(assignment.getChild());
+            } else {
+                targets.add(null);
+                roots.add(((Print) actionNode).getChild());
+            }
+        }
+        boolean[] kept = Liveness.live(targets, roots, keepSymbols);
+        int removed = 0;
+        for (int i = kept.length - 1; i >= 0; i--) {
+            if (!kept[i]) {
+                actionList.remove(i);
+                actionLines.remove(i);
+                removed++;
+            }
+        }
+        compiled = null;
+        linked = null;
+        System.out.println("(ARB) live infix (" + removed + " statements removed)...");
+        actionList.forEach(actionNode -> {
+            actionNode.emit();
+            System.out.print("\n");
+        });
+        return removed;
+    }
+
+    /**
+     * The number of MAQ instructions the program currently compiles to.
+     *
+     * @return the instruction count
+     */
+    private int instructionCount() {
+        return scratch().getInstructions().size();
+    }
+
+    /**
+     * Compile the program into a program of its own, to measure it.
+     *
+     * @return the compiled program
+     */
+    private Program scratch() {
+        Program scratch = new Program(new Maquina());
+        actionList.forEach(actionNode -> actionNode.compile(scratch));
+        return scratch;
+    }
+
+    /**
+     * Compile the program into a program that can be run against any
+     * machine, to be kept in the cache.
+     *
+     * @return the compiled program
+     */
+    private Executable link() {
+        Maquina scratch = new Maquina();
+        Program compiled = new Program(scratch);
+        actionList.forEach(actionNode -> actionNode.compile(compiled));
+        return new Executable(compiled.getInstructions(), scratch.getRegisters());
     }
 
     /**
@@ -131,46 +575,191 @@ public class Arboles {
     }
 
     /**
-     * Execute the ARB program of ActionNode's to standard output using execute().
+     * Check the program before any of it runs with a DefiniteAssignment
+     * pass, which rejects it if it is certain to read an uninitialized
+     * variable.
+     *
+     * @throws RuntimeFault if a statement is certain to read an uninitialized
+     *                      variable, with the variable and its source line
+     */
+    public void verifyProgram() {
+        System.out.println("(ARB) verifying program...");
+        DefiniteAssignment analysis = new DefiniteAssignment();
+        for (int i = 0; i < actionList.size(); i++) {
+            ActionNode actionNode = actionList.get(i);
+            try {
+                analysis.check(actionNode instanceof Assignment assignment
+                        ? assignment.getChild() : ((Print) actionNode).getChild());
+            } catch (RuntimeFault fault) {
+                throw fault.atLine(actionLines.get(i));
+            }
+            if (actionNode instanceof Assignment assignment) {
+                analysis.assign(assignment.getName());
+            }
+        }
+    }
+
+    /**
+     * Execute the ARB program of ActionNode's to standard output.  The
+     * statements are specialized into closures the first time this is called,
+     * and read and write variables by slot in a RegisterFile, which is then
+     * displayed as the symbol table.  While they are specialized, reads of
+     * variables that an earlier statement always assigns skip the
+     * uninitialized check.
+     *
+     * @throws RuntimeFault if a statement faults, with its source line
+     */
+    public void interpretProgram() {
+        System.out.println("(ARB) interpreting program...");
+        if (compiled == null) {
+            DefiniteAssignment analysis = new DefiniteAssignment();
+            List<CompiledAction> actions = new ArrayList<>(actionList.size());
+            for (int i = 0; i < actionList.size(); i++) {
+                ActionNode actionNode = actionList.get(i);
+                actions.add(actionNode.specialize(registers, analysis.getDefined()));
+                if (actionNode instanceof Assignment assignment) {
+                    analysis.assign(assignment.getName());
+                }
+            }
+            compiled = actions;
+        }
+        registers.reset();
+        for (int i = 0; i < compiled.size(); i++) {
+            try {
+                compiled.get(i).execute(registers);
+            } catch (RuntimeFault fault) {
+                throw fault.atLine(actionLines.get(i));
+            }
+        }
+        System.out.println("(ARB) Symbol table:");
+        System.out.print(registers.toSymbolTable());
+    }
+
+    /**
+     * Execute the ARB program of ActionNode's to standard output by walking the
+     * trees with execute().  This is the reference mode for interpretProgram().
      * In order to execute the ActionNodes, a local SymbolTable must be created here
      * for use.
+     *
+     * @throws RuntimeFault if a statement faults, with its source line
      */
-    public void interpretProgram() {
+    public void interpretReference() {
         SymbolTable symbolTable = new SymbolTable();
         System.out.println("(ARB) interpreting program...");
-        actionList.forEach(actionNode -> actionNode.execute(symbolTable));
+        for (int i = 0; i < actionList.size(); i++) {
+            try {
+                actionList.get(i).execute(symbolTable);
+            } catch (RuntimeFault fault) {
+                throw fault.atLine(actionLines.get(i));
+            }
+        }
         System.out.println("(ARB) Symbol table:");
         System.out.print(symbolTable);
     }
 
     /**
-     * Compile the ARB program using ActionNode's compile() into the
-     * temporary MAQ instruction file.
+     * Compile the ARB program using ActionNode's compile() into an in-memory
+     * program of MAQ instructions, unless it was compiled already by the cache.
+     */
+    public void compileProgram() {
+        System.out.println("(ARB) compiling program...");
+        if (linked == null) {
+            actionList.forEach(actionNode -> actionNode.compile(program));
+        }
+    }
+
+    /**
+     * Compile the ARB program into an in-memory program of MAQ instructions,
+     * evaluating the operand of each operation that needs more stack first,
+     * and report the most values the program has on the stack at once.
+     */
+    public void compileShallow() {
+        System.out.println("(ARB) compiling program, deeper operands first...");
+        linked = null;
+        Set<String> defined = new HashSet<>();
+        for (ActionNode actionNode : actionList) {
+            if (actionNode instanceof Assignment assignment) {
+                Expressions.compileShallow(assignment.getChild(), program, defined);
+                program.store(assignment.getName());
+                defined.add(assignment.getName());
+            } else {
+                Expressions.compileShallow(((Print) actionNode).getChild(), program, defined);
+                program.add(Maquina.PRINT);
+            }
+        }
+        System.out.println("(ARB) maximum stack depth: " + program.getMaxDepth()
+                + " (" + scratch().getMaxDepth() + " in source order)");
+    }
+
+    /**
+     * Write the compiled program to a MAQ file, so that it can be run by
+     * Maquina on its own.
      *
-     * @throws IOException if there are issues working with the temp file
+     * @param filename the MAQ file to write
+     * @throws IOException if there are issues writing the file
+     */
+    public void exportProgram(String filename) throws IOException {
+        System.out.println("(ARB) exporting program to " + filename + "...");
+        try (PrintWriter out = new PrintWriter(filename)) {
+            if (linked != null) {
+                linked.getInstructions().forEach(out::println);
+            } else {
+                program.write(out);
+            }
+        }
+    }
+
+    /**
+     * Takes the compiled program and assembles/executes it using the
+     * Maquina machine.
      */
-    public void compileProgram() throws IOException {
-        System.out.println("(ARB) compiling program to " + TMP_MAQ_FILE + "...");
-        PrintWriter out = new PrintWriter(TMP_MAQ_FILE);
-        actionList.forEach(actionNode -> actionNode.compile(out));
-        out.close();
+    public void executeProgram() {
+        if (linked != null) {
+            machine.assemble(linked);
+        } else {
+            machine.assemble(program);
+        }
+        machine.execute();
     }
 
     /**
-     * Takes the generated MAQ instruction file and assembles/executes
-     * it using the Maquina machine.
+     * Stream an ARB program from a file or standard input with
+     * streamProgram(), reading it a buffer at a time.
      *
-     * @throws FileNotFoundException if the MAQ file cannot be found.
+     * @param file the ARB file, or null to read standard input
+     * @param optimize if true, each statement is simplified first
+     * @param export the MAQ file each compiled statement is written to, or
+     *               null if the program is not compiled
+     * @throws IOException if there are issues working with the ARB/MAQ files.
      */
-    public void executeProgram() throws FileNotFoundException {
-        Maquina maquina = new Maquina();
-        maquina.assemble(new Scanner(new File(TMP_MAQ_FILE)), false);
-        maquina.execute();
+    private static void stream(Path file, boolean optimize, String export) throws IOException {
+        try (InputStream in = file == null ? System.in : Files.newInputStream(file);
+             PrintWriter out = export == null ? null : new PrintWriter(export)) {
+            if (out != null) {
+                System.out.println("(ARB) exporting program to " + export + "...");
+            }
+            new Arboles().streamProgram(new Tokenizer(in), optimize, out);
+        } catch (RuntimeFault fault) {
+            // the files are closed by now, so the statements exported before it are kept
+            Errors.exit(fault);
+        }
     }
 
     /**
      * The main program runs either with no input (ARB program entered through standard
-     * input), or with a file name that represents the ARB program.
+     * input), or with a file name that represents the ARB program.  The option
+     * -export filename.maq also writes the compiled program to a MAQ file,
+     * -reference interprets by walking the trees rather than specializing them,
+     * -optimize simplifies the trees before they are interpreted and compiled,
+     * -share computes their repeated subexpressions once, -eliminate removes
+     * assignments whose value is never observed (with -keep, every variable
+     * still appears in the final symbol table), -verify rejects a program
+     * that is certain to read an uninitialized variable before any of it
+     * runs, and -shallow compiles the deeper operand of each operation first.  With -cache directory, the
+     * compiled program is kept in the directory, and used in place of compiling
+     * the same source again.  With -stream, each statement
+     * runs as soon as it is read, with only -optimize and -export allowed
+     * alongside it.
      *
      * @param args command line arguments
      * @throws IOException if there are issues working with the ARB/MAQ files.
@@ -179,32 +768,112 @@ public class Arboles {
         // determine ARB input source
         Scanner arbIn = null;
         boolean stdin = false;
-        if (args.length == 0) {
+        String export = null;
+        boolean reference = false;
+        boolean optimize = false;
+        boolean share = false;
+        boolean shallow = false;
+        boolean eliminate = false;
+        boolean keep = false;
+        boolean stream = false;
+        boolean verify = false;
+        String cache = null;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(EXPORT_OPTION) && i + 1 < args.length) {
+                export = args[++i];
+            } else if (args[i].equals(OPTIMIZE_OPTION)) {
+                optimize = true;
+            } else if (args[i].equals(SHARE_OPTION)) {
+                share = true;
+            } else if (args[i].equals(ELIMINATE_OPTION)) {
+                eliminate = true;
+            } else if (args[i].equals(KEEP_OPTION)) {
+                keep = true;
+            } else if (args[i].equals(SHALLOW_OPTION)) {
+                shallow = true;
+            } else if (args[i].equals(REFERENCE_OPTION)) {
+                reference = true;
+            } else if (args[i].equals(STREAM_OPTION)) {
+                stream = true;
+            } else if (args[i].equals(VERIFY_OPTION)) {
+                verify = true;
+            } else if (args[i].equals(CACHE_OPTION) && i + 1 < args.length) {
+                cache = args[++i];
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.size() == 0 && !stream) {
             arbIn = new Scanner(System.in);
             stdin = true;
-        } else if (args.length == 1) {
-            arbIn = new Scanner(new File(args[0]));
-        } else {
-            System.out.println("Usage: java Arbelos filename.arb");
+        }
+        if (files.size() > 1 || (stream && (share || eliminate || keep || shallow || reference || verify))
+                || (cache != null && (stream || stdin))) {
+            System.out.println("Usage: java Arbelos [" + OPTIMIZE_OPTION + "] [" + SHARE_OPTION + "] [" + ELIMINATE_OPTION + "] [" + KEEP_OPTION + "] [" + SHALLOW_OPTION + "] [" + REFERENCE_OPTION + "] [" + VERIFY_OPTION + "] [" + EXPORT_OPTION + " filename.maq] [" + CACHE_OPTION + " directory] filename.arb");
+            System.out.println("       java Arbelos " + STREAM_OPTION + " [" + OPTIMIZE_OPTION + "] [" + EXPORT_OPTION + " filename.maq] [filename.arb]");
             System.exit(1);
         }
+        if (stream) {
+            stream(files.isEmpty() ? null : Path.of(files.get(0)), optimize, export);
+            return;
+        }
 
         // step 1: read ARB program into token list
-        Arboles interpreter = new Arboles(arbIn, stdin);
+        Arboles interpreter;
+        if (arbIn != null) {
+            interpreter = new Arboles(arbIn, stdin);
+        } else if (cache != null) {
+            interpreter = new Arboles(Files.readAllBytes(Path.of(files.get(0))),
+                    new ProgramCache<>(ProgramCache.DEFAULT_CAPACITY, Path.of(cache), CODEC));
+        } else {
+            interpreter = new Arboles(Tokenizer.read(Path.of(files.get(0))));
+        }
 
-        // step 2: parse and build the program from the token list
-        interpreter.buildProgram();
+        try {
+            // step 2: parse and build the program from the token list
+            interpreter.buildProgram();
 
-        // step 3: display the program in infix
-        interpreter.displayProgram();
+            // step 3: display the program in infix
+            interpreter.displayProgram();
+            if (optimize) {
+                interpreter.optimizeProgram();
+            }
+            if (share) {
+                interpreter.shareSubexpressions();
+            }
+            if (eliminate) {
+                interpreter.eliminateDeadStores(keep);
+            }
+            if (verify) {
+                try {
+                    interpreter.verifyProgram();
+                } catch (RuntimeFault fault) {
+                    Errors.reject(fault);
+                }
+            }
 
-        // step 4: interpret program
-        interpreter.interpretProgram();
+            // step 4: interpret program
+            if (reference) {
+                interpreter.interpretReference();
+            } else {
+                interpreter.interpretProgram();
+            }
 
-        // step 5: compile the program
-        interpreter.compileProgram();
+            // step 5: compile the program
+            if (shallow) {
+                interpreter.compileShallow();
+            } else {
+                interpreter.compileProgram();
+            }
+            if (export != null) {
+                interpreter.exportProgram(export);
+            }
 
-        // step 6: have machine execute compiled program
-        interpreter.executeProgram();
+            // step 6: have machine execute compiled program
+            interpreter.executeProgram();
+        } catch (RuntimeFault fault) {
+            Errors.exit(fault);
+        }
     }
 }
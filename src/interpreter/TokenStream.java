@@ -0,0 +1,269 @@
+package interpreter;
+
+import common.Errors;
+import common.Tokenizer;
+
+import java.util.Arrays;
+
+/**
+ * The tokens of an ARB program, held in arrays and read through a cursor.
+ * Each token is classified once, by looking at its characters, when it is
+ * added, so the parser never re-examines a token or shifts the remaining
+ * tokens as it consumes them.  Tokens added from a Tokenizer are never made
+ * into Strings of their own: constants are kept as their value, and names
+ * and operators are interned.
+ *
+ * @author Tiffany Lee
+ */
+public class TokenStream {
+    /** the assignment token = */
+    public static final byte ASSIGN = 0;
+    /** the print token @ */
+    public static final byte PRINT = 1;
+    /** a unary operator: ! or $ */
+    public static final byte UNARY = 2;
+    /** a binary operator: + - * / or % */
+    public static final byte BINARY = 3;
+    /** a variable name, starting with a letter */
+    public static final byte VARIABLE = 4;
+    /** an integer literal, starting with a digit or a minus and a digit */
+    public static final byte CONSTANT = 5;
+    /** anything else */
+    public static final byte ILLEGAL = 6;
+
+    /** the operator String for each single character token, indexed by character */
+    private static final String[] SYMBOLS = new String[128];
+    static {
+        for (String symbol : new String[]{"=", "@", "!", "$", "+", "-", "*", "/", "%"}) {
+            SYMBOLS[symbol.charAt(0)] = symbol;
+        }
+    }
+
+    /** the tokens, or null for a constant that only has its value */
+    private String[] tokens;
+    /** the value of each constant added from a Tokenizer */
+    private int[] values;
+    /** the kind of each token */
+    private byte[] kinds;
+    /** the source line of each token */
+    private int[] lines;
+    /** the number of tokens added */
+    private int size;
+    /** the index of the next token to read */
+    private int cursor;
+
+    /**
+     * Create an empty token stream.
+     */
+    public TokenStream() {
+        this.tokens = new String[64];
+        this.values = new int[64];
+        this.kinds = new byte[64];
+        this.lines = new int[64];
+        this.size = 0;
+        this.cursor = 0;
+    }
+
+    /**
+     * Classify a token by its characters.
+     *
+     * @param token the token
+     * @return the kind of token
+     */
+    public static byte classify(String token) {
+        if (token.isEmpty()) {
+            return ILLEGAL;
+        }
+        char first = token.charAt(0);
+        if (token.length() == 1) {
+            switch (first) {
+                case '=': return ASSIGN;
+                case '@': return PRINT;
+                case '!': case '$': return UNARY;
+                case '+': case '-': case '*': case '/': case '%': return BINARY;
+                default: break;
+            }
+        }
+        if ((first >= 'a' && first <= 'z') || (first >= 'A' && first <= 'Z')) {
+            return VARIABLE;
+        }
+        char digit = first == '-' && token.length() > 1 ? token.charAt(1) : first;
+        if (digit >= '0' && digit <= '9') {
+            return CONSTANT;
+        }
+        return ILLEGAL;
+    }
+
+    /**
+     * Add a token to the end of the stream.
+     *
+     * @param token the token
+     * @param line the source line it came from
+     */
+    public void add(String token, int line) {
+        add(token, classify(token), 0, line);
+    }
+
+    /**
+     * Add the current token of a Tokenizer to the end of the stream, without
+     * making a String of it.
+     *
+     * @param source the tokenizer, at the token
+     */
+    public void add(Tokenizer source) {
+        switch (source.kind()) {
+            case Tokenizer.NAME -> add(source.name(), VARIABLE, 0, source.line());
+            case Tokenizer.INTEGER -> {
+                try {
+                    add(null, CONSTANT, source.intValue(), source.line());
+                } catch (NumberFormatException e) {
+                    // kept as text, so it fails when it is parsed, as it always has
+                    add(source.text(), CONSTANT, 0, source.line());
+                }
+            } default -> {
+                String symbol = source.kind() == Tokenizer.SYMBOL && source.symbol() < SYMBOLS.length
+                        ? SYMBOLS[source.symbol()] : null;
+                if (symbol != null) {
+                    add(symbol, classify(symbol), 0, source.line());
+                } else {
+                    add(source.text(), ILLEGAL, 0, source.line());
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a classified token to the end of the stream.
+     *
+     * @param token the token, or null for a constant that only has its value
+     * @param kind the kind of token
+     * @param value the value of a constant with no text
+     * @param line the source line it came from
+     */
+    private void add(String token, byte kind, int value, int line) {
+        if (this.size == this.tokens.length) {
+            int capacity = this.tokens.length * 2;
+            this.tokens = Arrays.copyOf(this.tokens, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.lines = Arrays.copyOf(this.lines, capacity);
+        }
+        this.tokens[this.size] = token;
+        this.values[this.size] = value;
+        this.kinds[this.size] = kind;
+        this.lines[this.size] = line;
+        this.size++;
+    }
+
+    /**
+     * Are there tokens left to read?
+     *
+     * @return whether the cursor is before the end
+     */
+    public boolean hasNext() {
+        return this.cursor < this.size;
+    }
+
+    /**
+     * Look at the next token without reading it.
+     *
+     * @return the token
+     * @throws common.RuntimeFault if there are no tokens left
+     */
+    public String peek() {
+        if (this.cursor == this.size) {
+            Errors.report(Errors.Type.PREMATURE_END);
+        }
+        String token = this.tokens[this.cursor];
+        return token != null ? token : String.valueOf(this.values[this.cursor]);
+    }
+
+    /**
+     * Get the kind of the next token without reading it.
+     *
+     * @return the kind of token
+     * @throws common.RuntimeFault if there are no tokens left
+     */
+    public byte peekKind() {
+        if (this.cursor == this.size) {
+            Errors.report(Errors.Type.PREMATURE_END);
+        }
+        return this.kinds[this.cursor];
+    }
+
+    /**
+     * Read the next token.
+     *
+     * @return the token
+     * @throws common.RuntimeFault if there are no tokens left
+     */
+    public String next() {
+        String token = peek();
+        this.cursor++;
+        return token;
+    }
+
+    /**
+     * Read the next token, which is a constant, as its value.
+     *
+     * @return the value
+     * @throws common.RuntimeFault if there are no tokens left
+     * @throws NumberFormatException if the constant is not an int
+     */
+    public int nextValue() {
+        if (this.cursor == this.size) {
+            Errors.report(Errors.Type.PREMATURE_END);
+        }
+        String token = this.tokens[this.cursor];
+        int value = token != null ? Integer.parseInt(token) : this.values[this.cursor];
+        this.cursor++;
+        return value;
+    }
+
+    /**
+     * The position of the cursor, to return to with rewind().
+     *
+     * @return the number of tokens read
+     */
+    public int position() {
+        return this.cursor;
+    }
+
+    /**
+     * Move the cursor back, so that tokens are read again.
+     *
+     * @param position a position returned by position() since the last
+     *                 call to discard()
+     */
+    public void rewind(int position) {
+        this.cursor = position;
+    }
+
+    /**
+     * Drop the tokens that have been read, so that a stream read a statement
+     * at a time only holds the tokens it has not parsed yet.
+     */
+    public void discard() {
+        int left = this.size - this.cursor;
+        System.arraycopy(this.tokens, this.cursor, this.tokens, 0, left);
+        System.arraycopy(this.values, this.cursor, this.values, 0, left);
+        System.arraycopy(this.kinds, this.cursor, this.kinds, 0, left);
+        System.arraycopy(this.lines, this.cursor, this.lines, 0, left);
+        Arrays.fill(this.tokens, left, this.size, null);
+        this.size = left;
+        this.cursor = 0;
+    }
+
+    /**
+     * The source line of the next token, or of the last token if they have
+     * all been read.
+     *
+     * @return the 1-based line number, or 0 if there are no tokens
+     */
+    public int line() {
+        if (this.size == 0) {
+            return 0;
+        }
+        return this.lines[Math.min(this.cursor, this.size - 1)];
+    }
+}
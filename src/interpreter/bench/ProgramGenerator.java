@@ -0,0 +1,376 @@
+package interpreter.bench;
+
+import machine.Maquina;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A deterministic generator of ARB programs of any size, along with the MAQ
+ * program Arboles compiles each one to.  The same seed and settings always
+ * give the same program.  The generator keeps track of the value of every
+ * variable as it goes, so a program never faults: every variable is assigned
+ * before it is read, a divisor that would be zero is replaced by a nonzero
+ * constant, and the operand of a square root that would be negative is
+ * negated first.
+ *
+ * Usage: java interpreter.bench.ProgramGenerator [-seed N] [-statements N]
+ * [-depth N] [-fanout P] [-variables N] [-prints P] [-mix op:weight,...]
+ * filename.arb [filename.maq]
+ *
+ * @author Tiffany Lee
+ */
+public class ProgramGenerator {
+    /** the operators and their default weights in the operator mix */
+    public static final Map<String, Integer> DEFAULT_MIX = defaultMix();
+
+    /** the MAQ instruction for each ARB operator */
+    private static final Map<String, String> INSTRUCTIONS = Map.of(
+            "!", Maquina.NEGATE, "$", Maquina.SQUARE_ROOT, "+", Maquina.ADD, "-", Maquina.SUBTRACT,
+            "*", Maquina.MULTIPLY, "/", Maquina.DIVIDE, "%", Maquina.MODULUS);
+    /** the largest constant a leaf is given */
+    private static final int MAX_CONSTANT = 100;
+
+    /**
+     * A node of a generated expression, along with the value it evaluates to.
+     *
+     * @param token the operator, variable name or constant
+     * @param left the only operand of a unary operator, the left operand of a
+     *             binary one, or null for a leaf
+     * @param right the right operand of a binary operator, or null
+     * @param value the value of the subtree
+     */
+    private record Node(String token, Node left, Node right, int value) {}
+
+    /** the seed of the random choices */
+    private final long seed;
+    /** the source of every random choice, restarted for each program */
+    private Random random;
+    /** the number of statements */
+    private final int statements;
+    /** the deepest an operation is nested in an expression */
+    private final int depth;
+    /** the chance that an operand is another operation rather than a leaf */
+    private final double fanOut;
+    /** the values of the variables, null until a variable is assigned */
+    private final Integer[] variables;
+    /** the chance that a statement is a print rather than an assignment */
+    private final double prints;
+    /** the operators, each repeated as many times as its weight */
+    private final String[] operators;
+    /** the variables assigned so far, in the order they were first assigned */
+    private final int[] assigned;
+    /** how many variables have been assigned so far */
+    private int defined;
+
+    /**
+     * Create a generator with the default depth, fan out, variable count,
+     * print rate and operator mix.
+     *
+     * @param seed the seed of the random choices
+     * @param statements the number of statements
+     */
+    public ProgramGenerator(long seed, int statements) {
+        this(seed, statements, 4, 0.5, 26, 0.1, DEFAULT_MIX);
+    }
+
+    /**
+     * Create a generator.
+     *
+     * @param seed the seed of the random choices
+     * @param statements the number of statements
+     * @param depth the deepest an operation is nested in an expression; 0
+     *              makes every expression a single leaf
+     * @param fanOut the chance, from 0 to 1, that an operand is another
+     *               operation rather than a leaf: 0 gives an operator over
+     *               leaves and 1 gives full trees of the given depth
+     * @param variables the number of distinct variables
+     * @param prints the chance, from 0 to 1, that a statement is a print
+     * @param mix the weight of each operator; operators left out are never used
+     */
+    public ProgramGenerator(long seed, int statements, int depth, double fanOut, int variables,
+                            double prints, Map<String, Integer> mix) {
+        if (statements < 0 || depth < 0 || variables < 1 || fanOut < 0 || fanOut > 1 || prints < 0 || prints > 1) {
+            throw new IllegalArgumentException("invalid generator settings");
+        }
+        this.seed = seed;
+        this.statements = statements;
+        this.depth = depth;
+        this.fanOut = fanOut;
+        this.variables = new Integer[variables];
+        this.prints = prints;
+        this.operators = mix.entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toArray(String[]::new);
+        for (String operator : this.operators) {
+            if (!INSTRUCTIONS.containsKey(operator)) {
+                throw new IllegalArgumentException("unknown operator " + operator);
+            }
+        }
+        if (this.operators.length == 0 && depth > 0) {
+            throw new IllegalArgumentException("the operator mix is empty");
+        }
+        this.assigned = new int[variables];
+    }
+
+    /**
+     * The default operator mix, which favors the cheap operators.
+     *
+     * @return each operator and its weight
+     */
+    private static Map<String, Integer> defaultMix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("+", 3);
+        mix.put("-", 3);
+        mix.put("*", 2);
+        mix.put("/", 1);
+        mix.put("%", 1);
+        mix.put("!", 1);
+        mix.put("$", 1);
+        return Collections.unmodifiableMap(mix);
+    }
+
+    /**
+     * Generate the program, writing its ARB text and the matching MAQ text,
+     * one statement or instruction per line.  Every call generates the same
+     * program.
+     *
+     * @param arb where the ARB program goes
+     * @param maq where the MAQ program goes, or null if it is not wanted
+     * @throws IOException if there are issues writing the programs
+     */
+    public void generate(Appendable arb, Appendable maq) throws IOException {
+        random = new Random(seed);
+        Arrays.fill(variables, null);
+        defined = 0;
+        for (int i = 0; i < statements; i++) {
+            Node root = expression(0);
+            if (defined > 0 && random.nextDouble() < prints) {
+                arb.append("@ ");
+                prefix(root, arb);
+                if (maq != null) {
+                    postfix(root, maq);
+                    maq.append(Maquina.PRINT).append('\n');
+                }
+            } else {
+                int variable = random.nextInt(variables.length);
+                if (variables[variable] == null) {
+                    assigned[defined++] = variable;
+                }
+                variables[variable] = root.value();
+                arb.append("= v").append(String.valueOf(variable)).append(' ');
+                prefix(root, arb);
+                if (maq != null) {
+                    postfix(root, maq);
+                    maq.append(Maquina.STORE).append(" v").append(String.valueOf(variable)).append('\n');
+                }
+            }
+            arb.append('\n');
+        }
+    }
+
+    /**
+     * Generate the ARB program as text.
+     *
+     * @return the ARB program
+     */
+    public String arb() {
+        StringBuilder arb = new StringBuilder();
+        try {
+            generate(arb, null);
+        } catch (IOException e) {
+            // a StringBuilder never throws
+            throw new IllegalStateException(e);
+        }
+        return arb.toString();
+    }
+
+    /**
+     * Generate the matching MAQ program as text.
+     *
+     * @return the MAQ program
+     */
+    public String maq() {
+        StringBuilder maq = new StringBuilder();
+        try {
+            generate(Writer.nullWriter(), maq);
+        } catch (IOException e) {
+            // neither a StringBuilder nor the null writer throws
+            throw new IllegalStateException(e);
+        }
+        return maq.toString();
+    }
+
+    /**
+     * Generate an expression that cannot fault.
+     *
+     * @param level how deeply this expression is nested
+     * @return the root of the expression
+     */
+    private Node expression(int level) {
+        if (level >= depth || (level > 0 && random.nextDouble() >= fanOut)) {
+            return leaf();
+        }
+        String operator = operators[random.nextInt(operators.length)];
+        Node left = expression(level + 1);
+        switch (operator) {
+            case "!" -> {
+                return new Node(operator, left, null, -left.value());
+            } case "$" -> {
+                if (left.value() < 0) {
+                    left = -left.value() >= 0 ? new Node("!", left, null, -left.value()) : constant();
+                }
+                return new Node(operator, left, null, (int) Math.sqrt(left.value()));
+            }
+        }
+        Node right = expression(level + 1);
+        if ((operator.equals("/") || operator.equals("%")) && right.value() == 0) {
+            int divisor = 1 + random.nextInt(MAX_CONSTANT - 1);
+            right = new Node(String.valueOf(divisor), null, null, divisor);
+        }
+        int l = left.value();
+        int r = right.value();
+        int value = switch (operator) {
+            case "+" -> l + r;
+            case "-" -> l - r;
+            case "*" -> l * r;
+            case "/" -> l / r;
+            default -> l % r;
+        };
+        return new Node(operator, left, right, value);
+    }
+
+    /**
+     * Generate a leaf: a variable that has been assigned, or a constant.
+     *
+     * @return the leaf
+     */
+    private Node leaf() {
+        if (defined > 0 && random.nextBoolean()) {
+            int variable = assigned[random.nextInt(defined)];
+            return new Node("v" + variable, null, null, variables[variable]);
+        }
+        return constant();
+    }
+
+    /**
+     * Generate a constant leaf.
+     *
+     * @return the leaf
+     */
+    private Node constant() {
+        int value = random.nextInt(MAX_CONSTANT);
+        return new Node(String.valueOf(value), null, null, value);
+    }
+
+    /**
+     * Write an expression in ARB prefix form.
+     *
+     * @param node the root of the expression
+     * @param out where it goes
+     * @throws IOException if there are issues writing it
+     */
+    private static void prefix(Node node, Appendable out) throws IOException {
+        out.append(node.token());
+        if (node.left() != null) {
+            out.append(' ');
+            prefix(node.left(), out);
+        }
+        if (node.right() != null) {
+            out.append(' ');
+            prefix(node.right(), out);
+        }
+    }
+
+    /**
+     * Write the MAQ instructions that evaluate an expression, in the same
+     * order Arboles compiles it.
+     *
+     * @param node the root of the expression
+     * @param out where they go
+     * @throws IOException if there are issues writing them
+     */
+    private static void postfix(Node node, Appendable out) throws IOException {
+        if (node.left() == null) {
+            char first = node.token().charAt(0);
+            out.append(first >= '0' && first <= '9' ? Maquina.PUSH : Maquina.LOAD)
+                    .append(' ').append(node.token()).append('\n');
+            return;
+        }
+        postfix(node.left(), out);
+        if (node.right() != null) {
+            postfix(node.right(), out);
+        }
+        out.append(INSTRUCTIONS.get(node.token())).append('\n');
+    }
+
+    /**
+     * Parse an operator mix such as "+:3,-:3,*:1".
+     *
+     * @param text the operators and weights, separated by commas
+     * @return each operator and its weight
+     */
+    private static Map<String, Integer> parseMix(String text) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : text.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            mix.put(entry.substring(0, colon), Integer.parseInt(entry.substring(colon + 1)));
+        }
+        return mix;
+    }
+
+    /**
+     * Generate a program into an ARB file, and the matching MAQ file if one
+     * is named.
+     *
+     * @param args the options, then the file names
+     * @throws IOException if there are issues writing the files
+     */
+    public static void main(String[] args) throws IOException {
+        long seed = 1;
+        int statements = 1_000_000;
+        int depth = 4;
+        double fanOut = 0.5;
+        int variables = 26;
+        double prints = 0.1;
+        Map<String, Integer> mix = DEFAULT_MIX;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("-") && i + 1 < args.length) {
+                switch (args[i]) {
+                    case "-seed" -> seed = Long.parseLong(args[++i]);
+                    case "-statements" -> statements = Integer.parseInt(args[++i]);
+                    case "-depth" -> depth = Integer.parseInt(args[++i]);
+                    case "-fanout" -> fanOut = Double.parseDouble(args[++i]);
+                    case "-variables" -> variables = Integer.parseInt(args[++i]);
+                    case "-prints" -> prints = Double.parseDouble(args[++i]);
+                    case "-mix" -> mix = parseMix(args[++i]);
+                    default -> files.add(args[i]);
+                }
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.isEmpty() || files.size() > 2) {
+            System.out.println("Usage: java ProgramGenerator [-seed N] [-statements N] [-depth N] [-fanout P]"
+                    + " [-variables N] [-prints P] [-mix op:weight,...] filename.arb [filename.maq]");
+            System.exit(1);
+        }
+
+        ProgramGenerator generator = new ProgramGenerator(seed, statements, depth, fanOut, variables, prints, mix);
+        try (BufferedWriter arb = Files.newBufferedWriter(Path.of(files.get(0)));
+             Writer maq = files.size() > 1 ? Files.newBufferedWriter(Path.of(files.get(1))) : null) {
+            generator.generate(arb, maq);
+        }
+    }
+}
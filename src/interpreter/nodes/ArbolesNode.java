@@ -1,5 +1,7 @@
 package interpreter.nodes;
 
+import machine.Program;
+
 import java.io.PrintWriter;
 
 /**
@@ -23,4 +25,12 @@ public interface ArbolesNode {
      * @param out the stream to write output to using out.println()
      */
     void compile(PrintWriter out);
+
+    /**
+     * Appends the compiled MAQ instructions for this node/descendants to an
+     * in-memory program that the machine can execute directly.
+     *
+     * @param program the program to append instructions to
+     */
+    void compile(Program program);
 }
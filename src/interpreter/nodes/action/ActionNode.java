@@ -2,6 +2,9 @@ package interpreter.nodes.action;
 
 import common.SymbolTable;
 import interpreter.nodes.ArbolesNode;
+import machine.RegisterFile;
+
+import java.util.Set;
 
 /**
  * An ArbolesNode that performs an action but does not calculate a new
@@ -19,4 +22,15 @@ public interface ActionNode extends ArbolesNode {
      * @param symTbl the table where variable values are stored
      */
     void execute(SymbolTable symTbl);
+
+    /**
+     * Specialize this action into closures that perform it against a
+     * register file, with every variable resolved to its slot.
+     *
+     * @param registers the register file the program will run against
+     * @param defined the variables that are certain to have been assigned,
+     *                whose reads need not be checked
+     * @return the compiled action
+     */
+    CompiledAction specialize(RegisterFile registers, Set<String> defined);
 }
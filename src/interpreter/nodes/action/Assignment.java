@@ -1,8 +1,13 @@
 package interpreter.nodes.action;
 
 import common.SymbolTable;
+import interpreter.nodes.expression.CompiledExpression;
 import interpreter.nodes.expression.ExpressionNode;
+import interpreter.nodes.expression.Expressions;
+import machine.Program;
+import machine.RegisterFile;
 import java.io.PrintWriter;
+import java.util.Set;
 
 /**
  * An ActionNode that represents the assignment of the value of
@@ -29,13 +34,31 @@ public class Assignment implements ActionNode {
         this.child = child;
     }
 
+    /**
+     * Get the name of the variable being assigned.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the child expression.
+     *
+     * @return the child
+     */
+    public ExpressionNode getChild() {
+        return child;
+    }
+
     /**
      * Evaluates the child expression and assigns the result to the variable
      *
      * @param symbol the table where variable values are stored
      */
     public void execute(SymbolTable symbol){
-        symbol.set(name, child.evaluate(symbol));
+        symbol.set(name, Expressions.evaluate(child, symbol));
     }
 
     /**
@@ -45,7 +68,7 @@ public class Assignment implements ActionNode {
      */
     public void emit(){
         System.out.print(name + " = ");
-        child.emit();
+        Expressions.emit(child);
     }
 
     /**
@@ -55,7 +78,32 @@ public class Assignment implements ActionNode {
      * @param out the stream to write output to using out.println()
      */
     public void compile(PrintWriter out){
-        child.compile(out);
+        Expressions.compile(child, out);
         out.println("STORE " + name);
     }
+
+    /**
+     * Appends the MAQ instructions that when instructed will perform
+     * the assignment
+     *
+     * @param program the program to append instructions to
+     */
+    public void compile(Program program){
+        Expressions.compile(child, program);
+        program.store(name);
+    }
+
+    /**
+     * Specialize the child expression, and store its value to the
+     * variable's slot when run
+     *
+     * @param registers the register file the program will run against
+     * @param defined the variables that are certain to have been assigned
+     * @return the compiled action
+     */
+    public CompiledAction specialize(RegisterFile registers, Set<String> defined){
+        CompiledExpression expression = Expressions.specialize(child, registers, defined);
+        int slot = registers.slot(name);
+        return values -> values.set(slot, expression.evaluate(values));
+    }
 }
@@ -0,0 +1,19 @@
+package interpreter.nodes.action;
+
+import machine.RegisterFile;
+
+/**
+ * An action that has been specialized into closures by
+ * ActionNode.specialize(), reading and writing variables by slot.
+ *
+ * @author Tiffany Lee
+ */
+@FunctionalInterface
+public interface CompiledAction {
+    /**
+     * Perform the action.
+     *
+     * @param registers the variable values, by slot
+     */
+    void execute(RegisterFile registers);
+}
@@ -1,8 +1,14 @@
 package interpreter.nodes.action;
 
 import common.SymbolTable;
+import interpreter.nodes.expression.CompiledExpression;
 import interpreter.nodes.expression.ExpressionNode;
+import interpreter.nodes.expression.Expressions;
+import machine.Maquina;
+import machine.Program;
+import machine.RegisterFile;
 import java.io.PrintWriter;
+import java.util.Set;
 
 /**
  * A node that represents the displaying of the value of an expression
@@ -22,6 +28,15 @@ public class Print implements ActionNode{
         this.child = child;
     }
 
+    /**
+     * Get the child expression.
+     *
+     * @return the child
+     */
+    public ExpressionNode getChild() {
+        return child;
+    }
+
     /**
      * Evaluates the child expression and prints the result to
      * standard output
@@ -29,7 +44,7 @@ public class Print implements ActionNode{
      * @param symbol the table where variable values are stored
      */
     public void execute(SymbolTable symbol){
-        System.out.println(child.evaluate(symbol));
+        System.out.println(Expressions.evaluate(child, symbol));
     }
 
     /**
@@ -38,7 +53,7 @@ public class Print implements ActionNode{
      */
     public void emit(){
         System.out.print("Print ");
-        child.emit();
+        Expressions.emit(child);
     }
 
     /**
@@ -48,7 +63,30 @@ public class Print implements ActionNode{
      * @param out the stream to write output to using out.println()
      */
     public void compile(PrintWriter out){
-        child.compile(out);
+        Expressions.compile(child, out);
         out.println("PRINT");
     }
+
+    /**
+     * Appends the MAQ instructions that when instructed will perform
+     * the print action
+     *
+     * @param program the program to append instructions to
+     */
+    public void compile(Program program){
+        Expressions.compile(child, program);
+        program.add(Maquina.PRINT);
+    }
+
+    /**
+     * Specialize the child expression, and print its value when run
+     *
+     * @param registers the register file the program will run against
+     * @param defined the variables that are certain to have been assigned
+     * @return the compiled action
+     */
+    public CompiledAction specialize(RegisterFile registers, Set<String> defined){
+        CompiledExpression expression = Expressions.specialize(child, registers, defined);
+        return values -> System.out.println(expression.evaluate(values));
+    }
 }
@@ -2,6 +2,8 @@ package interpreter.nodes.expression;
 
 import common.Errors;
 import common.SymbolTable;
+import machine.Maquina;
+import machine.Program;
 import java.io.PrintWriter;
 import java.util.List;
 
@@ -12,15 +14,15 @@ import java.util.List;
  */
 public class BinaryOperation implements ExpressionNode{
     /** ARB addition operator */
-    private static final String ADD = "+";
+    static final String ADD = "+";
     /** ARB subtraction operator */
-    private static final String SUB = "-";
+    static final String SUB = "-";
     /** ARB multiply operator */
-    private static final String MUL = "*";
+    static final String MUL = "*";
     /** ARB division operator */
-    private static final String DIV = "/";
+    static final String DIV = "/";
     /** ARB modulus operator */
-    private static final String MOD = "%";
+    static final String MOD = "%";
     /** the legal binary operators, for use when parsing */
     public static final List<String> OPERATORS = List.of(ADD, SUB, MUL, DIV, MOD);
 
@@ -44,6 +46,33 @@ public class BinaryOperation implements ExpressionNode{
         this.rightChild = rightChild;
     }
 
+    /**
+     * Get the operator.
+     *
+     * @return the operator
+     */
+    public String getOperator() {
+        return operator;
+    }
+
+    /**
+     * Get the left child expression.
+     *
+     * @return the left child
+     */
+    public ExpressionNode getLeftChild() {
+        return leftChild;
+    }
+
+    /**
+     * Get the right child expression.
+     *
+     * @return the right child
+     */
+    public ExpressionNode getRightChild() {
+        return rightChild;
+    }
+
     /**
      * Print to standard output the infix display of the two child nodes
      * separated by the operator and surrounded by parentheses
@@ -66,6 +95,18 @@ public class BinaryOperation implements ExpressionNode{
     public int evaluate(SymbolTable symTbl){
         int left = leftChild.evaluate(symTbl);
         int right = rightChild.evaluate(symTbl);
+        return apply(operator, left, right);
+    }
+
+    /**
+     * Apply a binary operator to the values of its two operands
+     *
+     * @param operator the operator
+     * @param left the value of the left child
+     * @param right the value of the right child
+     * @return the result of the computation
+     */
+    static int apply(String operator, int left, int right){
         return switch (operator) {
             case ADD -> left + right;
             case SUB -> left - right;
@@ -76,7 +117,12 @@ public class BinaryOperation implements ExpressionNode{
                 }
                 yield left / right;
             }
-            case MOD -> left % right;
+            case MOD -> {
+                if(right == 0){
+                    Errors.report(Errors.Type.DIVIDE_BY_ZERO);
+                }
+                yield left % right;
+            }
             default -> left;
         };
     }
@@ -111,4 +157,75 @@ public class BinaryOperation implements ExpressionNode{
             }
         }
     }
+
+    /**
+     * Appends the MAQ instructions for this operation
+     *
+     * @param program the program to append instructions to
+     */
+    public void compile(Program program){
+        leftChild.compile(program);
+        rightChild.compile(program);
+        program.add(instruction(operator));
+    }
+
+    /**
+     * Can the operands of a binary operator be given in either order?
+     *
+     * @param operator the operator
+     * @return whether it is + or *
+     */
+    static boolean commutes(String operator){
+        return operator.equals(ADD) || operator.equals(MUL);
+    }
+
+    /**
+     * The MAQ instruction that performs a binary operator
+     *
+     * @param operator the operator
+     * @return the instruction name
+     */
+    static String instruction(String operator){
+        return switch (operator) {
+            case ADD -> Maquina.ADD;
+            case SUB -> Maquina.SUBTRACT;
+            case MUL -> Maquina.MULTIPLY;
+            case DIV -> Maquina.DIVIDE;
+            default -> Maquina.MODULUS;
+        };
+    }
+
+    /**
+     * Specialize a binary operator into a closure over its two compiled
+     * operands, so the operator is only switched on once.
+     *
+     * @param operator the operator
+     * @param left the compiled left child
+     * @param right the compiled right child
+     * @return the compiled operation
+     */
+    static CompiledExpression specialize(String operator, CompiledExpression left, CompiledExpression right){
+        return switch (operator) {
+            case ADD -> registers -> left.evaluate(registers) + right.evaluate(registers);
+            case SUB -> registers -> left.evaluate(registers) - right.evaluate(registers);
+            case MUL -> registers -> left.evaluate(registers) * right.evaluate(registers);
+            case DIV -> registers -> {
+                int dividend = left.evaluate(registers);
+                int divisor = right.evaluate(registers);
+                if(divisor == 0){
+                    Errors.report(Errors.Type.DIVIDE_BY_ZERO);
+                }
+                return dividend / divisor;
+            };
+            case MOD -> registers -> {
+                int dividend = left.evaluate(registers);
+                int divisor = right.evaluate(registers);
+                if(divisor == 0){
+                    Errors.report(Errors.Type.DIVIDE_BY_ZERO);
+                }
+                return dividend % divisor;
+            };
+            default -> left;
+        };
+    }
 }
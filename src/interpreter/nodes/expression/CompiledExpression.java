@@ -0,0 +1,22 @@
+package interpreter.nodes.expression;
+
+import machine.RegisterFile;
+
+/**
+ * An expression that has been specialized into a tree of closures, one per
+ * node, by Expressions.specialize().  Each operator is chosen once when the
+ * closure is built rather than on every evaluation, and variables are read
+ * from their slots in a RegisterFile instead of being looked up by name.
+ *
+ * @author Tiffany Lee
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+    /**
+     * Evaluate the expression.
+     *
+     * @param registers the variable values, by slot
+     * @return the result of the evaluation.
+     */
+    int evaluate(RegisterFile registers);
+}
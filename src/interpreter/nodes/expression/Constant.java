@@ -1,6 +1,7 @@
 package interpreter.nodes.expression;
 
 import common.SymbolTable;
+import machine.Program;
 import java.io.PrintWriter;
 
 /**
@@ -22,6 +23,15 @@ public class Constant implements ExpressionNode{
         this.value = value;
     }
 
+    /**
+     * Get the value.
+     *
+     * @return the value
+     */
+    public int getValue() {
+        return value;
+    }
+
     /** Print the stored value to standard output */
     public void emit(){
         System.out.print(value);
@@ -45,4 +55,13 @@ public class Constant implements ExpressionNode{
     public void compile(PrintWriter out){
         out.println("PUSH " + value);
     }
-}
\ No newline at end of file
+
+    /**
+     * Appends the MAQ instruction for pushing the value
+     *
+     * @param program the program to append instructions to
+     */
+    public void compile(Program program){
+        program.push(value);
+    }
+}
@@ -0,0 +1,85 @@
+package interpreter.nodes.expression;
+
+import common.Errors;
+import common.RuntimeFault;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A forward dataflow pass over the statements of an ARB program that finds
+ * which variable reads always follow an assignment to the same variable.
+ * ARB programs are straight-line code, so every read is either always
+ * preceded by an assignment or never is: the first kind can skip the
+ * uninitialized variable check, and the second kind keep it.  A read of a
+ * variable that is never assigned, reached before anything that could
+ * fault, is certain to fault, so the program is rejected before it runs.
+ * The statements are checked in order, calling assign() after each
+ * assignment.
+ *
+ * @author Tiffany Lee
+ */
+public class DefiniteAssignment {
+    /** the variables assigned by the statements checked so far */
+    private final Set<String> defined;
+    /** whether something checked so far might have faulted */
+    private boolean faulted;
+
+    /**
+     * Create the analysis for a program where no variable has been assigned.
+     */
+    public DefiniteAssignment() {
+        this.defined = new HashSet<>();
+        this.faulted = false;
+    }
+
+    /**
+     * The variables that are certain to have been assigned before the next
+     * statement runs.
+     *
+     * @return the assigned variables
+     */
+    public Set<String> getDefined() {
+        return defined;
+    }
+
+    /**
+     * Check the expression of the next statement, in the order it is
+     * evaluated.
+     *
+     * @param root the root of the expression
+     * @throws RuntimeFault if the expression is certain to read an
+     *                      uninitialized variable, with the variable
+     */
+    public void check(ExpressionNode root) {
+        Expressions.postOrder(root, new Expressions.PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                if (node instanceof Variable variable && !defined.contains(variable.getName())) {
+                    if (!faulted) {
+                        throw new RuntimeFault(Errors.Type.UNINITIALIZED, variable.getName());
+                    }
+                }
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+                if (node instanceof UnaryOperation unary) {
+                    faulted |= !unary.getOperator().equals(UnaryOperation.NEG);
+                } else if (node instanceof BinaryOperation binary) {
+                    faulted |= binary.getOperator().equals(BinaryOperation.DIV)
+                            || binary.getOperator().equals(BinaryOperation.MOD);
+                }
+            }
+        });
+    }
+
+    /**
+     * Record that the statement just checked assigns a variable.
+     *
+     * @param name the variable
+     */
+    public void assign(String name) {
+        defined.add(name);
+    }
+}
@@ -0,0 +1,235 @@
+package interpreter.nodes.expression;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A hash-consed DAG of the expressions in a program, used to find the
+ * subexpressions it computes more than once.  Each distinct subtree gets one
+ * id, and a variable gets a new id every time it is assigned, so two subtrees
+ * only share an id when they are guaranteed to have the same value.  The
+ * expressions are added in program order, calling assign() after each
+ * assignment, and share() then rewrites them so that the first occurrence of
+ * each repeated subexpression is a Shared node that saves its value to a
+ * temporary, and the later occurrences are Temporary nodes that read it.
+ *
+ * @author Tiffany Lee
+ */
+public class ExpressionDag {
+    /** the smallest subtree worth sharing; smaller ones cost more to save and reload */
+    public static final int MIN_SHARED_SIZE = 3;
+    /** the prefix for temporaries, which cannot start an ARB variable name */
+    public static final String TEMPORARY_PREFIX = "_t";
+
+    /** the id of every subtree that has been added */
+    private final Map<ExpressionNode, Integer> ids;
+    /** the id of each distinct operator and operand ids */
+    private final Map<String, Integer> keys;
+    /** the number of nodes in the subtree of each id */
+    private final List<Integer> sizes;
+    /** how many times each variable has been assigned */
+    private final Map<String, Integer> versions;
+    /** the expressions, in program order */
+    private final List<ExpressionNode> roots;
+    /** the temporaries made by share() */
+    private int temporaries;
+
+    /**
+     * Create an empty DAG.
+     */
+    public ExpressionDag() {
+        this.ids = new IdentityHashMap<>();
+        this.keys = new HashMap<>();
+        this.sizes = new ArrayList<>();
+        this.versions = new HashMap<>();
+        this.roots = new ArrayList<>();
+        this.temporaries = 0;
+    }
+
+    /**
+     * The number of temporaries made by share().
+     *
+     * @return the number of shared subexpressions
+     */
+    public int getTemporaries() {
+        return temporaries;
+    }
+
+    /**
+     * Add the next expression of the program.
+     *
+     * @param root the root of the expression
+     */
+    public void add(ExpressionNode root) {
+        Deque<Integer> operands = new ArrayDeque<>();
+        Expressions.postOrder(root, new Expressions.PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                String key;
+                if (node instanceof Constant constant) {
+                    key = String.valueOf(constant.getValue());
+                } else if (node instanceof Variable variable) {
+                    key = variable.getName() + "@" + versions.getOrDefault(variable.getName(), 0);
+                } else {
+                    key = ((Temporary) node).getName();
+                }
+                operands.push(intern(node, key, 1));
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+                if (node instanceof UnaryOperation unary) {
+                    int child = operands.pop();
+                    operands.push(intern(node, unary.getOperator() + " " + child, sizes.get(child) + 1));
+                } else if (node instanceof Shared shared) {
+                    int child = operands.pop();
+                    operands.push(intern(node, "[" + shared.getName() + " " + child, sizes.get(child) + 1));
+                } else {
+                    int right = operands.pop();
+                    int left = operands.pop();
+                    String key = ((BinaryOperation) node).getOperator() + " " + left + " " + right;
+                    operands.push(intern(node, key, sizes.get(left) + sizes.get(right) + 1));
+                }
+            }
+        });
+        roots.add(root);
+    }
+
+    /**
+     * Get the id for a subtree, making a new one the first time its key is
+     * seen.
+     *
+     * @param node the root of the subtree
+     * @param key the subtree's operator and operand ids
+     * @param size the number of nodes in the subtree
+     * @return the id
+     */
+    private int intern(ExpressionNode node, String key, int size) {
+        Integer id = keys.get(key);
+        if (id == null) {
+            id = sizes.size();
+            keys.put(key, id);
+            sizes.add(size);
+        }
+        ids.put(node, id);
+        return id;
+    }
+
+    /**
+     * Record that the statement whose expression was just added assigns a
+     * variable, so later reads of it have a different value.
+     *
+     * @param name the variable
+     */
+    public void assign(String name) {
+        versions.merge(name, 1, Integer::sum);
+    }
+
+    /**
+     * Is a subtree large enough to be shared?
+     *
+     * @param node the root of the subtree
+     * @return whether it is an operation of at least MIN_SHARED_SIZE nodes
+     */
+    private boolean candidate(ExpressionNode node) {
+        return (node instanceof UnaryOperation || node instanceof BinaryOperation)
+                && sizes.get(ids.get(node)) >= MIN_SHARED_SIZE;
+    }
+
+    /**
+     * Rewrite the expressions so each repeated subexpression is computed
+     * once.
+     *
+     * @return the rewritten expressions, in program order
+     */
+    public List<ExpressionNode> share() {
+        // find which subtrees are evaluated again, in the order the program
+        // evaluates them; a repeated subtree is not walked into, since its
+        // value is reused rather than computed
+        Set<Integer> seen = new HashSet<>();
+        Set<Integer> repeated = new HashSet<>();
+        for (ExpressionNode root : roots) {
+            Deque<ExpressionNode> nodes = new ArrayDeque<>();
+            nodes.push(root);
+            while (!nodes.isEmpty()) {
+                ExpressionNode node = nodes.pop();
+                if (candidate(node) && !seen.add(ids.get(node))) {
+                    repeated.add(ids.get(node));
+                } else {
+                    pushChildren(nodes, node);
+                }
+            }
+        }
+
+        // rebuild each expression, saving the first occurrence of every
+        // repeated subtree and reading the temporary everywhere after it
+        Map<Integer, String> names = new HashMap<>();
+        List<ExpressionNode> shared = new ArrayList<>(roots.size());
+        for (ExpressionNode root : roots) {
+            Deque<ExpressionNode> nodes = new ArrayDeque<>();
+            Deque<Boolean> expanded = new ArrayDeque<>();
+            Deque<ExpressionNode> results = new ArrayDeque<>();
+            nodes.push(root);
+            expanded.push(false);
+            while (!nodes.isEmpty()) {
+                ExpressionNode node = nodes.pop();
+                int id = ids.get(node);
+                if (expanded.pop()) {
+                    ExpressionNode rebuilt;
+                    if (node instanceof UnaryOperation unary) {
+                        rebuilt = new UnaryOperation(unary.getOperator(), results.pop());
+                    } else if (node instanceof Shared existing) {
+                        rebuilt = new Shared(existing.getName(), results.pop());
+                    } else {
+                        ExpressionNode right = results.pop();
+                        rebuilt = new BinaryOperation(((BinaryOperation) node).getOperator(), results.pop(), right);
+                    }
+                    if (repeated.contains(id) && candidate(node)) {
+                        String name = TEMPORARY_PREFIX + (++temporaries);
+                        names.put(id, name);
+                        rebuilt = new Shared(name, rebuilt);
+                    }
+                    results.push(rebuilt);
+                } else if (candidate(node) && names.containsKey(id)) {
+                    results.push(new Temporary(names.get(id)));
+                } else if (node instanceof UnaryOperation || node instanceof BinaryOperation
+                        || node instanceof Shared) {
+                    nodes.push(node);
+                    expanded.push(true);
+                    pushChildren(nodes, node);
+                    while (expanded.size() < nodes.size()) {
+                        expanded.push(false);
+                    }
+                } else {
+                    results.push(node);
+                }
+            }
+            shared.add(results.pop());
+        }
+        return shared;
+    }
+
+    /**
+     * Push the children of a node so that they pop off left to right.
+     *
+     * @param nodes the stack of nodes still to visit
+     * @param node the node
+     */
+    private static void pushChildren(Deque<ExpressionNode> nodes, ExpressionNode node) {
+        if (node instanceof UnaryOperation unary) {
+            nodes.push(unary.getChild());
+        } else if (node instanceof Shared shared) {
+            nodes.push(shared.getChild());
+        } else if (node instanceof BinaryOperation binary) {
+            nodes.push(binary.getRightChild());
+            nodes.push(binary.getLeftChild());
+        }
+    }
+}
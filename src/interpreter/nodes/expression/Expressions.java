@@ -0,0 +1,466 @@
+package interpreter.nodes.expression;
+
+import common.Errors;
+import common.SymbolTable;
+import machine.InstructionStack;
+import machine.Maquina;
+import machine.Program;
+import machine.RegisterFile;
+
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Explicit-stack versions of evaluate(), emit() and compile() for
+ * ExpressionNode trees.  The methods on the nodes themselves recurse once per
+ * level of the tree, so a deeply nested expression can overflow the thread's
+ * stack; these walk the tree with a heap-allocated stack instead and work for
+ * expressions of any depth.  Their results are identical to the recursive
+ * versions.
+ *
+ * @author Tiffany Lee
+ */
+public class Expressions {
+    /**
+     * The deepest expression that specialize() turns into nested closures.
+     * Evaluating a closure tree recurses once per level, so anything deeper
+     * is evaluated by the explicit-stack walker instead.
+     */
+    public static final int MAX_SPECIALIZED_DEPTH = 1_000;
+
+    /**
+     * What to do at each node of a post-order walk.
+     */
+    interface PostOrder {
+        /**
+         * Visit a Constant or Variable.
+         *
+         * @param node the leaf
+         */
+        void leaf(ExpressionNode node);
+
+        /**
+         * Visit an operation after all of its children have been visited.
+         *
+         * @param node the UnaryOperation, BinaryOperation or Shared
+         */
+        void operation(ExpressionNode node);
+    }
+
+    /**
+     * Walk an expression tree in post-order, children left to right, which
+     * is the order the recursive methods visit them in.
+     *
+     * @param root the root of the tree
+     * @param visitor what to do at each node
+     */
+    static void postOrder(ExpressionNode root, PostOrder visitor) {
+        // each entry is a node, and whether its children are already pushed
+        Deque<ExpressionNode> nodes = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        nodes.push(root);
+        expanded.push(false);
+        while (!nodes.isEmpty()) {
+            ExpressionNode node = nodes.pop();
+            boolean children = expanded.pop();
+            if (children) {
+                visitor.operation(node);
+            } else if (node instanceof UnaryOperation unary) {
+                nodes.push(node);
+                expanded.push(true);
+                nodes.push(unary.getChild());
+                expanded.push(false);
+            } else if (node instanceof Shared shared) {
+                nodes.push(node);
+                expanded.push(true);
+                nodes.push(shared.getChild());
+                expanded.push(false);
+            } else if (node instanceof BinaryOperation binary) {
+                nodes.push(node);
+                expanded.push(true);
+                nodes.push(binary.getRightChild());
+                expanded.push(false);
+                nodes.push(binary.getLeftChild());
+                expanded.push(false);
+            } else {
+                visitor.leaf(node);
+            }
+        }
+    }
+
+    /**
+     * Evaluate an expression.
+     *
+     * @param root the root of the expression
+     * @param symTbl the symbol table, if needed, to fetch the variable values.
+     * @return the result of the evaluation.
+     */
+    public static int evaluate(ExpressionNode root, SymbolTable symTbl) {
+        InstructionStack values = new InstructionStack();
+        postOrder(root, new PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                values.push(node.evaluate(symTbl));
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+                if (node instanceof UnaryOperation unary) {
+                    values.push(UnaryOperation.apply(unary.getOperator(), values.pop()));
+                } else if (node instanceof Shared shared) {
+                    symTbl.setTemporary(shared.getName(), values.top());
+                } else {
+                    int right = values.pop();
+                    int left = values.pop();
+                    values.push(BinaryOperation.apply(((BinaryOperation) node).getOperator(), left, right));
+                }
+            }
+        });
+        return values.pop();
+    }
+
+    /**
+     * Specialize an expression into a tree of closures that evaluates it
+     * against a register file.  The operator of every node is decided here,
+     * once, and every variable is resolved to its slot.  The closures give
+     * the same results and faults as evaluate().
+     *
+     * @param root the root of the expression
+     * @param registers the register file the program will run against
+     * @return the compiled expression
+     */
+    public static CompiledExpression specialize(ExpressionNode root, RegisterFile registers) {
+        return specialize(root, registers, Set.of());
+    }
+
+    /**
+     * Specialize an expression into a tree of closures, where reads of the
+     * variables that are certain to have been assigned skip the uninitialized
+     * variable check.
+     *
+     * @param root the root of the expression
+     * @param registers the register file the program will run against
+     * @param defined the variables that are certain to have been assigned
+     * @return the compiled expression
+     */
+    public static CompiledExpression specialize(ExpressionNode root, RegisterFile registers, Set<String> defined) {
+        Deque<CompiledExpression> closures = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        int[] deepest = {0};
+        postOrder(root, new PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                if (node instanceof Variable variable) {
+                    closures.push(variable.specialize(registers, !defined.contains(variable.getName())));
+                } else if (node instanceof Temporary temporary) {
+                    closures.push(temporary.specialize(registers));
+                } else {
+                    int value = ((Constant) node).getValue();
+                    closures.push(values -> value);
+                }
+                depths.push(1);
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+                int depth;
+                if (node instanceof UnaryOperation unary) {
+                    closures.push(UnaryOperation.specialize(unary.getOperator(), closures.pop()));
+                    depth = depths.pop() + 1;
+                } else if (node instanceof Shared shared) {
+                    CompiledExpression child = closures.pop();
+                    int slot = registers.temporary(shared.getName());
+                    closures.push(values -> {
+                        int value = child.evaluate(values);
+                        values.set(slot, value);
+                        return value;
+                    });
+                    depth = depths.pop() + 1;
+                } else {
+                    CompiledExpression right = closures.pop();
+                    CompiledExpression left = closures.pop();
+                    closures.push(BinaryOperation.specialize(((BinaryOperation) node).getOperator(), left, right));
+                    depth = Math.max(depths.pop(), depths.pop()) + 1;
+                }
+                depths.push(depth);
+                deepest[0] = Math.max(deepest[0], depth);
+            }
+        });
+        if (deepest[0] > MAX_SPECIALIZED_DEPTH) {
+            return values -> evaluate(root, values);
+        }
+        return closures.pop();
+    }
+
+    /**
+     * Evaluate an expression against a register file, for one too deep to
+     * specialize.  Its Shared nodes save their values to the register file,
+     * where the Temporary nodes of later statements read them.
+     *
+     * @param root the root of the expression
+     * @param registers the register file the program runs against
+     * @return the result of the evaluation
+     */
+    private static int evaluate(ExpressionNode root, RegisterFile registers) {
+        InstructionStack values = new InstructionStack();
+        postOrder(root, new PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                if (node instanceof Variable variable) {
+                    int slot = registers.slot(variable.getName());
+                    if (!registers.has(slot)) {
+                        Errors.report(Errors.Type.UNINITIALIZED, variable.getName());
+                    }
+                    values.push(registers.get(slot));
+                } else if (node instanceof Temporary temporary) {
+                    values.push(registers.get(registers.temporary(temporary.getName())));
+                } else {
+                    values.push(((Constant) node).getValue());
+                }
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+                if (node instanceof UnaryOperation unary) {
+                    values.push(UnaryOperation.apply(unary.getOperator(), values.pop()));
+                } else if (node instanceof Shared shared) {
+                    registers.set(registers.temporary(shared.getName()), values.top());
+                } else {
+                    int right = values.pop();
+                    int left = values.pop();
+                    values.push(BinaryOperation.apply(((BinaryOperation) node).getOperator(), left, right));
+                }
+            }
+        });
+        return values.pop();
+    }
+
+    /**
+     * Print to standard output the infix display of an expression.
+     *
+     * @param root the root of the expression
+     */
+    public static void emit(ExpressionNode root) {
+        // each entry is either a node still to display or text to print
+        Deque<Object> work = new ArrayDeque<>();
+        work.push(root);
+        while (!work.isEmpty()) {
+            Object item = work.pop();
+            if (item instanceof UnaryOperation unary) {
+                work.push(unary.getChild());
+                work.push(unary.getOperator());
+            } else if (item instanceof Shared shared) {
+                work.push("]");
+                work.push(shared.getChild());
+                work.push("[" + shared.getName() + " = ");
+            } else if (item instanceof BinaryOperation binary) {
+                work.push(" )");
+                work.push(binary.getRightChild());
+                work.push(" " + binary.getOperator() + " ");
+                work.push(binary.getLeftChild());
+                work.push("( ");
+            } else if (item instanceof ExpressionNode leaf) {
+                leaf.emit();
+            } else {
+                System.out.print(item);
+            }
+        }
+    }
+
+    /**
+     * Generates the MAQ instructions for an expression as text.
+     *
+     * @param root the root of the expression
+     * @param out the stream to write output to using out.println()
+     */
+    public static void compile(ExpressionNode root, PrintWriter out) {
+        postOrder(root, new PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                node.compile(out);
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+                if (node instanceof Shared shared) {
+                    out.println(Maquina.DUPLICATE);
+                    out.println(Maquina.STORE + " " + shared.getName());
+                } else {
+                    out.println(instruction(node));
+                }
+            }
+        });
+    }
+
+    /**
+     * Appends the MAQ instructions for an expression to an in-memory program.
+     *
+     * @param root the root of the expression
+     * @param program the program to append instructions to
+     */
+    public static void compile(ExpressionNode root, Program program) {
+        postOrder(root, new PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                node.compile(program);
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+                if (node instanceof Shared shared) {
+                    program.add(Maquina.DUPLICATE);
+                    program.storeTemporary(shared.getName());
+                } else {
+                    program.add(instruction(node));
+                }
+            }
+        });
+    }
+
+    /**
+     * What compileShallow() needs to know about a subtree.
+     *
+     * @param need the stack slots it needs when its deeper operands are
+     *             always evaluated first (its Sethi-Ullman number)
+     * @param faults whether evaluating it might fault
+     * @param shares whether it saves a value for a Temporary to read
+     */
+    private record Label(int need, boolean faults, boolean shares) {}
+
+    /**
+     * Label every subtree with its stack need and whether it might fault.
+     *
+     * @param root the root of the expression
+     * @param defined the variables that are certain to have been assigned
+     * @return the label of each node
+     */
+    private static Map<ExpressionNode, Label> labels(ExpressionNode root, Set<String> defined) {
+        Map<ExpressionNode, Label> labels = new IdentityHashMap<>();
+        postOrder(root, new PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                boolean faults = node instanceof Variable variable && !defined.contains(variable.getName());
+                labels.put(node, new Label(1, faults, false));
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+                if (node instanceof UnaryOperation unary) {
+                    Label child = labels.get(unary.getChild());
+                    boolean faults = child.faults() || !unary.getOperator().equals(UnaryOperation.NEG);
+                    labels.put(node, new Label(child.need(), faults, child.shares()));
+                } else if (node instanceof Shared shared) {
+                    // the copy made by DUP needs one more slot
+                    Label child = labels.get(shared.getChild());
+                    labels.put(node, new Label(Math.max(child.need(), 2), child.faults(), true));
+                } else {
+                    BinaryOperation binary = (BinaryOperation) node;
+                    Label left = labels.get(binary.getLeftChild());
+                    Label right = labels.get(binary.getRightChild());
+                    int need = left.need() == right.need() ? left.need() + 1 : Math.max(left.need(), right.need());
+                    boolean faults = left.faults() || right.faults()
+                            || binary.getOperator().equals(BinaryOperation.DIV)
+                            || binary.getOperator().equals(BinaryOperation.MOD);
+                    labels.put(node, new Label(need, faults, left.shares() || right.shares()));
+                }
+            }
+        });
+        return labels;
+    }
+
+    /**
+     * Should the right operand of a binary operation be evaluated first?  It
+     * is when it needs more stack than the left, unless both operands might
+     * fault, since then the order decides which fault is reported, or the
+     * left operand saves a value that the right might read.
+     *
+     * @param binary the operation
+     * @param labels the label of each node
+     * @return whether to evaluate the right operand first
+     */
+    private static boolean rightFirst(BinaryOperation binary, Map<ExpressionNode, Label> labels) {
+        Label left = labels.get(binary.getLeftChild());
+        Label right = labels.get(binary.getRightChild());
+        return right.need() > left.need() && !(left.faults() && right.faults()) && !left.shares();
+    }
+
+    /**
+     * Appends the MAQ instructions for an expression to an in-memory program,
+     * evaluating the operand that needs more stack first.  When that is the
+     * right operand of -, / or %, a SWAP puts the operands back in order
+     * before the operation.  Where neither operand can fault the expression
+     * needs no more stack than its Sethi-Ullman number, where compile() can
+     * need as much as its depth.
+     *
+     * @param root the root of the expression
+     * @param program the program to append instructions to
+     * @param defined the variables that are certain to have been assigned,
+     *                which cannot fault when read
+     */
+    public static void compileShallow(ExpressionNode root, Program program, Set<String> defined) {
+        Map<ExpressionNode, Label> labels = labels(root, defined);
+        // each entry is a node, and whether its children are already pushed
+        Deque<ExpressionNode> nodes = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        nodes.push(root);
+        expanded.push(false);
+        while (!nodes.isEmpty()) {
+            ExpressionNode node = nodes.pop();
+            boolean children = expanded.pop();
+            if (node instanceof BinaryOperation binary) {
+                boolean rightFirst = rightFirst(binary, labels);
+                if (children) {
+                    if (rightFirst && !BinaryOperation.commutes(binary.getOperator())) {
+                        program.add(Maquina.SWAP);
+                    }
+                    program.add(instruction(node));
+                } else {
+                    nodes.push(node);
+                    expanded.push(true);
+                    nodes.push(rightFirst ? binary.getLeftChild() : binary.getRightChild());
+                    expanded.push(false);
+                    nodes.push(rightFirst ? binary.getRightChild() : binary.getLeftChild());
+                    expanded.push(false);
+                }
+            } else if (node instanceof UnaryOperation unary) {
+                if (children) {
+                    program.add(instruction(node));
+                } else {
+                    nodes.push(node);
+                    expanded.push(true);
+                    nodes.push(unary.getChild());
+                    expanded.push(false);
+                }
+            } else if (node instanceof Shared shared) {
+                if (children) {
+                    program.add(Maquina.DUPLICATE);
+                    program.storeTemporary(shared.getName());
+                } else {
+                    nodes.push(node);
+                    expanded.push(true);
+                    nodes.push(shared.getChild());
+                    expanded.push(false);
+                }
+            } else {
+                node.compile(program);
+            }
+        }
+    }
+
+    /**
+     * The MAQ instruction that performs an operation node.
+     *
+     * @param node the UnaryOperation or BinaryOperation
+     * @return the instruction name
+     */
+    private static String instruction(ExpressionNode node) {
+        if (node instanceof UnaryOperation unary) {
+            return UnaryOperation.instruction(unary.getOperator());
+        }
+        return BinaryOperation.instruction(((BinaryOperation) node).getOperator());
+    }
+}
@@ -0,0 +1,110 @@
+package interpreter.nodes.expression;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A backward liveness pass over the statements of an ARB program that finds
+ * the assignments whose value is never observed: no later statement reads
+ * the variable before it is assigned again, and it is not needed in the
+ * final symbol table.  An assignment is only found dead when its expression
+ * cannot fault, so dropping it never hides a fault, and never when it saves
+ * a shared subexpression that later statements read.
+ *
+ * @author Tiffany Lee
+ */
+public class Liveness {
+    /**
+     * Find the statements that are needed.
+     *
+     * @param targets the variable each statement assigns, or null for a print
+     * @param roots the expression of each statement
+     * @param keepSymbols if true, every variable keeps its first assignment
+     *                    and its last, so the final symbol table is exactly
+     *                    the same
+     * @return for each statement, whether it is kept
+     */
+    public static boolean[] live(List<String> targets, List<ExpressionNode> roots, boolean keepSymbols) {
+        // the statement that first assigns each variable
+        Map<String, Integer> first = new HashMap<>();
+        for (int i = 0; i < targets.size(); i++) {
+            if (targets.get(i) != null) {
+                first.putIfAbsent(targets.get(i), i);
+            }
+        }
+
+        Set<String> live = new HashSet<>(keepSymbols ? first.keySet() : Set.of());
+        boolean[] kept = new boolean[targets.size()];
+        for (int i = targets.size() - 1; i >= 0; i--) {
+            String target = targets.get(i);
+            kept[i] = target == null || live.contains(target)
+                    || (keepSymbols && first.get(target) == i) || !safe(roots.get(i), first, i);
+            if (target != null) {
+                live.remove(target);
+            }
+            if (kept[i]) {
+                read(roots.get(i), live);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Can an expression be dropped without changing what the program does?
+     *
+     * @param root the root of the expression
+     * @param first the statement that first assigns each variable
+     * @param statement the statement the expression belongs to
+     * @return whether it only reads variables assigned by earlier statements,
+     *         and has no operation that can fault or save a shared value
+     */
+    private static boolean safe(ExpressionNode root, Map<String, Integer> first, int statement) {
+        boolean[] safe = {true};
+        Expressions.postOrder(root, new Expressions.PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                if (node instanceof Variable variable) {
+                    Integer assigned = first.get(variable.getName());
+                    safe[0] &= assigned != null && assigned < statement;
+                }
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+                if (node instanceof UnaryOperation unary) {
+                    safe[0] &= unary.getOperator().equals(UnaryOperation.NEG);
+                } else if (node instanceof BinaryOperation binary) {
+                    safe[0] &= !binary.getOperator().equals(BinaryOperation.DIV)
+                            && !binary.getOperator().equals(BinaryOperation.MOD);
+                } else {
+                    safe[0] = false;
+                }
+            }
+        });
+        return safe[0];
+    }
+
+    /**
+     * Mark the variables an expression reads as live.
+     *
+     * @param root the root of the expression
+     * @param live the live variables
+     */
+    private static void read(ExpressionNode root, Set<String> live) {
+        Expressions.postOrder(root, new Expressions.PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                if (node instanceof Variable variable) {
+                    live.add(variable.getName());
+                }
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+            }
+        });
+    }
+}
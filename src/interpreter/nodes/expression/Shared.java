@@ -0,0 +1,96 @@
+package interpreter.nodes.expression;
+
+import common.SymbolTable;
+import machine.Maquina;
+import machine.Program;
+import java.io.PrintWriter;
+
+/**
+ * The first occurrence of a subexpression that the program computes more
+ * than once.  It evaluates its child as usual, and also saves the value in a
+ * compiler-generated temporary, so that the later occurrences can be
+ * Temporary nodes that read it back instead of computing it again.
+ *
+ * @author Tiffany Lee
+ */
+public class Shared implements ExpressionNode{
+    /** the temporary that holds the value */
+    private final String name;
+    /** the child expression */
+    private final ExpressionNode child;
+
+    /**
+     * Create a new Shared node
+     *
+     * @param name the temporary that holds the value
+     * @param child the shared subexpression
+     */
+    public Shared(String name, ExpressionNode child) {
+        this.name = name;
+        this.child = child;
+    }
+
+    /**
+     * Get the name of the temporary.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the child expression.
+     *
+     * @return the child
+     */
+    public ExpressionNode getChild() {
+        return child;
+    }
+
+    /**
+     * Print to standard output the child in infix, in brackets with the
+     * temporary it is saved to
+     */
+    public void emit(){
+        System.out.print("[" + name + " = ");
+        child.emit();
+        System.out.print("]");
+    }
+
+    /**
+     * Evaluate the child, and save its value to the temporary
+     *
+     * @param symTbl the table containing all variable values
+     * @return the value of the child
+     */
+    public int evaluate(SymbolTable symTbl){
+        int value = child.evaluate(symTbl);
+        symTbl.setTemporary(name, value);
+        return value;
+    }
+
+    /**
+     * Generates the MAQ instructions for the child, followed by a copy of its
+     * value stored to the temporary
+     *
+     * @param out the stream to write output to using out.println()
+     */
+    public void compile(PrintWriter out){
+        child.compile(out);
+        out.println(Maquina.DUPLICATE);
+        out.println(Maquina.STORE + " " + name);
+    }
+
+    /**
+     * Appends the MAQ instructions for the child, followed by a copy of its
+     * value stored to the temporary
+     *
+     * @param program the program to append instructions to
+     */
+    public void compile(Program program){
+        child.compile(program);
+        program.add(Maquina.DUPLICATE);
+        program.storeTemporary(name);
+    }
+}
@@ -0,0 +1,181 @@
+package interpreter.nodes.expression;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites ARB expressions into smaller ones that evaluate to the same value.
+ * It folds constant subexpressions, removes identities (x + 0, x * 1, ! ! x,
+ * and x * 0 when x cannot fault), and replaces variables that were last
+ * assigned a constant with that constant.  Anything that would fault when
+ * run, like / x 0 or $ -4, is left in place so that it still faults at run
+ * time.  The statements of a program are simplified in order, calling
+ * assign() after each assignment, so that the simplifier knows which
+ * variables are defined and which hold constants.
+ *
+ * @author Tiffany Lee
+ */
+public class Simplifier {
+    /**
+     * A simplified subtree.
+     *
+     * @param node the subtree
+     * @param size the number of nodes in it
+     * @param safe whether evaluating it can never fault
+     */
+    private record Result(ExpressionNode node, int size, boolean safe) {}
+
+    /** the variables currently holding a known constant */
+    private final Map<String, Integer> constants;
+    /** the variables that have been assigned */
+    private final Set<String> defined;
+    /** the number of nodes removed so far */
+    private int removed;
+
+    /**
+     * Create a simplifier for a program where no variable has been assigned.
+     */
+    public Simplifier() {
+        this.constants = new HashMap<>();
+        this.defined = new HashSet<>();
+        this.removed = 0;
+    }
+
+    /**
+     * The number of nodes removed by all the calls to simplify().
+     *
+     * @return the number of nodes removed
+     */
+    public int getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Record that a statement assigned a simplified expression to a variable.
+     *
+     * @param name the variable
+     * @param value the simplified expression assigned to it
+     */
+    public void assign(String name, ExpressionNode value) {
+        defined.add(name);
+        if (value instanceof Constant constant) {
+            constants.put(name, constant.getValue());
+        } else {
+            constants.remove(name);
+        }
+    }
+
+    /**
+     * Simplify an expression.
+     *
+     * @param root the root of the expression
+     * @return an expression with the same value, and the same fault if it
+     *         has one
+     */
+    public ExpressionNode simplify(ExpressionNode root) {
+        Deque<Result> results = new ArrayDeque<>();
+        int[] visited = {0};
+        Expressions.postOrder(root, new Expressions.PostOrder() {
+            @Override
+            public void leaf(ExpressionNode node) {
+                visited[0]++;
+                if (node instanceof Variable variable) {
+                    Integer value = constants.get(variable.getName());
+                    boolean safe = defined.contains(variable.getName());
+                    results.push(new Result(value == null ? node : new Constant(value), 1, safe));
+                } else {
+                    results.push(new Result(node, 1, true));
+                }
+            }
+
+            @Override
+            public void operation(ExpressionNode node) {
+                visited[0]++;
+                if (node instanceof UnaryOperation unary) {
+                    results.push(unary(unary.getOperator(), results.pop()));
+                } else if (node instanceof Shared shared) {
+                    Result child = results.pop();
+                    results.push(new Result(new Shared(shared.getName(), child.node()), child.size() + 1, child.safe()));
+                } else {
+                    Result right = results.pop();
+                    Result left = results.pop();
+                    results.push(binary(((BinaryOperation) node).getOperator(), left, right));
+                }
+            }
+        });
+        Result result = results.pop();
+        removed += visited[0] - result.size();
+        return result.node();
+    }
+
+    /**
+     * Simplify a unary operation whose operand is already simplified.
+     *
+     * @param operator the operator
+     * @param child the simplified operand
+     * @return the simplified operation
+     */
+    private static Result unary(String operator, Result child) {
+        if (child.node() instanceof Constant constant
+                && (operator.equals(UnaryOperation.NEG) || constant.getValue() >= 0)) {
+            return new Result(new Constant(UnaryOperation.apply(operator, constant.getValue())), 1, true);
+        }
+        if (operator.equals(UnaryOperation.NEG) && child.node() instanceof UnaryOperation inner
+                && inner.getOperator().equals(UnaryOperation.NEG)) {
+            // ! ! x is x
+            return new Result(inner.getChild(), child.size() - 1, child.safe());
+        }
+        return new Result(new UnaryOperation(operator, child.node()), child.size() + 1,
+                child.safe() && operator.equals(UnaryOperation.NEG));
+    }
+
+    /**
+     * Simplify a binary operation whose operands are already simplified.
+     *
+     * @param operator the operator
+     * @param left the simplified left operand
+     * @param right the simplified right operand
+     * @return the simplified operation
+     */
+    private static Result binary(String operator, Result left, Result right) {
+        Integer l = left.node() instanceof Constant constant ? constant.getValue() : null;
+        Integer r = right.node() instanceof Constant constant ? constant.getValue() : null;
+        boolean divides = operator.equals(BinaryOperation.DIV) || operator.equals(BinaryOperation.MOD);
+        if (l != null && r != null && !(divides && r == 0)) {
+            return new Result(new Constant(BinaryOperation.apply(operator, l, r)), 1, true);
+        }
+        switch (operator) {
+            case BinaryOperation.ADD -> {
+                if (isValue(r, 0)) return left;
+                if (isValue(l, 0)) return right;
+            } case BinaryOperation.SUB -> {
+                if (isValue(r, 0)) return left;
+            } case BinaryOperation.MUL -> {
+                if (isValue(r, 1)) return left;
+                if (isValue(l, 1)) return right;
+                if (isValue(r, 0) && left.safe()) return right;
+                if (isValue(l, 0) && right.safe()) return left;
+            } case BinaryOperation.DIV -> {
+                if (isValue(r, 1)) return left;
+            }
+        }
+        boolean safe = left.safe() && right.safe() && (!divides || (r != null && r != 0));
+        return new Result(new BinaryOperation(operator, left.node(), right.node()),
+                left.size() + right.size() + 1, safe);
+    }
+
+    /**
+     * Is an operand a particular constant?
+     *
+     * @param constant the operand's value, or null if it is not a constant
+     * @param value the value to check for
+     * @return whether the operand is that constant
+     */
+    private static boolean isValue(Integer constant, int value) {
+        return constant != null && constant == value;
+    }
+}
@@ -0,0 +1,81 @@
+package interpreter.nodes.expression;
+
+import common.SymbolTable;
+import machine.Maquina;
+import machine.Program;
+import machine.RegisterFile;
+import java.io.PrintWriter;
+
+/**
+ * A later occurrence of a shared subexpression, which reads the value that
+ * the Shared node saved to its temporary.
+ *
+ * @author Tiffany Lee
+ */
+public class Temporary implements ExpressionNode{
+    /** the temporary that holds the value */
+    private final String name;
+
+    /**
+     * Create a new Temporary node
+     *
+     * @param name the temporary that holds the value
+     */
+    public Temporary(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the name of the temporary.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /** Print to standard output the name of the temporary */
+    public void emit(){
+        System.out.print(name);
+    }
+
+    /**
+     * Get the saved value from the symbol table
+     *
+     * @param symTbl the table containing all variable values
+     * @return the value of the shared subexpression
+     */
+    public int evaluate(SymbolTable symTbl){
+        return symTbl.getTemporary(name);
+    }
+
+    /**
+     * Generates the MAQ instruction for loading the temporary
+     *
+     * @param out the stream to write output to using out.println()
+     */
+    public void compile(PrintWriter out){
+        out.println(Maquina.LOAD + " " + name);
+    }
+
+    /**
+     * Appends the MAQ instruction for loading the temporary
+     *
+     * @param program the program to append instructions to
+     */
+    public void compile(Program program){
+        program.load(name);
+    }
+
+    /**
+     * Resolve the temporary to its slot in a register file, and return an
+     * accessor that reads that slot.
+     *
+     * @param registers the register file the program will run against
+     * @return the compiled read
+     */
+    public CompiledExpression specialize(RegisterFile registers){
+        int slot = registers.temporary(name);
+        return values -> values.get(slot);
+    }
+}
@@ -2,6 +2,8 @@ package interpreter.nodes.expression;
 
 import common.Errors;
 import common.SymbolTable;
+import machine.Maquina;
+import machine.Program;
 import java.io.PrintWriter;
 import java.util.List;
 import java.lang.Math;
@@ -13,9 +15,9 @@ import java.lang.Math;
  */
 public class UnaryOperation implements ExpressionNode{
     /** ARB negation operator */
-    private static final String NEG = "!";
+    static final String NEG = "!";
     /** ARB square root operator */
-    private static final String SQRT  = "$";
+    static final String SQRT  = "$";
     /** the legal unary operators, for use when parsing */
     public static final List<String> OPERATORS =  List.of(NEG, SQRT);
 
@@ -35,6 +37,24 @@ public class UnaryOperation implements ExpressionNode{
         this.child = child;
     }
 
+    /**
+     * Get the operator.
+     *
+     * @return the operator
+     */
+    public String getOperator() {
+        return operator;
+    }
+
+    /**
+     * Get the child expression.
+     *
+     * @return the child
+     */
+    public ExpressionNode getChild() {
+        return child;
+    }
+
     /**
      * Print to standard output the infix display of the child nodes
      * preceded by the operator and without an intervening blank
@@ -52,15 +72,7 @@ public class UnaryOperation implements ExpressionNode{
      * @return the result of the computation
      */
     public int evaluate(SymbolTable symTbl){
-        if(operator.equals(NEG)){
-            return -child.evaluate(symTbl);
-        } else if(operator.equals(SQRT)){
-            if(child.evaluate(symTbl) < 0){
-                Errors.report(Errors.Type.NEGATIVE_SQUARE_ROOT);
-            }
-            return (int) Math.sqrt(child.evaluate(symTbl));
-        }
-        return child.evaluate(symTbl);
+        return apply(operator, child.evaluate(symTbl));
     }
 
     /**
@@ -77,4 +89,66 @@ public class UnaryOperation implements ExpressionNode{
             out.println("SQRT");
         }
     }
+
+    /**
+     * Appends the MAQ instructions for this operation
+     *
+     * @param program the program to append instructions to
+     */
+    public void compile(Program program){
+        child.compile(program);
+        program.add(instruction(operator));
+    }
+
+    /**
+     * The MAQ instruction that performs a unary operator
+     *
+     * @param operator the operator
+     * @return the instruction name
+     */
+    static String instruction(String operator){
+        return operator.equals(NEG) ? Maquina.NEGATE : Maquina.SQUARE_ROOT;
+    }
+
+    /**
+     * Apply a unary operator to the value of its operand
+     *
+     * @param operator the operator
+     * @param value the value of the child
+     * @return the result of the computation
+     */
+    static int apply(String operator, int value){
+        if(operator.equals(NEG)){
+            return -value;
+        } else if(operator.equals(SQRT)){
+            if(value < 0){
+                Errors.report(Errors.Type.NEGATIVE_SQUARE_ROOT);
+            }
+            return (int) Math.sqrt(value);
+        }
+        return value;
+    }
+
+    /**
+     * Specialize a unary operator into a closure over its compiled operand,
+     * so the operator is only compared once.
+     *
+     * @param operator the operator
+     * @param child the compiled child
+     * @return the compiled operation
+     */
+    static CompiledExpression specialize(String operator, CompiledExpression child){
+        if(operator.equals(NEG)){
+            return registers -> -child.evaluate(registers);
+        } else if(operator.equals(SQRT)){
+            return registers -> {
+                int value = child.evaluate(registers);
+                if(value < 0){
+                    Errors.report(Errors.Type.NEGATIVE_SQUARE_ROOT);
+                }
+                return (int) Math.sqrt(value);
+            };
+        }
+        return child;
+    }
 }
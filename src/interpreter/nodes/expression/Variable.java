@@ -2,6 +2,8 @@ package interpreter.nodes.expression;
 
 import common.Errors;
 import common.SymbolTable;
+import machine.Program;
+import machine.RegisterFile;
 import java.io.PrintWriter;
 
 /**
@@ -22,6 +24,15 @@ public class Variable implements ExpressionNode{
         this.name = name;
     }
 
+    /**
+     * Get the name of the variable.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
     /** Print to standard output the name of the Variable */
     public void emit(){
         System.out.print(name);
@@ -48,4 +59,35 @@ public class Variable implements ExpressionNode{
     public void compile(PrintWriter out){
         out.println("LOAD " + name);
     }
+
+    /**
+     * Appends the MAQ instruction for loading the variable name
+     *
+     * @param program the program to append instructions to
+     */
+    public void compile(Program program){
+        program.load(name);
+    }
+
+    /**
+     * Resolve the variable to its slot in a register file, and return an
+     * accessor that reads that slot.
+     *
+     * @param registers the register file the program will run against
+     * @param checked false if the variable is always assigned before this
+     *                read, so the accessor need not check it
+     * @return the compiled read
+     */
+    public CompiledExpression specialize(RegisterFile registers, boolean checked){
+        int slot = registers.slot(name);
+        if(!checked){
+            return values -> values.get(slot);
+        }
+        return values -> {
+            if(!values.has(slot)){
+                Errors.report(Errors.Type.UNINITIALIZED, name);
+            }
+            return values.get(slot);
+        };
+    }
 }
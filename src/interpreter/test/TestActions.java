@@ -3,8 +3,12 @@ package interpreter.test;
 import common.SymbolTable;
 import interpreter.nodes.action.Assignment;
 import interpreter.nodes.action.Print;
+import interpreter.nodes.expression.BinaryOperation;
 import interpreter.nodes.expression.Constant;
+import interpreter.nodes.expression.UnaryOperation;
 import interpreter.nodes.expression.Variable;
+import machine.Maquina;
+import machine.Program;
 import org.junit.jupiter.api.*;
 
 import java.io.ByteArrayOutputStream;
@@ -101,4 +105,23 @@ public class TestActions {
                 "STORE y"+ System.lineSeparator();
         assertEquals(expected, outContent.toString());
     }
+
+    @Test
+    @Order(3)
+    public void testCompileProgram() {
+        Maquina machine = new Maquina();
+        Program program = new Program(machine);
+        new Assignment("x", new BinaryOperation("-", new Constant(10),
+                new UnaryOperation("!", new Constant(4)))).compile(program);
+        new Print(new UnaryOperation("$", new Variable("x"))).compile(program);
+        assertEquals("[PUSH 10, PUSH 4, NEG, SUB, STORE x, LOAD x, SQRT, PRINT]",
+                program.getInstructions().toString());
+
+        machine.assemble(program);
+        outContent.reset();
+        machine.execute();
+        assertEquals("(MAQ) Executing..." + System.lineSeparator() + "3" + System.lineSeparator(),
+                outContent.toString().substring(0, outContent.toString().indexOf("(MAQ) Completed")));
+        assertEquals(14, machine.getSymbolTable().get("x"));
+    }
 }
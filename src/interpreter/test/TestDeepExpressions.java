@@ -0,0 +1,180 @@
+package interpreter.test;
+
+import common.RuntimeFault;
+import common.SymbolTable;
+import interpreter.Arboles;
+import interpreter.TokenStream;
+import interpreter.nodes.expression.ExpressionNode;
+import interpreter.nodes.expression.Expressions;
+import machine.Maquina;
+import machine.Program;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for the explicit-stack parse, evaluate, emit and compile
+ * on expressions far deeper than the recursive versions can handle.
+ *
+ * @author Tiffany Lee
+ */
+public class TestDeepExpressions {
+    /** the number of operators in the stress expressions */
+    private static final int DEPTH = 500_000;
+    /** the real standard output */
+    private final PrintStream console = System.out;
+    /** Used to capture what emit() prints */
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(console);
+    }
+
+    /**
+     * Make a token stream from a space separated prefix expression.
+     *
+     * @param prefix the expression
+     * @return the tokens
+     */
+    private static TokenStream tokens(String prefix) {
+        TokenStream tokens = new TokenStream();
+        for (String token : prefix.split(" ")) {
+            tokens.add(token, 1);
+        }
+        return tokens;
+    }
+
+    /**
+     * Capture what emit() prints for an expression.
+     *
+     * @param root the expression
+     * @param recursive whether to use the node's own emit()
+     * @return the infix text
+     */
+    private String emit(ExpressionNode root, boolean recursive) {
+        outContent.reset();
+        if (recursive) {
+            root.emit();
+        } else {
+            Expressions.emit(root);
+        }
+        return outContent.toString();
+    }
+
+    /**
+     * Build a random expression over every operator, with no divide by zero
+     * or square root of a negative number.
+     *
+     * @param random the source of randomness
+     * @param depth how many more levels may be added
+     * @return the prefix form
+     */
+    private static String random(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            return random.nextBoolean() ? "x" : String.valueOf(random.nextInt(21) - 10);
+        }
+        return switch (random.nextInt(7)) {
+            case 0 -> "! " + random(random, depth - 1);
+            case 1 -> "$ * " + random(random, depth - 1) + " x";
+            case 2 -> "/ " + random(random, depth - 1) + " + 1 * x x";
+            case 3 -> "% " + random(random, depth - 1) + " 7";
+            case 4 -> "+ " + random(random, depth - 1) + " " + random(random, depth - 1);
+            case 5 -> "- " + random(random, depth - 1) + " " + random(random, depth - 1);
+            default -> "* " + random(random, depth - 1) + " " + random(random, depth - 1);
+        };
+    }
+
+    /**
+     * The value of an evaluation, or the error it faulted with.
+     *
+     * @param evaluation the evaluation
+     * @return the value or error type, as text
+     */
+    private static String outcome(IntSupplier evaluation) {
+        try {
+            return String.valueOf(evaluation.getAsInt());
+        } catch (RuntimeFault fault) {
+            return fault.getType().toString();
+        }
+    }
+
+    @Test
+    public void testSameAsRecursive() {
+        Arboles arboles = new Arboles(new Scanner(""), false);
+        SymbolTable symTbl = new SymbolTable();
+        symTbl.set("x", 3);
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            String prefix = random(random, 12);
+            ExpressionNode recursive = arboles.helpBuild(tokens(prefix));
+            ExpressionNode iterative = arboles.buildExpression(tokens(prefix));
+
+            assertEquals(emit(recursive, true), emit(iterative, false));
+            assertEquals(outcome(() -> recursive.evaluate(symTbl)),
+                    outcome(() -> Expressions.evaluate(iterative, symTbl)));
+
+            StringWriter expected = new StringWriter();
+            PrintWriter out = new PrintWriter(expected);
+            recursive.compile(out);
+            out.flush();
+            StringWriter actual = new StringWriter();
+            out = new PrintWriter(actual);
+            Expressions.compile(iterative, out);
+            out.flush();
+            assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void testDeepRightChain() {
+        // + 1 + 1 + 1 ... 1 has DEPTH operators and DEPTH + 1 constants
+        ExpressionNode root = new Arboles(new Scanner(""), false)
+                .buildExpression(tokens("+ 1 ".repeat(DEPTH) + "1"));
+        assertEquals(DEPTH + 1, Expressions.evaluate(root, new SymbolTable()));
+
+        String infix = emit(root, false);
+        assertTrue(infix.startsWith("( 1 + ( 1 + "));
+        assertTrue(infix.endsWith(" + 1 )" + " )".repeat(DEPTH - 1)));
+
+        Program program = new Program(new Maquina());
+        Expressions.compile(root, program);
+        assertEquals(2 * DEPTH + 1, program.getInstructions().size());
+        assertEquals("ADD", program.getInstructions().get(2 * DEPTH).toString());
+    }
+
+    @Test
+    public void testDeepLeftChain() {
+        // - - - ... x 1 1 ... 1 nests the operators down the left side
+        ExpressionNode root = new Arboles(new Scanner(""), false)
+                .buildExpression(tokens("- ".repeat(DEPTH) + "x" + " 1".repeat(DEPTH)));
+        SymbolTable symTbl = new SymbolTable();
+        symTbl.set("x", DEPTH);
+        assertEquals(0, Expressions.evaluate(root, symTbl));
+        assertTrue(emit(root, false).startsWith("( ".repeat(DEPTH) + "x - 1 ) - 1 )"));
+    }
+
+    @Test
+    public void testDeepUnaryChain() {
+        ExpressionNode root = new Arboles(new Scanner(""), false)
+                .buildExpression(tokens("$ ".repeat(DEPTH) + "16"));
+        assertEquals(1, Expressions.evaluate(root, new SymbolTable()));
+        assertEquals("$".repeat(DEPTH) + "16", emit(root, false));
+
+        root = new Arboles(new Scanner(""), false).buildExpression(tokens("! ! ".repeat(DEPTH) + "7"));
+        assertEquals(7, Expressions.evaluate(root, new SymbolTable()));
+    }
+}
@@ -0,0 +1,108 @@
+package interpreter.test;
+
+import common.Errors;
+import common.RuntimeFault;
+import interpreter.Arboles;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for rejecting ARB programs that are certain to read an
+ * uninitialized variable.
+ *
+ * @author Tiffany Lee
+ */
+public class TestDefiniteAssignment {
+    /** the real standard output */
+    private final PrintStream console = System.out;
+    /** Used to capture what the interpreter prints */
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(console);
+    }
+
+    /**
+     * Parse an ARB program, verify it, and interpret it with the specialized
+     * closures.
+     *
+     * @param source the program
+     * @return the fault it raised, or null if it ran to the end
+     */
+    private RuntimeFault interpret(String source) {
+        Arboles arboles = new Arboles(new Scanner(source), false);
+        arboles.buildProgram();
+        outContent.reset();
+        try {
+            arboles.verifyProgram();
+            arboles.interpretProgram();
+            return null;
+        } catch (RuntimeFault fault) {
+            return fault;
+        }
+    }
+
+    @Test
+    public void testRejected() {
+        RuntimeFault fault = interpret("= x 1\n@ x\n= y + x z\n@ y\n");
+        assertNotNull(fault);
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+        assertEquals("z", fault.getInfo());
+        assertEquals(3, fault.getLine());
+        // nothing ran, so the first print never happened
+        assertEquals("(ARB) verifying program..." + System.lineSeparator(), outContent.toString());
+    }
+
+    @Test
+    public void testNotVerified() {
+        // without verifying, the statements before the fault still run
+        Arboles arboles = new Arboles(new Scanner("@ 1\n@ y\n"), false);
+        arboles.buildProgram();
+        outContent.reset();
+        RuntimeFault fault = assertThrows(RuntimeFault.class, arboles::interpretProgram);
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+        assertEquals(2, fault.getLine());
+        assertEquals("(ARB) interpreting program..." + System.lineSeparator() + "1" + System.lineSeparator(),
+                outContent.toString());
+    }
+
+    @Test
+    public void testSelfAssignment() {
+        RuntimeFault fault = interpret("= x + x 1\n");
+        assertNotNull(fault);
+        assertEquals("x", fault.getInfo());
+        assertEquals(1, fault.getLine());
+    }
+
+    @Test
+    public void testEarlierFaultWins() {
+        // the division faults at run time before z is ever read
+        RuntimeFault fault = interpret("@ 1\n@ / 1 0\n@ z\n");
+        assertNotNull(fault);
+        assertEquals(Errors.Type.DIVIDE_BY_ZERO, fault.getType());
+        assertEquals(2, fault.getLine());
+        assertTrue(outContent.toString().contains("1" + System.lineSeparator()));
+
+        fault = interpret("= a 4\n@ + $ a z\n");
+        assertNotNull(fault);
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+        assertEquals(2, fault.getLine());
+    }
+
+    @Test
+    public void testAccepted() {
+        assertNull(interpret("= a 2\n= b * a a\n= a + a b\n@ a\n"));
+        assertTrue(outContent.toString().contains("6" + System.lineSeparator()));
+    }
+}
@@ -0,0 +1,181 @@
+package interpreter.test;
+
+import common.RuntimeFault;
+import interpreter.Arboles;
+import interpreter.TokenStream;
+import interpreter.nodes.expression.ExpressionDag;
+import interpreter.nodes.expression.ExpressionNode;
+import interpreter.nodes.expression.Expressions;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for sharing repeated subexpressions through an ExpressionDag.
+ *
+ * @author Tiffany Lee
+ */
+public class TestExpressionDag {
+    /** the real standard output */
+    private final PrintStream console = System.out;
+    /** Used to capture what is printed */
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(console);
+    }
+
+    /**
+     * Parse a space separated prefix expression.
+     *
+     * @param prefix the expression
+     * @return the parse tree
+     */
+    private static ExpressionNode parse(String prefix) {
+        TokenStream tokens = new TokenStream();
+        for (String token : prefix.split(" ")) {
+            tokens.add(token, 1);
+        }
+        return new Arboles(new Scanner(""), false).buildExpression(tokens);
+    }
+
+    /**
+     * Display an expression in infix.
+     *
+     * @param root the expression
+     * @return the infix text
+     */
+    private String emit(ExpressionNode root) {
+        outContent.reset();
+        Expressions.emit(root);
+        return outContent.toString();
+    }
+
+    @Test
+    public void testShared() {
+        ExpressionDag dag = new ExpressionDag();
+        dag.add(parse("+ * b b * 4 d"));
+        dag.assign("r");
+        dag.add(parse("- * b b * 4 d"));
+        dag.assign("b");
+        dag.add(parse("+ * b b * 4 d"));
+        List<ExpressionNode> shared = dag.share();
+        assertEquals(2, dag.getTemporaries());
+        assertEquals("( [_t1 = ( b * b )] + [_t2 = ( 4 * d )] )", emit(shared.get(0)));
+        assertEquals("( _t1 - _t2 )", emit(shared.get(1)));
+        // b was reassigned, so b * b must be computed again
+        assertEquals("( ( b * b ) + _t2 )", emit(shared.get(2)));
+    }
+
+    @Test
+    public void testNested() {
+        ExpressionDag dag = new ExpressionDag();
+        dag.add(parse("+ $ * a a $ * a a"));
+        dag.add(parse("* a a"));
+        dag.add(parse("+ x 1"));
+        List<ExpressionNode> shared = dag.share();
+        assertEquals("( [_t2 = $[_t1 = ( a * a )]] + _t2 )", emit(shared.get(0)));
+        assertEquals("_t1", emit(shared.get(1)));
+        // too small to be worth a temporary
+        assertEquals("( x + 1 )", emit(shared.get(2)));
+    }
+
+    /**
+     * Run an ARB program in a mode, and capture what it prints from the
+     * interpreter and from the machine.
+     *
+     * @param source the program
+     * @param share whether to share repeated subexpressions
+     * @param reference whether to walk the trees instead of specializing them
+     * @return the program's output, with the listings removed
+     */
+    private String run(String source, boolean share, boolean reference) {
+        outContent.reset();
+        Arboles arboles = new Arboles(new Scanner(source), false);
+        try {
+            arboles.buildProgram();
+            if (share) {
+                arboles.shareSubexpressions();
+            }
+            outContent.reset();
+            if (reference) {
+                arboles.interpretReference();
+            } else {
+                arboles.interpretProgram();
+            }
+            arboles.compileProgram();
+            arboles.executeProgram();
+        } catch (RuntimeFault fault) {
+            System.out.println(fault.getMessage() + " at line " + fault.getLine());
+        }
+        List<String> lines = new ArrayList<>();
+        for (String line : outContent.toString().split(System.lineSeparator())) {
+            if (!line.matches("[A-Z]+( .*)?")) {
+                lines.add(line);
+            }
+        }
+        return String.join("\n", lines);
+    }
+
+    @Test
+    public void testSameOutput() {
+        Random random = new Random(3);
+        String[] pieces = {"* a b", "+ a 1", "$ * b b", "- * a b c", "/ a c", "% * a b 7"};
+        for (int i = 0; i < 100; i++) {
+            StringBuilder source = new StringBuilder("= a 4\n= b -3\n= c 2\n");
+            for (int j = 0; j < 8; j++) {
+                String left = pieces[random.nextInt(pieces.length)];
+                String right = pieces[random.nextInt(pieces.length)];
+                switch (random.nextInt(4)) {
+                    case 0 -> source.append("@ + ").append(left).append(' ').append(right).append('\n');
+                    case 1 -> source.append("= a - ").append(left).append(' ').append(right).append('\n');
+                    case 2 -> source.append("= c * ").append(left).append(' ').append(right).append('\n');
+                    default -> source.append("@ ").append(left).append('\n');
+                }
+            }
+            String expected = run(source.toString(), false, true);
+            assertEquals(expected, run(source.toString(), true, true));
+            assertEquals(expected, run(source.toString(), true, false));
+        }
+    }
+
+    @Test
+    public void testTemporariesHidden() {
+        // sharing the repeated * * b b 2 leaves the symbol tables as they were
+        String source = "= b 3\n= x * * b b 2\n= y + * * b b 2 1\n@ y\n";
+        outContent.reset();
+        Arboles arboles = new Arboles(new Scanner(source), false);
+        arboles.buildProgram();
+        arboles.shareSubexpressions();
+        arboles.interpretProgram();
+        arboles.compileProgram();
+        arboles.executeProgram();
+        String printed = outContent.toString();
+        assertTrue(printed.contains("x: 18"));
+        assertFalse(printed.contains(ExpressionDag.TEMPORARY_PREFIX + "1: "));
+    }
+
+    @Test
+    public void testSharedTooDeepToSpecialize() {
+        // the first * * b b 2 is saved inside an expression evaluated without closures
+        String source = "= b 3\n= x + * * b b 2 " + "! ".repeat(Expressions.MAX_SPECIALIZED_DEPTH + 2)
+                + "0\n= y + * * b b 2 1\n@ y\n";
+        String expected = run(source, false, true);
+        assertTrue(expected.contains("\n19\n"));
+        assertEquals(expected, run(source, true, true));
+        assertEquals(expected, run(source, true, false));
+    }
+}
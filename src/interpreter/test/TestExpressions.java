@@ -1,8 +1,11 @@
 package interpreter.test;
 
+import common.Errors;
+import common.RuntimeFault;
 import common.SymbolTable;
 import interpreter.nodes.expression.BinaryOperation;
 import interpreter.nodes.expression.Constant;
+import interpreter.nodes.expression.ExpressionNode;
 import interpreter.nodes.expression.UnaryOperation;
 import interpreter.nodes.expression.Variable;
 import org.junit.jupiter.api.*;
@@ -12,6 +15,7 @@ import java.io.PrintStream;
 import java.io.PrintWriter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * A JUnit tester for all the ARB expressions.
@@ -186,4 +190,45 @@ public class TestExpressions {
                 "MOD" + System.lineSeparator();
         assertEquals(expected, outContent.toString());
     }
+
+    @Test
+    @Order(5)
+    public void testFaults() {
+        SymbolTable symTbl = new SymbolTable();
+        RuntimeFault fault = assertThrows(RuntimeFault.class, () -> new Variable("x").evaluate(symTbl));
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+        assertEquals("x", fault.getInfo());
+
+        fault = assertThrows(RuntimeFault.class,
+                () -> new BinaryOperation("/", new Constant(10), new Constant(0)).evaluate(symTbl));
+        assertEquals(Errors.Type.DIVIDE_BY_ZERO, fault.getType());
+
+        fault = assertThrows(RuntimeFault.class,
+                () -> new BinaryOperation("%", new Constant(10), new Constant(0)).evaluate(symTbl));
+        assertEquals(Errors.Type.DIVIDE_BY_ZERO, fault.getType());
+
+        fault = assertThrows(RuntimeFault.class,
+                () -> new UnaryOperation("$", new Constant(-4)).evaluate(symTbl));
+        assertEquals(Errors.Type.NEGATIVE_SQUARE_ROOT, fault.getType());
+    }
+
+    @Test
+    @Order(6)
+    public void testEvaluatedOnce() {
+        int[] evaluations = {0};
+        Constant leaf = new Constant(65536) {
+            @Override
+            public int evaluate(SymbolTable symTbl) {
+                evaluations[0]++;
+                return super.evaluate(symTbl);
+            }
+        };
+        ExpressionNode root = leaf;
+        for (int i = 0; i < 4; i++) {
+            root = new UnaryOperation("$", new UnaryOperation("!", new UnaryOperation("!", root)));
+        }
+        root = new BinaryOperation("+", root, new UnaryOperation("$", leaf));
+        assertEquals(2 + 256, root.evaluate(null));
+        assertEquals(2, evaluations[0]);
+    }
 }
@@ -0,0 +1,83 @@
+package interpreter.test;
+
+import interpreter.Arboles;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for removing ARB assignments whose value is never observed.
+ *
+ * @author Tiffany Lee
+ */
+public class TestLiveness {
+    /** the real standard output */
+    private final PrintStream console = System.out;
+    /** Used to capture what the interpreter prints */
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(console);
+    }
+
+    /**
+     * Parse an ARB program.
+     *
+     * @param source the program
+     * @return the interpreter holding it
+     */
+    private static Arboles build(String source) {
+        Arboles arboles = new Arboles(new Scanner(source), false);
+        arboles.buildProgram();
+        return arboles;
+    }
+
+    /**
+     * Interpret a program and keep what it printed from its first value on.
+     *
+     * @param arboles the interpreter
+     * @return the printed values and the symbol table
+     */
+    private String interpret(Arboles arboles) {
+        outContent.reset();
+        arboles.interpretProgram();
+        String output = outContent.toString();
+        return output.substring(output.indexOf(System.lineSeparator()) + System.lineSeparator().length());
+    }
+
+    @Test
+    public void testDeadStores() {
+        String source = "= a 1\n= b + a 2\n= a 7\n= c * b 3\n@ a\n";
+        Arboles arboles = build(source);
+        // the first a is overwritten unread, c is never read, and b then only feeds c
+        assertEquals(3, arboles.eliminateDeadStores(false));
+        assertEquals("7" + System.lineSeparator() + "(ARB) Symbol table:" + System.lineSeparator()
+                + "a: 7" + System.lineSeparator(), interpret(arboles));
+    }
+
+    @Test
+    public void testKeepSymbols() {
+        String source = "= a 1\n= b 4\n= a 2\n= a 3\n@ b\n";
+        Arboles expected = build(source);
+        Arboles arboles = build(source);
+        assertEquals(1, arboles.eliminateDeadStores(true));
+        assertEquals(interpret(expected), interpret(arboles));
+    }
+
+    @Test
+    public void testFaultsKept() {
+        // both assignments are unread, but each might fault
+        Arboles arboles = build("= a 1\n= b / a 0\n= c $ ! a\n");
+        assertEquals(0, arboles.eliminateDeadStores(false));
+    }
+}
@@ -0,0 +1,99 @@
+package interpreter.test;
+
+import common.ProgramCache;
+import interpreter.Arboles;
+import interpreter.bench.ProgramGenerator;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for keeping parsed and compiled ARB programs in a cache.
+ *
+ * @author Tiffany Lee
+ */
+public class TestProgramCache {
+    /** the real standard output */
+    private final PrintStream console = System.out;
+    /** Used to capture what the interpreter prints */
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(console);
+    }
+
+    /**
+     * Run an interpreter through every step of Arboles.main().
+     *
+     * @param interpreter the interpreter, with its input read
+     * @param optimize whether the program is simplified first
+     * @param export the MAQ file the compiled program goes to
+     * @return everything printed, and the exported program
+     * @throws IOException if the MAQ file cannot be written
+     */
+    private String run(Arboles interpreter, boolean optimize, Path export) throws IOException {
+        interpreter.buildProgram();
+        interpreter.displayProgram();
+        if (optimize) {
+            interpreter.optimizeProgram();
+        }
+        interpreter.interpretProgram();
+        interpreter.compileProgram();
+        interpreter.exportProgram(export.toString());
+        interpreter.executeProgram();
+        String printed = outContent.toString() + Files.readString(export);
+        outContent.reset();
+        return printed;
+    }
+
+    @Test
+    public void testSameAsUncached(@TempDir Path dir) throws IOException {
+        String arb = new ProgramGenerator(25, 1_000).arb();
+        byte[] source = arb.getBytes(StandardCharsets.UTF_8);
+        Path export = dir.resolve("out.maq");
+        for (boolean optimize : new boolean[]{false, true}) {
+            outContent.reset();
+            String expected = run(new Arboles(new Scanner(arb), false), optimize, export);
+            ProgramCache<Arboles.Parsed> cache = new ProgramCache<>(ProgramCache.DEFAULT_CAPACITY);
+            assertEquals(expected, run(new Arboles(source, cache), optimize, export));
+            assertEquals(expected, run(new Arboles(source, cache), optimize, export));
+            assertEquals(1, cache.getMisses());
+            assertEquals(1, cache.getHits());
+        }
+    }
+
+    @Test
+    public void testDisk(@TempDir Path dir) throws IOException {
+        String arb = new ProgramGenerator(27, 500).arb();
+        byte[] source = arb.getBytes(StandardCharsets.UTF_8);
+        Path export = dir.resolve("out.maq");
+        String expected = run(new Arboles(new Scanner(arb), false), false, export);
+
+        ProgramCache<Arboles.Parsed> first = new ProgramCache<>(4, dir.resolve("cache"), Arboles.CODEC);
+        assertEquals(expected, run(new Arboles(source, first), false, export));
+        assertTrue(Files.exists(dir.resolve("cache").resolve(ProgramCache.key(source) + Arboles.CODEC.extension())));
+
+        // a new process has the compiled program, and parses the statements again
+        ProgramCache<Arboles.Parsed> second = new ProgramCache<>(4, dir.resolve("cache"), Arboles.CODEC);
+        assertEquals(expected, run(new Arboles(source, second), false, export));
+        assertEquals(1, second.getDiskHits());
+        assertEquals(expected, run(new Arboles(source, second), false, export));
+        assertEquals(1, second.getHits());
+        assertNotNull(second.get(ProgramCache.key(source)).actions());
+    }
+}
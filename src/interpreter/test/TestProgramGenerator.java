@@ -0,0 +1,87 @@
+package interpreter.test;
+
+import interpreter.Arboles;
+import interpreter.bench.ProgramGenerator;
+import machine.Maquina;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for the generator of ARB and MAQ workloads.
+ *
+ * @author Tiffany Lee
+ */
+public class TestProgramGenerator {
+    /** the real standard output */
+    private final PrintStream console = System.out;
+    /** Used to capture what the interpreter prints */
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(console);
+    }
+
+    @Test
+    public void testDeterministic() {
+        ProgramGenerator generator = new ProgramGenerator(42, 500);
+        String arb = generator.arb();
+        assertEquals(arb, generator.arb());
+        assertEquals(arb, new ProgramGenerator(42, 500).arb());
+        assertNotEquals(arb, new ProgramGenerator(43, 500).arb());
+        assertEquals(500, arb.lines().count());
+    }
+
+    @Test
+    public void testSettings() {
+        // depth 0 gives single leaves, and only the operators in the mix appear
+        assertTrue(new ProgramGenerator(1, 100, 0, 1, 3, 0, Map.of("+", 1)).arb()
+                .lines().allMatch(line -> line.split(" ").length == 3));
+        String arb = new ProgramGenerator(1, 200, 6, 1, 3, 0, Map.of("/", 1, "$", 1)).arb();
+        assertTrue(arb.lines().allMatch(line -> line.matches("= v[0-2]( [/$]| v[0-2]| \\d+)+")));
+        assertTrue(arb.lines().anyMatch(line -> line.split(" ").length > 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProgramGenerator(1, 10, 2, 0.5, 3, 0, Map.of("^", 1)));
+    }
+
+    @Test
+    public void testRunsWithoutFaults(@TempDir Path dir) throws IOException {
+        // a mix of only the operators that can fault, over a few variables
+        ProgramGenerator generator = new ProgramGenerator(7, 2_000, 5, 0.7, 4, 0.3,
+                Map.of("/", 2, "%", 2, "$", 2, "!", 1, "-", 1));
+        Arboles interpreter = new Arboles(new Scanner(generator.arb()), false);
+        interpreter.buildProgram();
+        interpreter.interpretProgram();
+        interpreter.compileProgram();
+        Path exported = dir.resolve("compiled.maq");
+        interpreter.exportProgram(exported.toString());
+        assertEquals(generator.maq(), Files.readString(exported));
+
+        // the MAQ program prints what the ARB program printed
+        outContent.reset();
+        interpreter.interpretProgram();
+        String interpreted = outContent.toString();
+        ByteArrayOutputStream machineOut = new ByteArrayOutputStream();
+        Maquina machine = new Maquina(new PrintStream(machineOut));
+        machine.assemble(new Scanner(generator.maq()), false);
+        machine.execute();
+        String printed = interpreted.substring(interpreted.indexOf('\n') + 1, interpreted.indexOf("(ARB) Symbol table:"));
+        String executed = machineOut.toString();
+        assertTrue(executed.contains("(MAQ) Executing..." + System.lineSeparator() + printed));
+    }
+}
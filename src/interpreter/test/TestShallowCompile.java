@@ -0,0 +1,126 @@
+package interpreter.test;
+
+import interpreter.Arboles;
+import interpreter.TokenStream;
+import interpreter.nodes.expression.ExpressionNode;
+import interpreter.nodes.expression.Expressions;
+import machine.Maquina;
+import machine.Program;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for compiling the deeper operand of each operation first.
+ *
+ * @author Tiffany Lee
+ */
+public class TestShallowCompile {
+    /**
+     * Parse a space separated prefix expression.
+     *
+     * @param prefix the expression
+     * @return the parse tree
+     */
+    private static ExpressionNode parse(String prefix) {
+        TokenStream tokens = new TokenStream();
+        for (String token : prefix.split(" ")) {
+            tokens.add(token, 1);
+        }
+        return new Arboles(new Scanner(""), false).buildExpression(tokens);
+    }
+
+    /**
+     * Compile an expression, printing its value, and run it on a new machine
+     * where x is 3.
+     *
+     * @param root the expression
+     * @param shallow whether to compile the deeper operands first
+     * @param bytecode whether to run the lowered bytecode
+     * @return the program's maximum stack depth and the printed value
+     */
+    private static String run(ExpressionNode root, boolean shallow, boolean bytecode) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Maquina machine = new Maquina(new PrintStream(output));
+        Program program = new Program(machine);
+        program.push(3);
+        program.store("x");
+        if (shallow) {
+            Expressions.compileShallow(root, program, Set.of("x"));
+        } else {
+            Expressions.compile(root, program);
+        }
+        program.add(Maquina.PRINT);
+        machine.assemble(program);
+        output.reset();
+        if (bytecode) {
+            machine.executeBytecode();
+        } else {
+            machine.execute();
+        }
+        // the value is printed right after the "Executing..." banner
+        return program.getMaxDepth() + " " + output.toString().split(System.lineSeparator())[1];
+    }
+
+    @Test
+    public void testRightChain() {
+        // - 1 - 2 - 3 ... needs one slot per level in source order
+        ExpressionNode root = parse("- 1 ".repeat(50) + "x");
+        assertEquals("51 3", run(root, false, false));
+        assertEquals("2 3", run(root, true, false));
+        assertEquals("2 3", run(root, true, true));
+    }
+
+    @Test
+    public void testFaultOrderKept() {
+        // both operands fault, so the left must still run first
+        Program program = new Program(new Maquina(new PrintStream(OutputStream.nullOutputStream())));
+        Expressions.compileShallow(parse("+ / 1 0 $ ! * x x"), program, Set.of("x"));
+        assertEquals("PUSH 1", program.getInstructions().get(0).toString());
+
+        program = new Program(new Maquina(new PrintStream(OutputStream.nullOutputStream())));
+        Expressions.compileShallow(parse("+ 1 $ ! * y y"), program, Set.of());
+        assertEquals("LOAD y", program.getInstructions().get(0).toString());
+    }
+
+    /**
+     * Build a random expression that cannot fault when x is 3.
+     *
+     * @param random the source of randomness
+     * @param depth how many more levels may be added
+     * @return the prefix form
+     */
+    private static String random(Random random, int depth) {
+        if (depth == 0 || random.nextInt(5) == 0) {
+            return random.nextBoolean() ? "x" : String.valueOf(random.nextInt(21) - 10);
+        }
+        return switch (random.nextInt(6)) {
+            case 0 -> "! " + random(random, depth - 1);
+            case 1 -> "/ " + random(random, depth - 1) + " x";
+            case 2 -> "% " + random(random, depth - 1) + " 7";
+            case 3 -> "+ " + random(random, depth - 1) + " " + random(random, depth - 1);
+            case 4 -> "- " + random(random, depth - 1) + " " + random(random, depth - 1);
+            default -> "* " + random(random, depth - 1) + " " + random(random, depth - 1);
+        };
+    }
+
+    @Test
+    public void testSameValue() {
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            ExpressionNode root = parse(random(random, 10));
+            String[] expected = run(root, false, false).split(" ", 2);
+            String[] shallow = run(root, true, false).split(" ", 2);
+            assertEquals(expected[1], shallow[1]);
+            assertEquals(shallow[1], run(root, true, true).split(" ", 2)[1]);
+            assertTrue(Integer.parseInt(shallow[0]) <= Integer.parseInt(expected[0]));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package interpreter.test;
+
+import common.RuntimeFault;
+import common.SymbolTable;
+import interpreter.Arboles;
+import interpreter.TokenStream;
+import interpreter.nodes.expression.ExpressionNode;
+import interpreter.nodes.expression.Expressions;
+import interpreter.nodes.expression.Simplifier;
+import interpreter.nodes.expression.Variable;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for the ARB expression simplifier.
+ *
+ * @author Tiffany Lee
+ */
+public class TestSimplifier {
+    /** the real standard output */
+    private final PrintStream console = System.out;
+    /** Used to capture what emit() prints */
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(console);
+    }
+
+    /**
+     * Parse a space separated prefix expression.
+     *
+     * @param prefix the expression
+     * @return the parse tree
+     */
+    private static ExpressionNode parse(String prefix) {
+        TokenStream tokens = new TokenStream();
+        for (String token : prefix.split(" ")) {
+            tokens.add(token, 1);
+        }
+        return new Arboles(new Scanner(""), false).buildExpression(tokens);
+    }
+
+    /**
+     * Simplify a prefix expression, with x defined but not constant and k
+     * holding the constant 5, and display the result in infix.
+     *
+     * @param prefix the expression
+     * @return the infix display of the simplified expression
+     */
+    private String simplify(String prefix) {
+        Simplifier simplifier = new Simplifier();
+        simplifier.assign("x", new Variable("w"));
+        simplifier.assign("k", parse("5"));
+        ExpressionNode root = simplifier.simplify(parse(prefix));
+        outContent.reset();
+        Expressions.emit(root);
+        return outContent.toString();
+    }
+
+    @Test
+    public void testFolding() {
+        assertEquals("-5", simplify("! 5"));
+        assertEquals("-16", simplify("* 4 * 1 -4"));
+        assertEquals("3", simplify("$ + 1 8"));
+        assertEquals("( x + 20 )", simplify("+ x * 4 k"));
+        assertEquals("( 4 * ( y * -4 ) )", simplify("* 4 * y -4"));
+    }
+
+    @Test
+    public void testIdentities() {
+        assertEquals("x", simplify("+ x 0"));
+        assertEquals("x", simplify("+ 0 x"));
+        assertEquals("x", simplify("- x - k 5"));
+        assertEquals("x", simplify("* 1 x"));
+        assertEquals("x", simplify("/ x 1"));
+        assertEquals("x", simplify("! ! ! ! x"));
+        assertEquals("!x", simplify("! ! ! x"));
+        assertEquals("0", simplify("* + x 3 0"));
+        assertEquals("0", simplify("* 0 ! x"));
+    }
+
+    @Test
+    public void testFaultsKept() {
+        assertEquals("( x / 0 )", simplify("/ x 0"));
+        assertEquals("( 10 % 0 )", simplify("% 10 - k 5"));
+        assertEquals("$-4", simplify("$ -4"));
+        // each of these could fault, so multiplying by zero must keep them
+        assertEquals("( y * 0 )", simplify("* y 0"));
+        assertEquals("( 0 * ( 1 / x ) )", simplify("* 0 / 1 x"));
+        assertEquals("( $x * 0 )", simplify("* $ x 0"));
+        assertEquals("0", simplify("* / x 2 0"));
+    }
+
+    @Test
+    public void testRemoved() {
+        Simplifier simplifier = new Simplifier();
+        simplifier.simplify(parse("+ * 2 3 0"));
+        assertEquals(4, simplifier.getRemoved());
+        simplifier.simplify(parse("! ! y"));
+        assertEquals(6, simplifier.getRemoved());
+    }
+
+    /**
+     * Build a random expression over every operator, which may fault.
+     *
+     * @param random the source of randomness
+     * @param depth how many more levels may be added
+     * @return the prefix form
+     */
+    private static String random(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return switch (random.nextInt(8)) {
+                case 0 -> "y";
+                case 1, 2 -> "x";
+                case 3 -> "k";
+                default -> String.valueOf(random.nextInt(5) - 2);
+            };
+        }
+        String operator = "!$/%+-*".substring(random.nextInt(7)).substring(0, 1);
+        if (operator.equals("!") || operator.equals("$")) {
+            return operator + " " + random(random, depth - 1);
+        }
+        return operator + " " + random(random, depth - 1) + " " + random(random, depth - 1);
+    }
+
+    /**
+     * The value of an evaluation, or the error it faulted with.
+     *
+     * @param evaluation the evaluation
+     * @return the value or error, as text
+     */
+    private static String outcome(IntSupplier evaluation) {
+        try {
+            return String.valueOf(evaluation.getAsInt());
+        } catch (RuntimeFault fault) {
+            return fault.getMessage();
+        } catch (ArithmeticException exception) {
+            return "ArithmeticException";
+        }
+    }
+
+    @Test
+    public void testSameOutcome() {
+        SymbolTable symTbl = new SymbolTable();
+        symTbl.set("x", 3);
+        symTbl.set("k", 5);
+        Simplifier simplifier = new Simplifier();
+        simplifier.assign("x", new Variable("w"));
+        simplifier.assign("k", parse("5"));
+        Random random = new Random(12);
+        for (int i = 0; i < 1000; i++) {
+            ExpressionNode root = parse(random(random, 8));
+            ExpressionNode simplified = simplifier.simplify(root);
+            assertEquals(outcome(() -> Expressions.evaluate(root, symTbl)),
+                    outcome(() -> Expressions.evaluate(simplified, symTbl)));
+        }
+        assertTrue(simplifier.getRemoved() > 0);
+    }
+}
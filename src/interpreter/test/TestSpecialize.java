@@ -0,0 +1,166 @@
+package interpreter.test;
+
+import common.Errors;
+import common.RuntimeFault;
+import common.SymbolTable;
+import interpreter.Arboles;
+import interpreter.TokenStream;
+import interpreter.nodes.expression.ExpressionNode;
+import interpreter.nodes.expression.Expressions;
+import machine.RegisterFile;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester that checks the closures built by specialize() against the
+ * tree-walking reference interpreter.
+ *
+ * @author Tiffany Lee
+ */
+public class TestSpecialize {
+    /** the real standard output */
+    private final PrintStream console = System.out;
+    /** Used to capture what the interpreters print */
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(console);
+    }
+
+    /**
+     * Make a token stream from a space separated prefix expression.
+     *
+     * @param prefix the expression
+     * @return the tokens
+     */
+    private static TokenStream tokens(String prefix) {
+        TokenStream tokens = new TokenStream();
+        for (String token : prefix.split(" ")) {
+            tokens.add(token, 1);
+        }
+        return tokens;
+    }
+
+    /**
+     * Build a random expression over every operator.  Nothing keeps it from
+     * dividing by zero, taking the square root of a negative number, or
+     * reading the undefined variable y.
+     *
+     * @param random the source of randomness
+     * @param depth how many more levels may be added
+     * @return the prefix form
+     */
+    private static String random(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            return switch (random.nextInt(8)) {
+                case 0 -> "y";
+                case 1, 2, 3 -> "x";
+                default -> String.valueOf(random.nextInt(11) - 5);
+            };
+        }
+        String operator = switch (random.nextInt(7)) {
+            case 0 -> "!";
+            case 1 -> "$";
+            case 2 -> "/";
+            case 3 -> "%";
+            case 4 -> "+";
+            case 5 -> "-";
+            default -> "*";
+        };
+        if (operator.equals("!") || operator.equals("$")) {
+            return operator + " " + random(random, depth - 1);
+        }
+        return operator + " " + random(random, depth - 1) + " " + random(random, depth - 1);
+    }
+
+    /**
+     * The value of an evaluation, or the error it faulted with.
+     *
+     * @param evaluation the evaluation
+     * @return the value or error, as text
+     */
+    private static String outcome(IntSupplier evaluation) {
+        try {
+            return String.valueOf(evaluation.getAsInt());
+        } catch (RuntimeFault fault) {
+            return fault.getType() + " " + fault.getInfo();
+        }
+    }
+
+    @Test
+    public void testSameAsReference() {
+        Arboles arboles = new Arboles(new Scanner(""), false);
+        SymbolTable symTbl = new SymbolTable();
+        symTbl.set("x", 3);
+        RegisterFile registers = new RegisterFile();
+        registers.set(registers.slot("x"), 3);
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            ExpressionNode root = arboles.buildExpression(tokens(random(random, 10)));
+            assertEquals(outcome(() -> Expressions.evaluate(root, symTbl)),
+                    outcome(() -> Expressions.specialize(root, registers).evaluate(registers)));
+        }
+        ExpressionNode modulus = arboles.buildExpression(tokens("% x - x 3"));
+        RuntimeFault fault = assertThrows(RuntimeFault.class,
+                () -> Expressions.specialize(modulus, registers).evaluate(registers));
+        assertEquals(Errors.Type.DIVIDE_BY_ZERO, fault.getType());
+    }
+
+    @Test
+    public void testDeepExpression() {
+        int depth = 100_000;
+        ExpressionNode root = new Arboles(new Scanner(""), false)
+                .buildExpression(tokens("+ x ".repeat(depth) + "1"));
+        RegisterFile registers = new RegisterFile();
+        registers.set(registers.slot("x"), 2);
+        assertEquals(2 * depth + 1, Expressions.specialize(root, registers).evaluate(registers));
+    }
+
+    /**
+     * Run an ARB program through the front end and one of the interpreters.
+     *
+     * @param file the ARB file
+     * @param reference whether to walk the trees instead of specializing them
+     * @return everything printed
+     * @throws FileNotFoundException if the file is missing
+     */
+    private String interpret(File file, boolean reference) throws FileNotFoundException {
+        outContent.reset();
+        Arboles arboles = new Arboles(new Scanner(file), false);
+        try {
+            arboles.buildProgram();
+            if (reference) {
+                arboles.interpretReference();
+            } else {
+                arboles.interpretProgram();
+            }
+        } catch (RuntimeFault fault) {
+            System.out.println(fault.getMessage() + " at line " + fault.getLine());
+        }
+        return outContent.toString();
+    }
+
+    @Test
+    public void testPrograms() throws FileNotFoundException {
+        File[] files = new File("arb").listFiles((dir, name) -> name.endsWith(".arb"));
+        assertNotNull(files);
+        for (File file : files) {
+            assertEquals(interpret(file, true), interpret(file, false), file.getName());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package interpreter.test;
+
+import common.Errors;
+import common.RuntimeFault;
+import common.Tokenizer;
+import interpreter.Arboles;
+import interpreter.bench.ProgramGenerator;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for running ARB programs a statement at a time as they are
+ * read.
+ *
+ * @author Tiffany Lee
+ */
+public class TestStreaming {
+    /** the real standard output */
+    private final PrintStream console = System.out;
+    /** Used to capture what the interpreter prints */
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(console);
+    }
+
+    /**
+     * Tokenize some text as a stream.
+     *
+     * @param text the source
+     * @return the tokenizer, before its first line
+     */
+    private static Tokenizer stream(String text) {
+        return new Tokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Stream a program, and get what it printed.
+     *
+     * @param text the ARB program
+     * @param optimize whether each statement is simplified first
+     * @param export where the compiled statements go, or null
+     * @return the output, after the streaming message
+     */
+    private String run(String text, boolean optimize, PrintWriter export) {
+        outContent.reset();
+        new Arboles().streamProgram(stream(text), optimize, export);
+        String printed = outContent.toString();
+        return printed.substring(printed.indexOf('\n') + 1);
+    }
+
+    /**
+     * Interpret and compile a whole program the usual way.
+     *
+     * @param text the ARB program
+     * @param optimize whether the program is simplified first
+     * @param export the MAQ file the compiled program goes to
+     * @return the output of interpreting it, after the interpreting message
+     * @throws IOException if the MAQ file cannot be written
+     */
+    private String batch(String text, boolean optimize, Path export) throws IOException {
+        Arboles interpreter = new Arboles(new Scanner(text), false);
+        interpreter.buildProgram();
+        if (optimize) {
+            interpreter.optimizeProgram();
+        }
+        outContent.reset();
+        interpreter.interpretProgram();
+        String printed = outContent.toString();
+        interpreter.compileProgram();
+        interpreter.exportProgram(export.toString());
+        return printed.substring(printed.indexOf('\n') + 1);
+    }
+
+    @Test
+    public void testSameAsBatch(@TempDir Path dir) throws IOException {
+        for (boolean optimize : new boolean[]{false, true}) {
+            String arb = new ProgramGenerator(22, 2_000).arb();
+            StringWriter streamed = new StringWriter();
+            String output = run(arb, optimize, new PrintWriter(streamed));
+            Path compiled = dir.resolve("compiled.maq");
+            assertEquals(batch(arb, optimize, compiled), output);
+            assertEquals(Files.readString(compiled), streamed.toString());
+        }
+    }
+
+    @Test
+    public void testLines() {
+        // statements can share a line or go on to the next, and "." ends the input
+        String output = run("= x 5 @ x\n@ *\nx\n\t2\n.\n@ 99\n", false, null);
+        assertEquals(String.join(System.lineSeparator(), "5", "10", "(ARB) Symbol table:", "x: 5", ""), output);
+    }
+
+    @Test
+    public void testFaults() {
+        // statements run before a fault, which has the line of its statement
+        RuntimeFault fault = assertThrows(RuntimeFault.class, () -> run("@ 1\n= x 4\n@ / x\n0\n", false, null));
+        assertEquals(Errors.Type.DIVIDE_BY_ZERO, fault.getType());
+        assertEquals(3, fault.getLine());
+        assertTrue(outContent.toString().contains("1" + System.lineSeparator()));
+
+        fault = assertThrows(RuntimeFault.class, () -> run("@ 1\n@ + y 1\n", false, null));
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+        assertEquals(2, fault.getLine());
+
+        fault = assertThrows(RuntimeFault.class, () -> run("= x 1\n@ + x\n", false, null));
+        assertEquals(Errors.Type.PREMATURE_END, fault.getType());
+        assertEquals(2, fault.getLine());
+
+        fault = assertThrows(RuntimeFault.class, () -> run("= x 1\n? x\n", false, null));
+        assertEquals(Errors.Type.ILLEGAL_ACTION, fault.getType());
+        assertEquals(2, fault.getLine());
+    }
+
+    @Test
+    public void testLongLines() {
+        // a line much longer than the buffer, between short ones
+        StringBuilder text = new StringBuilder("= x 1\n@");
+        for (int i = 0; i < 10_000; i++) {
+            text.append(" + x");
+        }
+        text.append(" x\r\n@ x\n");
+        Tokenizer source = stream(text.toString());
+        assertTrue(source.nextLine());
+        assertTrue(source.nextLine());
+        int tokens = 0;
+        while (source.next()) {
+            tokens++;
+        }
+        assertEquals(20_002, tokens);
+        assertTrue(source.nextLine());
+        assertEquals(3, source.line());
+        assertTrue(source.next());
+        assertTrue(source.next());
+        assertEquals("x", source.name());
+        assertFalse(source.next());
+        assertFalse(source.nextLine());
+        assertThrows(IllegalStateException.class, () -> source.printLines(System.out, 1));
+
+        String output = run(text.toString(), false, null);
+        assertTrue(output.startsWith("10001" + System.lineSeparator() + "1" + System.lineSeparator()));
+    }
+}
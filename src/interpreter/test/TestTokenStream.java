@@ -0,0 +1,52 @@
+package interpreter.test;
+
+import common.Errors;
+import common.RuntimeFault;
+import interpreter.TokenStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for the token stream.
+ *
+ * @author Tiffany Lee
+ */
+public class TestTokenStream {
+    @Test
+    public void testClassify() {
+        assertEquals(TokenStream.ASSIGN, TokenStream.classify("="));
+        assertEquals(TokenStream.PRINT, TokenStream.classify("@"));
+        assertEquals(TokenStream.UNARY, TokenStream.classify("!"));
+        assertEquals(TokenStream.UNARY, TokenStream.classify("$"));
+        assertEquals(TokenStream.BINARY, TokenStream.classify("+"));
+        assertEquals(TokenStream.BINARY, TokenStream.classify("-"));
+        assertEquals(TokenStream.BINARY, TokenStream.classify("%"));
+        assertEquals(TokenStream.VARIABLE, TokenStream.classify("x"));
+        assertEquals(TokenStream.VARIABLE, TokenStream.classify("negHundred"));
+        assertEquals(TokenStream.CONSTANT, TokenStream.classify("10"));
+        assertEquals(TokenStream.CONSTANT, TokenStream.classify("-4"));
+        assertEquals(TokenStream.ILLEGAL, TokenStream.classify("?"));
+        assertEquals(TokenStream.ILLEGAL, TokenStream.classify("-x"));
+        assertEquals(TokenStream.ILLEGAL, TokenStream.classify(""));
+    }
+
+    @Test
+    public void testCursor() {
+        TokenStream tokens = new TokenStream();
+        assertEquals(0, tokens.line());
+        for (int i = 0; i < 100; i++) {
+            tokens.add("x" + i, i + 1);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(tokens.hasNext());
+            assertEquals(i + 1, tokens.line());
+            assertEquals(TokenStream.VARIABLE, tokens.peekKind());
+            assertEquals("x" + i, tokens.next());
+        }
+        assertFalse(tokens.hasNext());
+        assertEquals(100, tokens.line());
+        RuntimeFault fault = assertThrows(RuntimeFault.class, tokens::next);
+        assertEquals(Errors.Type.PREMATURE_END, fault.getType());
+    }
+}
@@ -0,0 +1,171 @@
+package interpreter.test;
+
+import common.Tokenizer;
+import interpreter.Arboles;
+import interpreter.bench.ProgramGenerator;
+import machine.Maquina;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for the byte level tokenizer shared by ARB and MAQ.
+ *
+ * @author Tiffany Lee
+ */
+public class TestTokenizer {
+    /** the real standard output */
+    private final PrintStream console = System.out;
+    /** Used to capture what the interpreter prints */
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(console);
+    }
+
+    /**
+     * Tokenize some text.
+     *
+     * @param text the source
+     * @return the tokenizer, before its first line
+     */
+    private static Tokenizer tokenizer(String text) {
+        return new Tokenizer(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTokens() {
+        Tokenizer source = tokenizer("  = x\t+ -4 y1 \r\n\n@ ? -x\n");
+        assertTrue(source.nextLine());
+        assertEquals(1, source.line());
+        assertTrue(source.next());
+        assertEquals(Tokenizer.SYMBOL, source.kind());
+        assertEquals('=', source.symbol());
+        assertEquals(2, source.offset());
+        assertTrue(source.next());
+        assertEquals(Tokenizer.NAME, source.kind());
+        assertEquals("x", source.name());
+        assertTrue(source.next());
+        assertEquals(Tokenizer.SYMBOL, source.kind());
+        assertTrue(source.next());
+        assertEquals(Tokenizer.INTEGER, source.kind());
+        assertEquals(-4, source.intValue());
+        assertTrue(source.next());
+        assertEquals("y1", source.name());
+        assertEquals(2, source.length());
+        assertFalse(source.next());
+
+        // a blank line has no tokens
+        assertTrue(source.nextLine());
+        assertEquals(2, source.line());
+        assertFalse(source.next());
+
+        assertTrue(source.nextLine());
+        assertEquals(3, source.line());
+        assertTrue(source.next());
+        assertEquals('@', source.symbol());
+        assertTrue(source.next());
+        assertEquals(Tokenizer.SYMBOL, source.kind());
+        assertTrue(source.next());
+        assertEquals(Tokenizer.OTHER, source.kind());
+        assertEquals("-x", source.text());
+        assertFalse(source.next());
+        assertFalse(source.nextLine());
+    }
+
+    @Test
+    public void testIntValue() {
+        String[] values = {"0", "7", "-0", "+12", "2147483647", "-2147483648", "007"};
+        for (String value : values) {
+            Tokenizer source = tokenizer(value);
+            source.nextLine();
+            source.next();
+            assertEquals(Integer.parseInt(value), source.intValue(), value);
+        }
+        String[] invalid = {"2147483648", "-2147483649", "99999999999", "-", "1x", "12-"};
+        for (String value : invalid) {
+            Tokenizer source = tokenizer(value);
+            source.nextLine();
+            source.next();
+            assertThrows(NumberFormatException.class, source::intValue, value);
+        }
+    }
+
+    @Test
+    public void testInterning() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("v").append(i % 300).append('\n');
+        }
+        Tokenizer source = tokenizer(text.toString());
+        String[] first = new String[300];
+        for (int i = 0; i < 1000; i++) {
+            source.nextLine();
+            source.next();
+            String name = source.name();
+            assertEquals("v" + (i % 300), name);
+            if (first[i % 300] == null) {
+                first[i % 300] = name;
+            } else {
+                assertSame(first[i % 300], name);
+            }
+        }
+    }
+
+    @Test
+    public void testLines() {
+        Tokenizer source = tokenizer("a\r\n.\n\nb");
+        assertTrue(source.nextLine());
+        assertFalse(source.lineIs("."));
+        assertTrue(source.nextLine());
+        assertTrue(source.lineIs("."));
+        assertTrue(source.nextLine());
+        assertTrue(source.lineIs(""));
+        assertTrue(source.nextLine());
+        assertEquals(4, source.line());
+        assertFalse(source.nextLine());
+
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        source.printLines(new PrintStream(lines), 3);
+        assertEquals("a" + System.lineSeparator() + "." + System.lineSeparator() + System.lineSeparator(),
+                lines.toString());
+    }
+
+    @Test
+    public void testSameAsScanner() {
+        // reading from bytes and from a Scanner gives the same output
+        ProgramGenerator generator = new ProgramGenerator(21, 300);
+        String arb = generator.arb();
+        Arboles fromScanner = new Arboles(new Scanner(arb), false);
+        fromScanner.buildProgram();
+        fromScanner.interpretProgram();
+        String expected = outContent.toString();
+        outContent.reset();
+        Arboles fromBytes = new Arboles(tokenizer(arb));
+        fromBytes.buildProgram();
+        fromBytes.interpretProgram();
+        assertEquals(expected, outContent.toString());
+
+        String maq = generator.maq();
+        ByteArrayOutputStream scanned = new ByteArrayOutputStream();
+        Maquina machine = new Maquina(new PrintStream(scanned));
+        machine.assemble(new Scanner(maq), false);
+        machine.execute();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        machine = new Maquina(new PrintStream(read));
+        machine.assemble(tokenizer(maq));
+        machine.execute();
+        assertEquals(scanned.toString(), read.toString());
+    }
+}
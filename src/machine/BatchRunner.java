@@ -0,0 +1,129 @@
+package machine;
+
+import common.ProgramCache;
+import common.RuntimeFault;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs every MAQ program in a directory across a pool of threads.  Each
+ * program gets its own machine, and its output is captured separately and
+ * displayed in file name order once all programs have run.  A program that
+ * faults ends its own output with the error, and the others carry on.  The
+ * programs share a ProgramCache, so a source that appears more than once is
+ * only assembled the first time.
+ *
+ * @author Tiffany Lee
+ */
+public class BatchRunner {
+    /** the extension of the MAQ program files */
+    private final static String MAQ_EXTENSION = ".maq";
+
+    /**
+     * Assemble and execute programs on a pool of threads.
+     *
+     * @param programs the MAQ program files
+     * @param threads the number of threads in the pool
+     * @return each program's output, in the same order as the programs
+     * @throws InterruptedException if interrupted while waiting for the programs
+     * @throws ExecutionException if a program could not be run
+     */
+    public static List<String> run(List<Path> programs, int threads)
+            throws InterruptedException, ExecutionException {
+        return run(programs, threads, new ProgramCache<>(ProgramCache.DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Assemble and execute programs on a pool of threads, using the programs
+     * in a cache rather than assembling the same source again.
+     *
+     * @param programs the MAQ program files
+     * @param threads the number of threads in the pool
+     * @param cache the programs assembled before, by the hash of their source
+     * @return each program's output, in the same order as the programs
+     * @throws InterruptedException if interrupted while waiting for the programs
+     * @throws ExecutionException if a program could not be run
+     */
+    public static List<String> run(List<Path> programs, int threads, ProgramCache<Executable> cache)
+            throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (Path program : programs) {
+                results.add(pool.submit(() -> run(program, cache)));
+            }
+            List<String> outputs = new ArrayList<>();
+            for (Future<String> result : results) {
+                outputs.add(result.get());
+            }
+            return outputs;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Assemble and execute one program on a new machine, unless it is in the
+     * cache already.
+     *
+     * @param program the MAQ program file
+     * @param cache the programs assembled before, by the hash of their source
+     * @return everything the machine wrote, followed by the error if it faulted
+     * @throws IOException if the file cannot be read
+     */
+    public static String run(Path program, ProgramCache<Executable> cache) throws IOException {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(captured);
+        try {
+            Maquina machine = new Maquina(out);
+            machine.assemble(Files.readAllBytes(program), cache);
+            machine.execute();
+        } catch (RuntimeFault fault) {
+            out.println(fault.getMessage());
+        }
+        out.flush();
+        return captured.toString();
+    }
+
+    /**
+     * The main method runs all the .maq files of a directory.
+     *
+     * @param args the directory, and optionally the number of threads
+     * @throws IOException if the directory cannot be listed
+     * @throws InterruptedException if interrupted while waiting for the programs
+     * @throws ExecutionException if a program could not be run
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 1 || args.length > 2) {
+            System.out.println("Usage: java BatchRunner directory [threads]");
+            System.exit(1);
+        }
+        int threads = args.length == 2 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+
+        List<Path> programs;
+        try (Stream<Path> files = Files.list(Path.of(args[0]))) {
+            programs = files.filter(file -> file.toString().endsWith(MAQ_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        List<String> outputs = run(programs, threads);
+        for (int i = 0; i < programs.size(); i++) {
+            System.out.println("==> " + programs.get(i) + " <==");
+            System.out.print(outputs.get(i));
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package machine;
+
+import common.Errors;
+import common.RuntimeFault;
+import machine.instructions.Instruction;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact form of an assembled MAQ program.  The instructions are lowered
+ * into a flat array of opcodes, each followed by its operand when it has one.
+ * PUSH carries its constant inline, and LOAD/STORE carry the register file
+ * slot of their variable rather than its name.  The program is run by a single
+ * switch-dispatch loop instead of calling each Instruction in turn.
+ *
+ * @author Tiffany Lee
+ */
+public class Bytecode {
+    /** push the inline constant */
+    public static final int PUSH = 0;
+    /** pop and print */
+    public static final int PRINT = 1;
+    /** pop into the inline slot */
+    public static final int STORE = 2;
+    /** push the value of the inline slot */
+    public static final int LOAD = 3;
+    /** negate the top value */
+    public static final int NEGATE = 4;
+    /** square root of the top value */
+    public static final int SQUARE_ROOT = 5;
+    /** add the top two values */
+    public static final int ADD = 6;
+    /** subtract the top two values */
+    public static final int SUBTRACT = 7;
+    /** multiply the top two values */
+    public static final int MULTIPLY = 8;
+    /** divide the top two values */
+    public static final int DIVIDE = 9;
+    /** modulus of the top two values */
+    public static final int MODULUS = 10;
+    /** push a copy of the top value */
+    public static final int DUPLICATE = 11;
+    /** exchange the top two values */
+    public static final int SWAP = 12;
+    /** push the value of the inline slot, which is known to be defined */
+    public static final int LOAD_DEFINED = 13;
+
+    /** the number of values each opcode pops, indexed by opcode */
+    private static final int[] POPS = {0, 1, 1, 0, 1, 1, 2, 2, 2, 2, 2, 1, 2, 0};
+    /** the number of inline operands of each opcode, indexed by opcode */
+    private static final int[] OPERANDS = {1, 0, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1};
+    /** the number of values each opcode pushes, indexed by opcode */
+    private static final int[] PUSHES = {1, 0, 0, 1, 1, 1, 1, 1, 1, 1, 1, 2, 2, 1};
+    /** the MAQ instruction name of each opcode, indexed by opcode */
+    private static final String[] NAMES = {
+            Maquina.PUSH, Maquina.PRINT, Maquina.STORE, Maquina.LOAD, Maquina.NEGATE, Maquina.SQUARE_ROOT,
+            Maquina.ADD, Maquina.SUBTRACT, Maquina.MULTIPLY, Maquina.DIVIDE, Maquina.MODULUS,
+            Maquina.DUPLICATE, Maquina.SWAP, Maquina.LOAD
+    };
+
+    /** the opcodes and inline operands */
+    private final int[] code;
+    /** the most values the program adds to the stack at any point */
+    private final int maxDepth;
+    /** the index of the first instruction that pops more than the program pushed, or -1 */
+    private final int underflow;
+    /** whether verify() has shown the program never underflows */
+    private final boolean verified;
+
+    /**
+     * Create the bytecode from a finished builder, or a verified copy.
+     *
+     * @param code the opcodes and inline operands
+     * @param maxDepth the most values the program adds to the stack
+     * @param underflow the first instruction that underflows, or -1
+     * @param verified whether the program is known never to underflow
+     */
+    private Bytecode(int[] code, int maxDepth, int underflow, boolean verified) {
+        this.code = code;
+        this.maxDepth = maxDepth;
+        this.underflow = underflow;
+        this.verified = verified;
+    }
+
+    /**
+     * Lower a list of assembled instructions into bytecode.
+     *
+     * @param instructions the assembled instructions, in program order
+     * @return the bytecode
+     */
+    public static Bytecode lower(List<Instruction> instructions) {
+        Builder builder = new Builder();
+        instructions.forEach(instruction -> instruction.lower(builder));
+        return builder.build();
+    }
+
+    /**
+     * The number of ints in the code array.
+     *
+     * @return the code length
+     */
+    public int length() {
+        return this.code.length;
+    }
+
+    /**
+     * The opcodes and inline operands, with LOAD and STORE operands being
+     * register file slots.
+     *
+     * @return the code array, which must not be changed
+     */
+    int[] getCode() {
+        return this.code;
+    }
+
+    /**
+     * Is an int a known opcode?
+     *
+     * @param opcode the int
+     * @return whether it is one of the opcodes
+     */
+    static boolean isOpcode(int opcode) {
+        return opcode >= 0 && opcode < OPERANDS.length;
+    }
+
+    /**
+     * The number of inline operands an opcode is followed by.
+     *
+     * @param opcode the opcode
+     * @return 0 or 1
+     */
+    static int operands(int opcode) {
+        return OPERANDS[opcode];
+    }
+
+    /**
+     * The MAQ instruction name of an opcode.
+     *
+     * @param opcode the opcode
+     * @return the name, e.g. Maquina.ADD
+     */
+    static String name(int opcode) {
+        return NAMES[opcode];
+    }
+
+    /**
+     * The most values the program adds to the stack at any point, which is
+     * exact because MAQ programs have no jumps.
+     *
+     * @return the maximum stack depth
+     */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Check, before running, that no instruction pops more values than the
+     * instructions before it pushed, starting from an empty stack.  This
+     * bytecode is left as it is, since it may be shared; the run() of the
+     * verified copy skips the underflow check on every opcode.
+     *
+     * @return the same program, verified
+     * @throws RuntimeFault if the program would underflow, naming the index
+     *                      of the first instruction that would
+     */
+    public Bytecode verify() {
+        if (this.underflow >= 0) {
+            throw new RuntimeFault(Errors.Type.STACK_UNDERFLOW, "instruction " + this.underflow)
+                    .atInstruction(this.underflow);
+        }
+        return this.verified ? this : new Bytecode(this.code, this.maxDepth, this.underflow, true);
+    }
+
+    /**
+     * Run the bytecode against a context that has been bound to it, so that
+     * its LOAD and STORE slots are relocated to the context's register file.
+     *
+     * @param context the stack, register file and output
+     * @throws RuntimeFault if an instruction faults, with its index
+     */
+    public void run(Context context) {
+        final int[] code = this.code;
+        final boolean checked = !this.verified;
+        final InstructionStack stack = context.getStack();
+        final RegisterFile registers = context.getRegisters();
+        final PrintStream out = context.getOutput();
+        // null when the program's slots are the context's own
+        final int[] slots = context.getSlots();
+
+        // work on a local copy of the stack, sized for the deepest point of
+        // the program, and hand the remaining values back when done
+        int[] values = new int[stack.size() + this.maxDepth];
+        int sp = stack.size();
+        for (int i = sp - 1; i >= 0; i--) {
+            values[i] = stack.pop();
+        }
+
+        int pc = 0;
+        int at = 0;
+        try {
+            while (pc < code.length) {
+                at = pc;
+                int opcode = code[pc++];
+                if (checked && sp < POPS[opcode]) {
+                    Errors.report(Errors.Type.STACK_UNDERFLOW);
+                }
+                switch (opcode) {
+                    case PUSH -> values[sp++] = code[pc++];
+                    case PRINT -> out.println(values[--sp]);
+                    case STORE -> {
+                        int slot = slots == null ? code[pc++] : slots[code[pc++]];
+                        registers.set(slot, values[--sp]);
+                    }
+                    case LOAD -> {
+                        int slot = slots == null ? code[pc++] : slots[code[pc++]];
+                        if (!registers.has(slot)) {
+                            Errors.report(Errors.Type.UNINITIALIZED, registers.name(slot));
+                        }
+                        values[sp++] = registers.get(slot);
+                    }
+                    case LOAD_DEFINED -> {
+                        int slot = slots == null ? code[pc++] : slots[code[pc++]];
+                        values[sp++] = registers.get(slot);
+                    }
+                    case NEGATE -> values[sp - 1] = -values[sp - 1];
+                    case SQUARE_ROOT -> {
+                        int p = values[sp - 1];
+                        if (p < 0) {
+                            Errors.report(Errors.Type.NEGATIVE_SQUARE_ROOT);
+                        }
+                        values[sp - 1] = (int) Math.sqrt(p);
+                    }
+                    case ADD -> {
+                        sp--;
+                        values[sp - 1] += values[sp];
+                    }
+                    case SUBTRACT -> {
+                        sp--;
+                        values[sp - 1] -= values[sp];
+                    }
+                    case MULTIPLY -> {
+                        sp--;
+                        values[sp - 1] *= values[sp];
+                    }
+                    case DIVIDE -> {
+                        sp--;
+                        if (values[sp] == 0) {
+                            Errors.report(Errors.Type.DIVIDE_BY_ZERO);
+                        }
+                        values[sp - 1] /= values[sp];
+                    }
+                    case MODULUS -> {
+                        sp--;
+                        if (values[sp] == 0) {
+                            Errors.report(Errors.Type.DIVIDE_BY_ZERO);
+                        }
+                        values[sp - 1] %= values[sp];
+                    }
+                    case DUPLICATE -> {
+                        values[sp] = values[sp - 1];
+                        sp++;
+                    }
+                    case SWAP -> {
+                        int top = values[sp - 1];
+                        values[sp - 1] = values[sp - 2];
+                        values[sp - 2] = top;
+                    }
+                    default -> Errors.report(Errors.Type.ILLEGAL_INSTRUCTION, opcode);
+                }
+            }
+        } catch (RuntimeFault fault) {
+            throw fault.atInstruction(instructionAt(at));
+        }
+
+        for (int i = 0; i < sp; i++) {
+            stack.push(values[i]);
+        }
+    }
+
+    /**
+     * Find which instruction of the original program starts at an offset of
+     * the code.  This is only needed when reporting a fault, so it walks the
+     * code rather than keeping a table.
+     *
+     * @param pc the offset of an opcode
+     * @return the index of its instruction
+     */
+    private int instructionAt(int pc) {
+        int instruction = 0;
+        for (int i = 0; i < pc; i += 1 + OPERANDS[this.code[i]]) {
+            instruction++;
+        }
+        return instruction;
+    }
+
+    /**
+     * Accumulates opcodes and operands while a program is being lowered.
+     */
+    public static class Builder {
+        /** the opcodes and operands emitted so far */
+        private int[] code = new int[64];
+        /** the number of ints emitted so far */
+        private int length = 0;
+        /** the stack height, relative to the start, after the last opcode */
+        private int depth = 0;
+        /** the highest relative stack height reached so far */
+        private int maxDepth = 0;
+        /** the number of opcodes emitted so far, one per instruction */
+        private int instructions = 0;
+        /** the first instruction that popped below the start, or -1 */
+        private int underflow = -1;
+
+        /**
+         * Emit an opcode that has no operand.
+         *
+         * @param opcode the opcode
+         */
+        public void emit(int opcode) {
+            track(opcode);
+            append(opcode);
+        }
+
+        /**
+         * Emit an opcode followed by its inline operand.
+         *
+         * @param opcode the opcode
+         * @param operand the constant value or slot index
+         */
+        public void emit(int opcode, int operand) {
+            track(opcode);
+            append(opcode);
+            append(operand);
+        }
+
+        /**
+         * Finish building.
+         *
+         * @return the bytecode
+         */
+        public Bytecode build() {
+            return new Bytecode(Arrays.copyOf(this.code, this.length), this.maxDepth, this.underflow, false);
+        }
+
+        /**
+         * Follow the stack height through an opcode.
+         *
+         * @param opcode the opcode being emitted
+         */
+        private void track(int opcode) {
+            if (this.depth < POPS[opcode] && this.underflow < 0) {
+                this.underflow = this.instructions;
+            }
+            this.instructions++;
+            this.depth += PUSHES[opcode] - POPS[opcode];
+            this.maxDepth = Math.max(this.maxDepth, this.depth);
+        }
+
+        /**
+         * Append one int to the code, growing it when needed.
+         *
+         * @param value the int to append
+         */
+        private void append(int value) {
+            if (this.length == this.code.length) {
+                this.code = Arrays.copyOf(this.code, this.code.length * 2);
+            }
+            this.code[this.length++] = value;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package machine;
+
+import common.SymbolTable;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * The state a MAQ program runs against: an instruction stack, the register
+ * file that holds the variables, and where PRINT writes to.  Instructions keep
+ * none of this themselves, so one assembled program can run against many
+ * contexts, one per run or one per thread, each with its own variables.
+ *
+ * The LOAD and STORE instructions of a program refer to variables by the
+ * slot they were given when the program was assembled.  A context whose
+ * register file gave the same variables other slots is bound to the program
+ * before it runs, which relocates each of the program's slots to the
+ * context's slot for the same name.
+ *
+ * @author Tiffany Lee
+ */
+public class Context {
+    /** the stack for handling instructions */
+    private final InstructionStack stack;
+    /** the slots that hold the variables' integer values */
+    private final RegisterFile registers;
+    /** where PRINT writes to */
+    private final PrintStream out;
+    /** the register file slot of each program slot, or null if they are the same */
+    private final int[] slots;
+
+    /**
+     * Create a context with an empty stack and no variables.
+     *
+     * @param out where PRINT writes to
+     */
+    public Context(PrintStream out) {
+        this(new InstructionStack(), new RegisterFile(), out, null);
+    }
+
+    /**
+     * Create a context.
+     *
+     * @param stack the instruction stack
+     * @param registers the register file
+     * @param out where PRINT writes to
+     * @param slots the register file slot of each program slot, or null if
+     *              they are the same
+     */
+    private Context(InstructionStack stack, RegisterFile registers, PrintStream out, int[] slots) {
+        this.stack = stack;
+        this.registers = registers;
+        this.out = out;
+        this.slots = slots;
+    }
+
+    /**
+     * Create a context over a machine's stack and register file, whose slots
+     * are the ones the machine assembles its programs with.
+     *
+     * @param stack the instruction stack
+     * @param registers the register file
+     * @param out where PRINT writes to
+     */
+    Context(InstructionStack stack, RegisterFile registers, PrintStream out) {
+        this(stack, registers, out, null);
+    }
+
+    /**
+     * Return the instruction stack.
+     *
+     * @return the stack
+     */
+    public InstructionStack getStack() {
+        return this.stack;
+    }
+
+    /**
+     * Return the register file.
+     *
+     * @return the register file
+     */
+    public RegisterFile getRegisters() {
+        return this.registers;
+    }
+
+    /**
+     * Return where PRINT writes to.
+     *
+     * @return the output stream
+     */
+    public PrintStream getOutput() {
+        return this.out;
+    }
+
+    /**
+     * Set a variable before a program runs.
+     *
+     * @param name the variable name
+     * @param value its value
+     */
+    public void set(String name, int value) {
+        this.registers.set(this.registers.slot(name), value);
+    }
+
+    /**
+     * Return the symbol table, built from the register file in the order the
+     * variables were first stored to.
+     *
+     * @return the symbol table
+     */
+    public SymbolTable getSymbolTable() {
+        return this.registers.toSymbolTable();
+    }
+
+    /**
+     * The register file slot of a program's variable.
+     *
+     * @param slot the slot the program was assembled with
+     * @return the slot in this context's register file
+     */
+    public int slot(int slot) {
+        return this.slots == null ? slot : this.slots[slot];
+    }
+
+    /**
+     * The register file slot of each program slot.
+     *
+     * @return the slots, or null if they are the same
+     */
+    int[] getSlots() {
+        return this.slots;
+    }
+
+    /**
+     * Bind this context to a program, by relocating each of the program's
+     * variables to this context's slot for the same name.
+     *
+     * @param variables the variable name of each slot the program was
+     *                  assembled with
+     * @return this context if every variable already has the same slot, or
+     *         a view of the same stack and register file that relocates them
+     */
+    Context bind(List<String> variables) {
+        int first = 0;
+        while (first < variables.size() && this.registers.slot(variables.get(first)) == first) {
+            first++;
+        }
+        if (first == variables.size()) {
+            return this;
+        }
+        int[] relocated = new int[variables.size()];
+        for (int slot = 0; slot < relocated.length; slot++) {
+            relocated[slot] = slot < first ? slot : this.registers.slot(variables.get(slot));
+        }
+        return new Context(this.stack, this.registers, this.out, relocated);
+    }
+}
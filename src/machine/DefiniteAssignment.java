@@ -0,0 +1,69 @@
+package machine;
+
+import common.Errors;
+import common.RuntimeFault;
+import machine.instructions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A forward dataflow pass that finds which LOADs always follow a STORE to
+ * the same variable.  MAQ programs have no jumps, so every LOAD is either
+ * always preceded by a STORE or never is: the first kind are rewritten into
+ * loads that skip the uninitialized variable check, and the second kind
+ * keep the check.  A LOAD of a variable that is never stored, reached before
+ * any instruction that could fault, is certain to fault, so the program is
+ * rejected before it runs.  Only the program's own stores prove a load, so
+ * the rewritten program can be run against any context; a load of a variable
+ * the machine already holds is not rejected, but keeps its check.
+ *
+ * @author Tiffany Lee
+ */
+public class DefiniteAssignment {
+    /**
+     * Analyze a program and rewrite its proven loads.
+     *
+     * @param code the assembled instructions, in program order
+     * @param machine the machine the program runs on; loads of variables it
+     *                already holds are not rejected
+     * @param lines the source line of each instruction, or an empty list
+     *              if the lines are not known
+     * @return the program with proven loads unchecked
+     * @throws RuntimeFault if the program is certain to read an uninitialized
+     *                      variable, with the variable, the instruction index
+     *                      and the line when it is known
+     */
+    public static List<Instruction> apply(List<Instruction> code, Maquina machine, List<Integer> lines) {
+        RegisterFile registers = machine.getRegisters();
+        boolean[] stored = new boolean[registers.slots()];
+        boolean[] held = new boolean[registers.slots()];
+        for (int slot = 0; slot < held.length; slot++) {
+            held[slot] = registers.has(slot);
+        }
+        // whether an earlier instruction might have faulted first
+        boolean faulted = false;
+        List<Instruction> result = new ArrayList<>(code.size());
+        for (int i = 0; i < code.size(); i++) {
+            Instruction instruction = code.get(i);
+            if (instruction instanceof Store store) {
+                stored[registers.slot(store.getName())] = true;
+            } else if (instruction instanceof Load load) {
+                int slot = registers.slot(load.getName());
+                if (stored[slot]) {
+                    instruction = new Load(load.getName(), registers, false);
+                } else if (held[slot]) {
+                    // set now, but perhaps not in another context the program runs in
+                } else if (!faulted) {
+                    RuntimeFault fault = new RuntimeFault(Errors.Type.UNINITIALIZED, load.getName()).atInstruction(i);
+                    throw i < lines.size() ? fault.atLine(lines.get(i)) : fault;
+                }
+            } else if (instruction instanceof Divide || instruction instanceof Modulus
+                    || instruction instanceof SquareRoot) {
+                faulted = true;
+            }
+            result.add(instruction);
+        }
+        return result;
+    }
+}
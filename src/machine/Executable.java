@@ -0,0 +1,106 @@
+package machine;
+
+import common.RuntimeFault;
+import machine.instructions.Instruction;
+
+import java.util.List;
+
+/**
+ * An assembled MAQ program, ready to run.  It holds the instructions, their
+ * bytecode, and the variable name of each register slot they were assembled
+ * with, and nothing about any one run: the stack, the variables and the
+ * output all come from the Context passed to each run.  An Executable never
+ * changes once it is made, so it can be assembled once and then run any
+ * number of times, by any number of threads at once, each with its own
+ * context and its own preloaded variables.
+ *
+ * @author Tiffany Lee
+ */
+public class Executable {
+    /** the instructions, in program order */
+    private final List<Instruction> instructions;
+    /** the variable name of each slot the instructions were assembled with */
+    private final List<String> variables;
+    /** the compact form of the instructions */
+    private final Bytecode bytecode;
+
+    /**
+     * Make a program from assembled instructions.
+     *
+     * @param instructions the instructions, in program order
+     * @param registers the register file their variables were given slots in
+     */
+    public Executable(List<Instruction> instructions, RegisterFile registers) {
+        this(instructions, registers, Bytecode.lower(instructions));
+    }
+
+    /**
+     * Make a program from assembled instructions and their bytecode, which
+     * has been lowered, or verified, already.
+     *
+     * @param instructions the instructions, in program order
+     * @param registers the register file their variables were given slots in
+     * @param bytecode the bytecode of the instructions
+     */
+    Executable(List<Instruction> instructions, RegisterFile registers, Bytecode bytecode) {
+        this.instructions = List.copyOf(instructions);
+        this.variables = registers.names();
+        this.bytecode = bytecode;
+    }
+
+    /**
+     * Get the instructions.
+     *
+     * @return the instructions, in program order, which cannot be changed
+     */
+    public List<Instruction> getInstructions() {
+        return this.instructions;
+    }
+
+    /**
+     * Get the variable name of each slot the instructions were assembled with.
+     *
+     * @return the names, in slot order
+     */
+    public List<String> getVariables() {
+        return this.variables;
+    }
+
+    /**
+     * The most values the program adds to the stack at any point.
+     *
+     * @return the maximum stack depth
+     */
+    public int getMaxDepth() {
+        return this.bytecode.getMaxDepth();
+    }
+
+    /**
+     * Execute each instruction in order against a context.
+     *
+     * @param context the stack, variables and output of this run
+     * @throws RuntimeFault if an instruction faults, with its index
+     */
+    public void execute(Context context) {
+        Context bound = context.bind(this.variables);
+        bound.getStack().ensureCapacity(bound.getStack().size() + getMaxDepth());
+        for (int i = 0; i < this.instructions.size(); i++) {
+            try {
+                this.instructions.get(i).execute(bound);
+            } catch (RuntimeFault fault) {
+                throw fault.atInstruction(i);
+            }
+        }
+    }
+
+    /**
+     * Run the bytecode against a context.  The result is the same as
+     * execute().
+     *
+     * @param context the stack, variables and output of this run
+     * @throws RuntimeFault if an instruction faults, with its index
+     */
+    public void executeBytecode(Context context) {
+        this.bytecode.run(context.bind(this.variables));
+    }
+}
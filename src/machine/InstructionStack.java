@@ -1,23 +1,54 @@
 package machine;
 
-import java.util.LinkedList;
-import java.util.List;
+import common.Errors;
+
+import java.util.Arrays;
 
 /**
- * The machine's instruction stack for handling instructions.
+ * The machine's instruction stack for handling instructions.  The values are
+ * kept unboxed in a growable array, with the top of the stack at the end of
+ * the used portion, so that pushing and popping never allocate once the
+ * stack has grown to the program's working depth.
  *
  * @author RIT CS
  * @author Tiffany Lee
  */
 public class InstructionStack {
-    /** the stack is a list */
-    private final List<Integer> stack;
+    /** the default number of slots when no capacity hint is given */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** the stack values, bottom at index 0 */
+    private int[] stack;
+    /** the number of values currently on the stack */
+    private int size;
 
     /**
      * Create an empty stack.
      */
     public InstructionStack() {
-        this.stack = new LinkedList<>();
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty stack that can hold at least the given number of values
+     * before it needs to grow.
+     *
+     * @param capacity the expected maximum depth of the stack
+     */
+    public InstructionStack(int capacity) {
+        this.stack = new int[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    /**
+     * Make room for at least the given number of values, so that pushing up
+     * to that depth never has to grow the stack.
+     *
+     * @param capacity the expected maximum depth of the stack
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, capacity);
+        }
     }
 
     /**
@@ -25,26 +56,39 @@ public class InstructionStack {
      * @param value the value to push
      */
     public void push(int value) {
-        this.stack.add(0, value);
+        if (this.size == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+        }
+        this.stack[this.size++] = value;
     }
 
     /**
      * Remove and return the top value on the stack.
      * @return the previous top value
      */
-    public int pop() { return this.stack.remove(0); }
+    public int pop() {
+        if (this.size == 0) {
+            Errors.report(Errors.Type.STACK_UNDERFLOW);
+        }
+        return this.stack[--this.size];
+    }
 
     /**
      * Get the size of the stack.
      * @return the size of the stack
      */
-    public int size() { return this.stack.size(); }
+    public int size() { return this.size; }
 
     /**
      * Get the top value from the stack (without removing it).
      * @return the top value on the stack
      */
-    public int top() { return this.stack.get(0); }
+    public int top() {
+        if (this.size == 0) {
+            Errors.report(Errors.Type.STACK_UNDERFLOW);
+        }
+        return this.stack[this.size - 1];
+    }
 
     /**
      * Returns a string representation of the instruction set in the format:<br>
@@ -68,12 +112,12 @@ public class InstructionStack {
     @Override
     public String toString() {
         StringBuilder result = new StringBuilder("(MAQ) Instruction stack:" + System.lineSeparator());
-        if (this.stack.size() == 0) {
+        if (this.size == 0) {
             result.append('\t').append("EMPTY").append(System.lineSeparator());
         } else {
-            int i = 0;
-            for (Integer instr : this.stack) {
-                result.append('\t').append(i++).append(": ").append(instr).append(System.lineSeparator());
+            for (int i = 0; i < this.size; i++) {
+                result.append('\t').append(i).append(": ")
+                        .append(this.stack[this.size - 1 - i]).append(System.lineSeparator());
             }
         }
         return result.toString();
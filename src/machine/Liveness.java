@@ -0,0 +1,119 @@
+package machine;
+
+import machine.instructions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A backward liveness pass that finds the STOREs whose value is never
+ * observed: no LOAD reads the variable before it is stored again, and it is
+ * not needed in the final symbol table.  Such a STORE is removed along with
+ * the instructions that computed its value, as long as they form a
+ * self-contained expression that cannot fault, so the program prints the
+ * same values and faults at the same places.  STOREs fed by a DUP or SWAP,
+ * or by a computation that might fault, are kept.
+ *
+ * @author Tiffany Lee
+ */
+public class Liveness {
+    /**
+     * Find the instructions that are needed.
+     *
+     * @param code the assembled instructions, in program order
+     * @param machine the machine the program runs on; variables it already
+     *                holds count as stored
+     * @param keepSymbols if true, every variable keeps its first store and
+     *                    its last, so the final symbol table is exactly the
+     *                    same
+     * @return for each instruction, whether it is kept
+     */
+    public static boolean[] live(List<Instruction> code, Maquina machine, boolean keepSymbols) {
+        RegisterFile registers = machine.getRegisters();
+
+        // forward: which loads read a variable that is certain to be stored
+        // by then, and which stores are the first to their variable
+        boolean[] defined = new boolean[code.size()];
+        boolean[] first = new boolean[code.size()];
+        Set<String> stored = new HashSet<>();
+        for (int i = 0; i < code.size(); i++) {
+            if (code.get(i) instanceof Load load) {
+                defined[i] = stored.contains(load.getName()) || registers.has(registers.slot(load.getName()));
+            } else if (code.get(i) instanceof Store store) {
+                first[i] = stored.add(store.getName()) && !registers.has(registers.slot(store.getName()));
+            }
+        }
+
+        // backward: which variables are read before they are stored again
+        Set<String> live = new HashSet<>(keepSymbols ? stored : Set.of());
+        boolean[] kept = new boolean[code.size()];
+        for (int i = code.size() - 1; i >= 0; i--) {
+            Instruction instruction = code.get(i);
+            kept[i] = true;
+            if (instruction instanceof Store store) {
+                int start = live.contains(store.getName()) || (keepSymbols && first[i])
+                        ? -1 : expression(code, i, defined);
+                live.remove(store.getName());
+                if (start >= 0) {
+                    for (int j = start; j <= i; j++) {
+                        kept[j] = false;
+                    }
+                    i = start;
+                }
+            } else if (instruction instanceof Load load) {
+                live.add(load.getName());
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Find the instructions that compute the value a STORE pops, walking back
+     * from it and counting how many values are still needed.
+     *
+     * @param code the assembled instructions
+     * @param store the index of the STORE
+     * @param defined for each instruction, whether it is a LOAD that cannot
+     *                fault
+     * @return the index of the first instruction of the expression, or -1 if
+     *         the value is not computed by a self-contained expression that
+     *         cannot fault
+     */
+    private static int expression(List<Instruction> code, int store, boolean[] defined) {
+        int needed = 1;
+        for (int j = store - 1; j >= 0; j--) {
+            Instruction instruction = code.get(j);
+            int pops;
+            int pushes;
+            if (instruction instanceof Push || (instruction instanceof Load && defined[j])) {
+                pops = 0;
+                pushes = 1;
+            } else if (instruction instanceof Negate) {
+                pops = 1;
+                pushes = 1;
+            } else if (instruction instanceof Add || instruction instanceof Subtract
+                    || instruction instanceof Multiply) {
+                pops = 2;
+                pushes = 1;
+            } else if (instruction instanceof Duplicate) {
+                pops = 1;
+                pushes = 2;
+            } else if (instruction instanceof Swap) {
+                pops = 2;
+                pushes = 2;
+            } else {
+                return -1;
+            }
+            if (pushes > needed) {
+                // part of what it pushes is used by something else
+                return -1;
+            }
+            needed += pops - pushes;
+            if (needed == 0) {
+                return j;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,11 +1,19 @@
 package machine;
 
 import common.Errors;
+import common.ProgramCache;
+import common.RuntimeFault;
 import common.SymbolTable;
+import common.Tokenizer;
 import machine.instructions.*;
+import machine.optimizer.PeepholeOptimizer;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 
@@ -39,12 +47,17 @@ public class Maquina {
     public final static String DIVIDE = "DIV";
     /** the modulus instruction */
     public final static String MODULUS = "MOD";
+    /** the duplicate instruction */
+    public final static String DUPLICATE = "DUP";
+    /** the swap instruction */
+    public final static String SWAP = "SWAP";
 
     /** the list of valid machine instructions */
     public static final List< String > OPERATIONS =
             List.of(
                     ADD,
                     DIVIDE,
+                    DUPLICATE,
                     LOAD,
                     MODULUS,
                     MULTIPLY,
@@ -53,26 +66,73 @@ public class Maquina {
                     PRINT,
                     SQUARE_ROOT,
                     STORE,
-                    SUBTRACT
+                    SUBTRACT,
+                    SWAP
             );
 
     /** the terminating character when reading machine instructions from user (not file) */
     private final static String EOF = ".";
-    /** the table that maps the variable names to their integer values */
-    private static SymbolTable symbolTable;
+    /** the command line option that selects bytecode execution */
+    private final static String BYTECODE_OPTION = "-bytecode";
+    /** the command line option that runs the peephole optimizer */
+    private final static String OPTIMIZE_OPTION = "-optimize";
+    /** the command line option that verifies the program before running it */
+    private final static String VERIFY_OPTION = "-verify";
+    /** the command line option that removes stores whose value is never observed */
+    private final static String ELIMINATE_OPTION = "-eliminate";
+    /** the command line option that keeps every variable in the final symbol table */
+    private final static String KEEP_OPTION = "-keep";
+    /** the command line option that executes each instruction as soon as it is read */
+    private final static String STREAM_OPTION = "-stream";
+    /** the command line option that keeps assembled programs in a directory */
+    private final static String CACHE_OPTION = "-cache";
+    /** the slots that hold the variables' integer values */
+    private final RegisterFile registers;
     /** the stack for handling instructions */
-    private static InstructionStack instructionStack;
+    private final InstructionStack instructionStack;
+    /** where the machine's output goes */
+    private final PrintStream out;
+    /** the stack, register file and output, which the machine's programs run against */
+    private final Context context;
     /** the list of instructions that get assembled */
-    private static List<Instruction> instructionsList;
+    private List<Instruction> instructionsList;
+    /** the source line of each instruction, while they are still known */
+    private List<Integer> instructionLines;
+    /** the immutable form of the instructions, made on first use */
+    private Executable executable;
 
     /**
-     * Create a new machine, with an empty symbol table, instruction stack, and
-     * list of instructions.
+     * Create a new machine, with an empty register file, instruction stack, and
+     * list of instructions, that writes to standard output.
      */
     public Maquina() {
-        symbolTable = new SymbolTable();
-        instructionStack = new InstructionStack();
-        instructionsList = new ArrayList<>();
+        this(System.out);
+    }
+
+    /**
+     * Create a new machine, with an empty register file, instruction stack, and
+     * list of instructions.  Each machine owns all of its state, so separate
+     * machines can run on separate threads.
+     *
+     * @param out where the machine's output goes
+     */
+    public Maquina(PrintStream out) {
+        this.registers = new RegisterFile();
+        this.instructionStack = new InstructionStack();
+        this.out = out;
+        this.context = new Context(this.instructionStack, this.registers, out);
+        this.instructionsList = new ArrayList<>();
+        this.instructionLines = new ArrayList<>();
+        this.executable = null;
+    }
+
+    /**
+     * Return the context the machine's programs run against.
+     *
+     * @return the stack, register file and output
+     */
+    public Context getContext() {
+        return context;
     }
 
     /**
@@ -85,12 +145,32 @@ public class Maquina {
     }
 
     /**
-     * Return the symbol table.
+     * Return where the machine's output goes.
+     *
+     * @return the output stream
+     */
+    public PrintStream getOutput() {
+        return out;
+    }
+
+    /**
+     * Return the register file.  Variables named by STORE and LOAD instructions
+     * are interned into its slots as the instructions are assembled.
+     *
+     * @return the register file
+     */
+    public RegisterFile getRegisters() {
+        return registers;
+    }
+
+    /**
+     * Return the symbol table, built from the register file in the order the
+     * variables were first stored to.
      *
      * @return the symbol table
      */
     public SymbolTable getSymbolTable() {
-        return symbolTable;
+        return registers.toSymbolTable();
     }
 
 
@@ -99,93 +179,489 @@ public class Maquina {
      *
      * @param maqIn the input source
      * @param stdin true if input is coming from standard input (for prompting)
+     * @throws RuntimeFault if an instruction is illegal, with its line number
      */
     public void assemble(Scanner maqIn, boolean stdin) {
-        if (stdin) System.out.print("🤖 ");
-        loop: while (maqIn.hasNextLine()) {
-            if (stdin) System.out.print("🤖 ");
-            String[] instruction = maqIn.nextLine().strip().split("\\s+");
-            switch (instruction[0]) {
-                case PUSH -> {
-                    Push push = new Push(Integer.parseInt(instruction[1]), this);
-                    instructionsList.add(push);
-                } case PRINT -> {
-                    Print print = new Print(this);
-                    instructionsList.add(print);
-                } case STORE -> {
-                    Store store = new Store(instruction[1], this);
-                    instructionsList.add(store);
-                } case LOAD -> {
-                    Load load = new Load(instruction[1], this);
-                    instructionsList.add(load);
-                } case NEGATE -> {
-                    Negate neg = new Negate(this);
-                    instructionsList.add(neg);
-                } case SQUARE_ROOT -> {
-                    SquareRoot sqr = new SquareRoot(this);
-                    instructionsList.add(sqr);
-                } case ADD -> {
-                    Add add = new Add(this);
-                    instructionsList.add(add);
-                } case SUBTRACT -> {
-                    Subtract sub = new Subtract(this);
-                    instructionsList.add(sub);
-                } case MULTIPLY -> {
-                    Multiply mul = new Multiply(this);
-                    instructionsList.add(mul);
-                } case DIVIDE -> {
-                    Divide div = new Divide(this);
-                    instructionsList.add(div);
-                } case MODULUS -> {
-                    Modulus mod = new Modulus(this);
-                    instructionsList.add(mod);
-                } case EOF -> {
-                    break loop;
-                } default -> Errors.report(Errors.Type.ILLEGAL_INSTRUCTION, instruction[0]);
+        if (stdin) out.print("🤖 ");
+        StringBuilder source = new StringBuilder();
+        while (maqIn.hasNextLine()) {
+            if (stdin) out.print("🤖 ");
+            String line = maqIn.nextLine();
+            source.append(line).append('\n');
+            if (line.strip().split("\\s+")[0].equals(EOF)) break;
+        }
+        assemble(new Tokenizer(source.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Assemble the machine instructions from source already in memory, such
+     * as a file read by Tokenizer.read(), without making a String of each
+     * line or token.  Instruction names and variables are interned, and PUSH
+     * operands are parsed straight from the bytes.
+     *
+     * @param source the input source, before its first line
+     * @throws RuntimeFault if an instruction is illegal, with its line number
+     */
+    public void assemble(Tokenizer source) {
+        while (source.nextLine()) {
+            Instruction instruction = decode(source);
+            if (instruction == null) {
+                break;
+            }
+            instructionsList.add(instruction);
+            instructionLines.add(source.line());
+        }
+        executable = null;
+        out.println("(MAQ) Machine instructions:");
+        instructionsList.forEach(out::println);
+    }
+
+    /**
+     * Assemble the machine instructions from source already in memory, unless
+     * the same source has been assembled before and its program is in the
+     * cache, in which case that program is used as it is.  A newly assembled
+     * program is put in the cache before any optimize(), eliminate() or
+     * verify(), which apply to this machine's copy of it either way.  Like a
+     * loaded object file, a cached program has no source lines.
+     *
+     * @param source the input source
+     * @param cache the programs assembled before, by the hash of their source
+     * @throws RuntimeFault if an instruction is illegal, with its line number
+     */
+    public void assemble(byte[] source, ProgramCache<Executable> cache) {
+        String key = ProgramCache.key(source);
+        Executable program = cache.get(key);
+        if (program != null) {
+            assemble(program);
+        } else {
+            assemble(new Tokenizer(source));
+            cache.put(key, link());
+        }
+    }
+
+    /**
+     * Use a program that was assembled before, possibly by another machine,
+     * and display its instructions.  Its variables are given slots in this
+     * machine's register file; if any of them already had a different slot,
+     * its LOAD and STORE instructions are made again for this machine.
+     *
+     * @param program the program
+     */
+    public void assemble(Executable program) {
+        List<String> variables = program.getVariables();
+        boolean same = true;
+        for (int slot = 0; slot < variables.size(); slot++) {
+            same &= registers.slot(variables.get(slot)) == slot;
+        }
+        instructionsList = new ArrayList<>(program.getInstructions().size());
+        for (Instruction instruction : program.getInstructions()) {
+            if (same) {
+                instructionsList.add(instruction);
+            } else if (instruction instanceof Load load) {
+                instructionsList.add(new Load(load.getName(), registers, load.isChecked()));
+            } else if (instruction instanceof Store store) {
+                instructionsList.add(new Store(store.getName(), registers));
+            } else {
+                instructionsList.add(instruction);
+            }
+        }
+        instructionLines = new ArrayList<>();
+        executable = same ? program : null;
+        instructionStack.ensureCapacity(instructionStack.size() + program.getMaxDepth());
+        out.println("(MAQ) Machine instructions:");
+        instructionsList.forEach(out::println);
+    }
+
+    /**
+     * Assemble and execute the machine instructions a line at a time, as
+     * they are read.  Each instruction runs as soon as it is decoded and is
+     * then dropped, so no listing is built and only the stack and the
+     * variables are held in memory, however long the program is.  When the
+     * input is interactive, the machine prompts for each line and answers it
+     * before reading the next.
+     *
+     * @param source the input source, before its first line
+     * @param stdin true if input is coming from standard input (for prompting)
+     * @throws RuntimeFault if an instruction is illegal or faults, with its
+     *                      index and line number
+     */
+    public void stream(Tokenizer source, boolean stdin) {
+        out.println("(MAQ) Executing...");
+        int index = 0;
+        while (true) {
+            if (stdin) out.print("🤖 ");
+            if (!source.nextLine()) {
+                break;
             }
+            Instruction instruction = decode(source);
+            if (instruction == null) {
+                break;
+            }
+            try {
+                instruction.execute(context);
+            } catch (RuntimeFault fault) {
+                throw fault.atInstruction(index).atLine(source.line());
+            }
+            index++;
         }
-        System.out.println("(MAQ) Machine instructions:");
-        instructionsList.forEach(System.out::println);
+
+        out.println("(MAQ) Completed execution!");
+        out.println("(MAQ) Symbol table:");
+        out.println(getSymbolTable().toString() + instructionStack.toString());
+    }
+
+    /**
+     * Decode the instruction on the current line.
+     *
+     * @param source the input source, at the start of a line
+     * @return the instruction, or null if the line is the terminating "."
+     * @throws RuntimeFault if the instruction is illegal, with its line number
+     */
+    private Instruction decode(Tokenizer source) {
+        String operation = source.next() ? source.name() : "";
+        switch (operation) {
+            case PUSH -> {
+                operand(source, operation);
+                try {
+                    return new Push(source.intValue());
+                } catch (NumberFormatException e) {
+                    throw new RuntimeFault(Errors.Type.ILLEGAL_INSTRUCTION, operation + " " + source.text())
+                            .atLine(source.line());
+                }
+            } case STORE -> {
+                operand(source, operation);
+                return new Store(source.name(), registers);
+            } case LOAD -> {
+                operand(source, operation);
+                return new Load(source.name(), registers);
+            } case EOF -> {
+                return null;
+            } default -> {
+                Instruction instruction = Instructions.operation(operation);
+                if (instruction == null) {
+                    throw new RuntimeFault(Errors.Type.ILLEGAL_INSTRUCTION, operation).atLine(source.line());
+                }
+                return instruction;
+            }
+        }
+    }
+
+    /**
+     * Move to the operand of an instruction.
+     *
+     * @param source the input source, at the instruction
+     * @param operation the instruction
+     * @throws RuntimeFault if the instruction has no operand on its line
+     */
+    private static void operand(Tokenizer source, String operation) {
+        if (!source.next()) {
+            throw new RuntimeFault(Errors.Type.ILLEGAL_INSTRUCTION, operation).atLine(source.line());
+        }
+    }
+
+    /**
+     * Assemble an in-memory program, such as one compiled from ARB, without
+     * going through MAQ text.  The instruction stack is sized up front to the
+     * program's maximum depth, so it never grows while the program runs.
+     *
+     * @param program the program to run
+     */
+    public void assemble(Program program) {
+        instructionsList = new ArrayList<>(program.getInstructions());
+        instructionLines = new ArrayList<>();
+        instructionStack.ensureCapacity(instructionStack.size() + program.getMaxDepth());
+        executable = null;
+        out.println("(MAQ) Machine instructions:");
+        instructionsList.forEach(out::println);
+    }
+
+    /**
+     * Load a program from a binary object file, in place of assembling MAQ
+     * text.  The file is memory-mapped and its code is used as the bytecode
+     * directly, so nothing is parsed.
+     *
+     * @param path the object file
+     * @throws IOException if the file cannot be read or is not a valid
+     *                     object file
+     */
+    public void load(Path path) throws IOException {
+        ObjectFile.Loaded loaded = ObjectFile.load(path, this);
+        instructionsList = loaded.instructions();
+        instructionLines = new ArrayList<>();
+        executable = new Executable(instructionsList, registers, loaded.bytecode());
+        instructionStack.ensureCapacity(instructionStack.size() + executable.getMaxDepth());
+        out.println("(MAQ) Machine instructions:");
+        instructionsList.forEach(out::println);
+    }
+
+    /**
+     * Write the assembled program to a binary object file, which load() can
+     * run without assembling it again.
+     *
+     * @param path the object file to write
+     * @throws IOException if there are issues writing the file
+     */
+    public void writeObject(Path path) throws IOException {
+        ObjectFile.write(instructionsList, registers, path);
+    }
+
+    /**
+     * Rewrite the assembled instructions with the default peephole rules and
+     * display the optimized instructions.
+     *
+     * @return the number of instructions removed
+     */
+    public int optimize() {
+        int before = instructionsList.size();
+        instructionsList = new PeepholeOptimizer().optimize(instructionsList);
+        instructionLines = new ArrayList<>();
+        executable = null;
+        int removed = before - instructionsList.size();
+        out.println("(MAQ) Optimized machine instructions (" + removed + " removed):");
+        instructionsList.forEach(out::println);
+        return removed;
+    }
+
+    /**
+     * Remove the stores whose value is never observed, and the instructions
+     * that computed it, with a Liveness pass, and display the remaining
+     * instructions.  Without keepSymbols, a variable that is only stored to
+     * is left out of the final symbol table.
+     *
+     * @param keepSymbols if true, the final symbol table is exactly the same
+     * @return the number of instructions removed
+     */
+    public int eliminate(boolean keepSymbols) {
+        boolean[] kept = Liveness.live(instructionsList, this, keepSymbols);
+        List<Instruction> instructions = new ArrayList<>();
+        List<Integer> lines = new ArrayList<>();
+        for (int i = 0; i < kept.length; i++) {
+            if (kept[i]) {
+                instructions.add(instructionsList.get(i));
+                if (i < instructionLines.size()) {
+                    lines.add(instructionLines.get(i));
+                }
+            }
+        }
+        int removed = instructionsList.size() - instructions.size();
+        instructionsList = instructions;
+        instructionLines = lines;
+        executable = null;
+        out.println("(MAQ) Live machine instructions (" + removed + " removed):");
+        instructionsList.forEach(out::println);
+        return removed;
+    }
+
+    /**
+     * Verify the assembled program before it runs, by following the stack
+     * height through every instruction, and then which variables have been
+     * stored to.  A program that would underflow, or that is certain to load
+     * a variable that was never stored, is rejected before any of it runs.
+     * A verified program is run by executeBytecode() without checking for
+     * underflow on each instruction, its loads of variables that it always
+     * stores first skip the uninitialized check, and the instruction stack is
+     * sized up front to the program's exact maximum depth.
+     *
+     * @return the maximum stack depth
+     * @throws RuntimeFault if an instruction would underflow, with its index,
+     *                      or would load an uninitialized variable, with the
+     *                      variable, its index and its line
+     */
+    public int verify() {
+        Bytecode.lower(instructionsList).verify();
+        instructionsList = DefiniteAssignment.apply(instructionsList, this, instructionLines);
+        Bytecode bytecode = Bytecode.lower(instructionsList).verify();
+        executable = new Executable(instructionsList, registers, bytecode);
+        instructionStack.ensureCapacity(instructionStack.size() + bytecode.getMaxDepth());
+        out.println("(MAQ) Verified, maximum stack depth: " + bytecode.getMaxDepth());
+        return bytecode.getMaxDepth();
+    }
+
+    /**
+     * Make the assembled program into an Executable, which can be run any
+     * number of times, against this machine or any other context, without
+     * being assembled again.  The same Executable is returned until the
+     * program is changed.
+     *
+     * @return the program
+     */
+    public Executable link() {
+        if (executable == null) {
+            executable = new Executable(instructionsList, registers);
+        }
+        return executable;
     }
 
     /**
      * Executes each assembled machine instruction in order.  When completed it
      * displays the symbol table and the instruction stack.
+     *
+     * @throws RuntimeFault if an instruction faults, with its index
      */
     public void execute() {
-        System.out.println("(MAQ) Executing...");
-        instructionsList.forEach(Instruction::execute);
+        execute(link());
+    }
 
-        System.out.println("(MAQ) Completed execution!");
-        System.out.println("(MAQ) Symbol table:");
-        System.out.println(symbolTable.toString() + instructionStack.toString());
+    /**
+     * Executes each instruction of a program in order, against this machine's
+     * stack and variables.  The program may have been assembled by another
+     * machine.  When completed it displays the symbol table and the
+     * instruction stack.
+     *
+     * @param program the program to run
+     * @throws RuntimeFault if an instruction faults, with its index
+     */
+    public void execute(Executable program) {
+        out.println("(MAQ) Executing...");
+        program.execute(context);
+
+        out.println("(MAQ) Completed execution!");
+        out.println("(MAQ) Symbol table:");
+        out.println(getSymbolTable().toString() + instructionStack.toString());
+    }
+
+    /**
+     * Lowers the assembled instructions into compact bytecode and runs them
+     * with a single dispatch loop.  The output is the same as execute().
+     *
+     * @throws RuntimeFault if an instruction faults, with its index
+     */
+    public void executeBytecode() {
+        executeBytecode(link());
+    }
+
+    /**
+     * Runs the bytecode of a program against this machine's stack and
+     * variables.  The output is the same as execute(program).
+     *
+     * @param program the program to run
+     * @throws RuntimeFault if an instruction faults, with its index
+     */
+    public void executeBytecode(Executable program) {
+        out.println("(MAQ) Executing...");
+        program.executeBytecode(context);
+
+        out.println("(MAQ) Completed execution!");
+        out.println("(MAQ) Symbol table:");
+        out.println(getSymbolTable().toString() + instructionStack.toString());
+    }
+
+    /**
+     * Stream a MAQ program from a file or standard input, executing each
+     * instruction as it is read.
+     *
+     * @param file the MAQ file, or null to read standard input
+     * @throws IOException if the file cannot be read
+     */
+    private static void stream(Path file) throws IOException {
+        try (InputStream in = file == null ? System.in : Files.newInputStream(file)) {
+            // only prompt a person at a terminal, not input piped in
+            new Maquina().stream(new Tokenizer(in), file == null && System.console() != null);
+        } catch (RuntimeFault fault) {
+            Errors.exit(fault);
+        }
     }
 
     /**
      * The main method.  Machine instructions can either be specified from standard input
-     * (no command line), or from a file (only argument on command line).  From
-     * here the machine assembles the instructions and then executes them.
+     * (no file on the command line), or from a file (last argument on command line).  From
+     * here the machine assembles the instructions and then executes them.  A file ending
+     * in .maqo is loaded as a binary object file instead of being assembled.  Options
+     * may come before the file: -optimize runs the peephole optimizer after assembly,
+     * -eliminate removes stores whose value is never observed (with -keep, every
+     * variable still appears in the final symbol table), -verify checks the program
+     * cannot underflow before running it, and -bytecode executes the instructions in
+     * compact bytecode form.  With -cache directory, the assembled program is kept in
+     * the directory as an object file, and used in place of assembling the same source
+     * again.  With -stream, each instruction executes as soon as it is read, and no
+     * other option is allowed.
      *
      * @param args command line argument (optional)
-     * @throws FileNotFoundException if the machine file is not found
+     * @throws IOException if the machine file is not found or cannot be loaded
      */
-    public static void main(String[] args) throws FileNotFoundException {
+    public static void main(String[] args) throws IOException {
         // determine input source
         Scanner maqIn = null;
         boolean stdin = false;
-        if (args.length == 0) {
+        boolean bytecode = false;
+        boolean optimize = false;
+        boolean verify = false;
+        boolean eliminate = false;
+        boolean keep = false;
+        boolean stream = false;
+        String cache = null;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(CACHE_OPTION) && i + 1 < args.length) {
+                cache = args[++i];
+                continue;
+            }
+            switch (args[i]) {
+                case BYTECODE_OPTION -> bytecode = true;
+                case OPTIMIZE_OPTION -> optimize = true;
+                case VERIFY_OPTION -> verify = true;
+                case ELIMINATE_OPTION -> eliminate = true;
+                case KEEP_OPTION -> keep = true;
+                case STREAM_OPTION -> stream = true;
+                default -> files.add(args[i]);
+            }
+        }
+        if (files.size() == 0 && !stream) {
             maqIn = new Scanner(System.in);
             stdin = true;
-        } else if (args.length == 1){
-            maqIn = new Scanner(new File(args[0]));
-        } else {
-            System.out.println("Usage: java Maquina [filename.maq]");
+        }
+        boolean object = files.size() == 1 && files.get(0).endsWith(ObjectFile.EXTENSION);
+        if (files.size() > 1 || (stream && (optimize || eliminate || keep || verify || bytecode || object))
+                || (cache != null && (stream || stdin || object))) {
+            System.out.println("Usage: java Maquina [" + OPTIMIZE_OPTION + "] [" + ELIMINATE_OPTION + "] [" +
+                    KEEP_OPTION + "] [" + VERIFY_OPTION + "] [" + BYTECODE_OPTION + "] [filename.maq | filename" +
+                    ObjectFile.EXTENSION + "]");
+            System.out.println("       java Maquina [" + OPTIMIZE_OPTION + "] [" + ELIMINATE_OPTION + "] [" +
+                    KEEP_OPTION + "] [" + VERIFY_OPTION + "] [" + BYTECODE_OPTION + "] " + CACHE_OPTION +
+                    " directory filename.maq");
+            System.out.println("       java Maquina " + STREAM_OPTION + " [filename.maq]");
             System.exit(1);
         }
+        if (stream) {
+            stream(files.isEmpty() ? null : Path.of(files.get(0)));
+            return;
+        }
 
         Maquina machine = new Maquina();
-        machine.assemble(maqIn, stdin);     // assemble the machine instructions
-        machine.execute();                  // execute the program
-        maqIn.close();
+        try {
+            if (stdin) {
+                machine.assemble(maqIn, true);      // assemble the machine instructions
+            } else if (object) {
+                machine.load(Path.of(files.get(0)));    // load the object file
+            } else if (cache != null) {
+                machine.assemble(Files.readAllBytes(Path.of(files.get(0))), new ProgramCache<>(
+                        ProgramCache.DEFAULT_CAPACITY, Path.of(cache), ObjectFile.CODEC));  // assemble unless cached
+            } else {
+                machine.assemble(Tokenizer.read(Path.of(files.get(0))));  // assemble the file's bytes
+            }
+            if (optimize) {
+                machine.optimize();             // rewrite with the peephole rules
+            }
+            if (eliminate) {
+                machine.eliminate(keep);        // remove stores that are never read
+            }
+            if (verify) {
+                try {
+                    machine.verify();           // reject programs that would underflow
+                } catch (RuntimeFault fault) {
+                    Errors.reject(fault);
+                }
+            }
+            if (bytecode) {
+                machine.executeBytecode();      // execute the lowered program
+            } else {
+                machine.execute();              // execute the program
+            }
+        } catch (RuntimeFault fault) {
+            Errors.exit(fault);
+        }
+        if (maqIn != null) {
+            maqIn.close();
+        }
     }
 }
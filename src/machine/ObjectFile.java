@@ -0,0 +1,267 @@
+package machine;
+
+import common.Errors;
+import common.ProgramCache;
+import common.RuntimeFault;
+import machine.instructions.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * The binary object form of an assembled MAQ program, which loads without
+ * parsing any text.  The text .maq format stays the source format; an object
+ * file is made from an assembled program and can be run in its place.  All
+ * ints are big-endian.
+ * <pre>
+ *     header:  magic "MAQO", format version, number of names,
+ *              number of instructions, number of code ints
+ *     names:   for each variable, its UTF-8 length and bytes
+ *     code:    the Bytecode opcodes and inline operands, where the operand
+ *              of LOAD and STORE is an index into the names
+ * </pre>
+ * Every LOAD is written with its uninitialized check, since which loads can
+ * skip it depends on the variables set where the program runs; a LOAD_DEFINED
+ * read from a file is loaded as a checked LOAD.
+ * The loader memory-maps the file, interns each name into the machine's
+ * register file once, and rebuilds the instructions and their bytecode
+ * straight from the code ints.
+ *
+ * Usage: java machine.ObjectFile filename.maq filename.maqo
+ *
+ * @author Tiffany Lee
+ */
+public class ObjectFile {
+    /** the extension of object files */
+    public final static String EXTENSION = ".maqo";
+    /** the first four bytes of every object file, "MAQO" */
+    private final static int MAGIC = 0x4D41514F;
+    /** the version of the format written by this class */
+    private final static int VERSION = 1;
+    /** how a ProgramCache writes assembled programs to its directory, as object files */
+    public final static ProgramCache.Codec<Executable> CODEC = new ProgramCache.Codec<>() {
+        @Override
+        public String extension() {
+            return EXTENSION;
+        }
+
+        @Override
+        public Executable read(Path path) throws IOException {
+            return ObjectFile.read(path);
+        }
+
+        @Override
+        public void write(Executable program, Path path) throws IOException {
+            ObjectFile.write(program, path);
+        }
+    };
+
+    /**
+     * Write an assembled program as an object file.
+     *
+     * @param instructions the assembled instructions, in program order
+     * @param registers the register file their variables are interned in
+     * @param path the object file to write
+     * @throws IOException if there are issues writing the file
+     */
+    public static void write(List<Instruction> instructions, RegisterFile registers, Path path) throws IOException {
+        write(instructions, registers.names(), path);
+    }
+
+    /**
+     * Write a linked program as an object file.
+     *
+     * @param program the program
+     * @param path the object file to write
+     * @throws IOException if there are issues writing the file
+     */
+    public static void write(Executable program, Path path) throws IOException {
+        write(program.getInstructions(), program.getVariables(), path);
+    }
+
+    /**
+     * Write instructions as an object file.
+     *
+     * @param instructions the assembled instructions, in program order
+     * @param variables the variable name of each slot they were assembled with
+     * @param path the object file to write
+     * @throws IOException if there are issues writing the file
+     */
+    private static void write(List<Instruction> instructions, List<String> variables, Path path) throws IOException {
+        int[] code = Bytecode.lower(instructions).getCode();
+        for (int pc = 0; pc < code.length; pc += 1 + Bytecode.operands(code[pc])) {
+            if (code[pc] == Bytecode.LOAD_DEFINED) {
+                code[pc] = Bytecode.LOAD;
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(variables.size());
+            out.writeInt(instructions.size());
+            out.writeInt(code.length);
+            for (String variable : variables) {
+                byte[] name = variable.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+            }
+            for (int value : code) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    /**
+     * Load an object file for a machine to run.
+     *
+     * @param path the object file
+     * @param machine the machine whose register file the variables are
+     *                interned into
+     * @return the bytecode, along with the instructions it was lowered from
+     * @throws IOException if the file cannot be read or is not a valid
+     *                     object file
+     */
+    public static Loaded load(Path path, Maquina machine) throws IOException {
+        return load(path, machine.getRegisters());
+    }
+
+    /**
+     * Load an object file as a program that can be run against any context.
+     *
+     * @param path the object file
+     * @return the program
+     * @throws IOException if the file cannot be read or is not a valid
+     *                     object file
+     */
+    public static Executable read(Path path) throws IOException {
+        RegisterFile registers = new RegisterFile();
+        Loaded loaded = load(path, registers);
+        return new Executable(loaded.instructions(), registers, loaded.bytecode());
+    }
+
+    /**
+     * Load an object file, interning its variables into a register file.
+     *
+     * @param path the object file
+     * @param registers the register file the variables are interned into
+     * @return the bytecode, along with the instructions it was lowered from
+     * @throws IOException if the file cannot be read or is not a valid
+     *                     object file
+     */
+    private static Loaded load(Path path, RegisterFile registers) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 20 || buffer.getInt() != MAGIC) {
+                throw new IOException(path + " is not a MAQ object file");
+            }
+            if (buffer.getInt() != VERSION) {
+                throw new IOException(path + " has an unsupported object file version");
+            }
+            int names = buffer.getInt();
+            int count = buffer.getInt();
+            int length = buffer.getInt();
+            // every name takes at least its length, and every instruction at least its opcode
+            if (names < 0 || names > buffer.remaining() / Integer.BYTES) {
+                throw new IOException(path + " has an illegal number of names " + names);
+            }
+            if (length < 0 || length > buffer.remaining() / Integer.BYTES) {
+                throw new IOException(path + " has an illegal code length " + length);
+            }
+            if (count < 0 || count > length) {
+                throw new IOException(path + " has an illegal number of instructions " + count);
+            }
+
+            // intern every name once, so the code refers to slots directly
+            int[] slots = new int[names];
+            String[] variables = new String[names];
+            for (int i = 0; i < names; i++) {
+                int size = buffer.getInt();
+                if (size < 0 || size > buffer.remaining()) {
+                    throw new IOException(path + " has an illegal name length " + size);
+                }
+                byte[] name = new byte[size];
+                buffer.get(name);
+                variables[i] = new String(name, StandardCharsets.UTF_8);
+                slots[i] = registers.slot(variables[i]);
+            }
+
+            Bytecode.Builder code = new Bytecode.Builder();
+            List<Instruction> instructions = new ArrayList<>(count);
+            for (int pc = 0; pc < length; pc++) {
+                int opcode = buffer.getInt();
+                if (!Bytecode.isOpcode(opcode)) {
+                    throw new IOException(path + " has an illegal opcode " + opcode);
+                }
+                if (opcode == Bytecode.LOAD_DEFINED) {
+                    // no file is trusted to say which variables are set
+                    opcode = Bytecode.LOAD;
+                }
+                if (Bytecode.operands(opcode) == 0) {
+                    code.emit(opcode);
+                    instructions.add(Instructions.operation(Bytecode.name(opcode)));
+                    continue;
+                }
+                int operand = buffer.getInt();
+                pc++;
+                if (opcode == Bytecode.PUSH) {
+                    code.emit(opcode, operand);
+                    instructions.add(new Push(operand));
+                } else if (operand < 0 || operand >= names) {
+                    throw new IOException(path + " has an illegal name index " + operand);
+                } else {
+                    code.emit(opcode, slots[operand]);
+                    instructions.add(opcode == Bytecode.STORE ? new Store(variables[operand], registers)
+                            : new Load(variables[operand], registers));
+                }
+            }
+            if (instructions.size() != count) {
+                throw new IOException(path + " has " + instructions.size() + " instructions, not " + count);
+            }
+            return new Loaded(instructions, code.build());
+        } catch (BufferUnderflowException e) {
+            throw new IOException(path + " is truncated");
+        }
+    }
+
+    /**
+     * A loaded object file.
+     *
+     * @param instructions the instructions, in program order
+     * @param bytecode the bytecode, with its operands referring to the
+     *                 machine's register file
+     */
+    public record Loaded(List<Instruction> instructions, Bytecode bytecode) {}
+
+    /**
+     * Convert a MAQ text program into an object file.
+     *
+     * @param args the MAQ file and the object file to write
+     * @throws IOException if there are issues reading or writing the files
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java ObjectFile filename.maq filename" + EXTENSION);
+            System.exit(1);
+        }
+        Maquina machine = new Maquina(new PrintStream(OutputStream.nullOutputStream()));
+        try (Scanner in = new Scanner(Path.of(args[0]))) {
+            machine.assemble(in, false);
+        } catch (RuntimeFault fault) {
+            Errors.exit(fault);
+        }
+        machine.writeObject(Path.of(args[1]));
+    }
+}
@@ -0,0 +1,137 @@
+package machine;
+
+import common.Errors;
+import machine.instructions.*;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An in-memory MAQ program for a machine.  The ARB compiler appends
+ * instructions to it directly, so that the machine can run a compiled program
+ * without writing and re-reading MAQ text.  The text form can still be
+ * exported with write().
+ *
+ * @author Tiffany Lee
+ */
+public class Program {
+    /** the machine the instructions are created for */
+    private final Maquina machine;
+    /** the instructions, in program order */
+    private final List<Instruction> instructions;
+    /** the number of values on the stack after the last instruction */
+    private int depth;
+    /** the most values on the stack after any instruction */
+    private int maxDepth;
+
+    /**
+     * Create an empty program.
+     *
+     * @param machine the machine that will run the program
+     */
+    public Program(Maquina machine) {
+        this.machine = machine;
+        this.instructions = new ArrayList<>();
+        this.depth = 0;
+        this.maxDepth = 0;
+    }
+
+    /**
+     * Track the stack depth after appending an instruction.
+     *
+     * @param change the number of values the instruction adds to the stack,
+     *               negative if it removes them
+     */
+    private void grow(int change) {
+        this.depth += change;
+        this.maxDepth = Math.max(this.maxDepth, this.depth);
+    }
+
+    /**
+     * The most values the program has on its stack at once, so that the
+     * machine can size its stack before running it.
+     *
+     * @return the maximum stack depth
+     */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Append a PUSH instruction.
+     *
+     * @param value the value to push
+     */
+    public void push(int value) {
+        this.instructions.add(new Push(value));
+        grow(1);
+    }
+
+    /**
+     * Append a LOAD instruction.
+     *
+     * @param name the variable name
+     */
+    public void load(String name) {
+        this.instructions.add(new Load(name, this.machine.getRegisters()));
+        grow(1);
+    }
+
+    /**
+     * Append a STORE instruction.
+     *
+     * @param name the variable name
+     */
+    public void store(String name) {
+        this.instructions.add(new Store(name, this.machine.getRegisters()));
+        grow(-1);
+    }
+
+    /**
+     * Append a STORE instruction to a compiler temporary, which the machine
+     * leaves out of its symbol table.
+     *
+     * @param name the temporary name
+     */
+    public void storeTemporary(String name) {
+        this.machine.getRegisters().temporary(name);
+        store(name);
+    }
+
+    /**
+     * Append an instruction that has no operand.
+     *
+     * @param operation the instruction name, e.g. Maquina.ADD
+     */
+    public void add(String operation) {
+        Instruction instruction = Instructions.operation(operation);
+        if (instruction == null) {
+            Errors.report(Errors.Type.ILLEGAL_INSTRUCTION, operation);
+        }
+        this.instructions.add(instruction);
+        grow(switch (operation) {
+            case Maquina.NEGATE, Maquina.SQUARE_ROOT, Maquina.SWAP -> 0;
+            case Maquina.DUPLICATE -> 1;
+            default -> -1;
+        });
+    }
+
+    /**
+     * Get the instructions.
+     *
+     * @return the instructions, in program order
+     */
+    public List<Instruction> getInstructions() {
+        return this.instructions;
+    }
+
+    /**
+     * Write the program in MAQ text form, one instruction per line.
+     *
+     * @param out the stream to write output to using out.println()
+     */
+    public void write(PrintWriter out) {
+        this.instructions.forEach(out::println);
+    }
+}
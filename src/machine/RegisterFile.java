@@ -0,0 +1,174 @@
+package machine;
+
+import common.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The machine's variables, held in an int array indexed by slot number.
+ * Each variable named by a STORE or LOAD is interned to a dense slot when the
+ * program is assembled, so that at run time the instructions read and write
+ * the array without hashing the name.  The ordered symbol table view is only
+ * built when it is asked for, and leaves out the slots of the temporaries
+ * the ARB compiler makes for shared subexpressions.
+ *
+ * @author Tiffany Lee
+ */
+public class RegisterFile {
+    /** the slot number assigned to each variable name */
+    private final Map<String, Integer> slots;
+    /** the variable names, in slot order */
+    private final List<String> names;
+    /** the value of each slot */
+    private int[] values;
+    /** whether each slot has been stored to */
+    private boolean[] defined;
+    /** whether each slot is a compiler temporary */
+    private boolean[] hidden;
+    /** the slots in the order they were first stored to */
+    private int[] order;
+    /** the number of slots that have been stored to */
+    private int defines;
+
+    /**
+     * Create an empty register file.
+     */
+    public RegisterFile() {
+        this.slots = new HashMap<>();
+        this.names = new ArrayList<>();
+        this.values = new int[8];
+        this.defined = new boolean[8];
+        this.hidden = new boolean[8];
+        this.order = new int[8];
+        this.defines = 0;
+    }
+
+    /**
+     * Get the slot for a variable, assigning the next free slot the first
+     * time the name is seen.
+     *
+     * @param name the variable name
+     * @return the slot index
+     */
+    public int slot(String name) {
+        Integer slot = this.slots.get(name);
+        if (slot == null) {
+            slot = this.names.size();
+            this.slots.put(name, slot);
+            this.names.add(name);
+            if (slot == this.values.length) {
+                int capacity = this.values.length * 2;
+                this.values = Arrays.copyOf(this.values, capacity);
+                this.defined = Arrays.copyOf(this.defined, capacity);
+                this.hidden = Arrays.copyOf(this.hidden, capacity);
+                this.order = Arrays.copyOf(this.order, capacity);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Get the slot for a compiler temporary, which the symbol table view
+     * leaves out, assigning the next free slot the first time the name is
+     * seen.
+     *
+     * @param name the temporary name
+     * @return the slot index
+     */
+    public int temporary(String name) {
+        int slot = slot(name);
+        this.hidden[slot] = true;
+        return slot;
+    }
+
+    /**
+     * The variable name of a slot.
+     *
+     * @param slot the slot index
+     * @return the name
+     */
+    public String name(int slot) {
+        return this.names.get(slot);
+    }
+
+    /**
+     * The variable names of the slots that have been assigned.
+     *
+     * @return the names, in slot order, which cannot be changed
+     */
+    public List<String> names() {
+        return List.copyOf(this.names);
+    }
+
+    /**
+     * The number of slots that have been assigned.
+     *
+     * @return the number of interned variables
+     */
+    public int slots() {
+        return this.names.size();
+    }
+
+    /**
+     * Has a slot been stored to?
+     *
+     * @param slot the slot index
+     * @return whether the slot holds a value
+     */
+    public boolean has(int slot) {
+        return this.defined[slot];
+    }
+
+    /**
+     * Read a slot.
+     *
+     * @param slot the slot index
+     * @return the value
+     */
+    public int get(int slot) {
+        return this.values[slot];
+    }
+
+    /**
+     * Write a slot.
+     *
+     * @param slot the slot index
+     * @param value the new value
+     */
+    public void set(int slot, int value) {
+        if (!this.defined[slot]) {
+            this.defined[slot] = true;
+            this.order[this.defines++] = slot;
+        }
+        this.values[slot] = value;
+    }
+
+    /**
+     * Forget every stored value, but keep the slots that have been assigned,
+     * so that code already resolved to those slots can run again.
+     */
+    public void reset() {
+        Arrays.fill(this.defined, false);
+        this.defines = 0;
+    }
+
+    /**
+     * Build the symbol table view of the defined variables, in the order
+     * they were first stored to, without the compiler temporaries.
+     *
+     * @return a new symbol table
+     */
+    public SymbolTable toSymbolTable() {
+        SymbolTable symbolTable = new SymbolTable();
+        for (int i = 0; i < this.defines; i++) {
+            if (!this.hidden[this.order[i]]) {
+                symbolTable.set(this.names.get(this.order[i]), this.values[this.order[i]]);
+            }
+        }
+        return symbolTable;
+    }
+}
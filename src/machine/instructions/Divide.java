@@ -1,5 +1,7 @@
 package machine.instructions;
 
+import machine.Bytecode;
+import machine.Context;
 import machine.InstructionStack;
 import machine.Maquina;
 import common.Errors;
@@ -10,23 +12,15 @@ import common.Errors;
  * @author Tiffany Lee
  */
 public class Divide implements Instruction{
-    /** the instruction stack */
-    private final InstructionStack stack;
-
-    /**
-     * Create a new instruction.
-     * @param machine the machine
-     */
-    public Divide(Maquina machine) {
-        this.stack = machine.getInstructionStack();
-    }
-
     /**
      * Pops the second and then the first operands off the stack, and pushes
      * the result of the first divided by the second.
+     *
+     * @param context the stack, variables and output of the run
      */
     @Override
-    public void execute() {
+    public void execute(Context context) {
+        InstructionStack stack = context.getStack();
         int p2 = stack.pop();
         int p1 = stack.pop();
         if(p2 == 0){
@@ -35,6 +29,16 @@ public class Divide implements Instruction{
         stack.push(p1/p2);
     }
 
+    /**
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
+     */
+    @Override
+    public void lower(Bytecode.Builder code) {
+        code.emit(Bytecode.DIVIDE);
+    }
+
     /**
      * Show the instruction using text so that it can be understood by a person.
      *
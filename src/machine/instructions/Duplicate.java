@@ -0,0 +1,44 @@
+package machine.instructions;
+
+import machine.Bytecode;
+import machine.Context;
+import machine.InstructionStack;
+import machine.Maquina;
+
+/**
+ * The DUPLICATE instruction
+ *
+ * @author Tiffany Lee
+ */
+public class Duplicate implements Instruction {
+    /**
+     * Pushes another copy of the operand on top of the stack.
+     *
+     * @param context the stack, variables and output of the run
+     */
+    @Override
+    public void execute(Context context) {
+        InstructionStack stack = context.getStack();
+        stack.push(stack.top());
+    }
+
+    /**
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
+     */
+    @Override
+    public void lower(Bytecode.Builder code) {
+        code.emit(Bytecode.DUPLICATE);
+    }
+
+    /**
+     * Show the instruction using text so that it can be understood by a person.
+     *
+     * @return a short string describing what this instruction will do
+     */
+    @Override
+    public String toString() {
+        return Maquina.DUPLICATE;
+    }
+}
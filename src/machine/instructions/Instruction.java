@@ -1,17 +1,30 @@
 package machine.instructions;
 
+import machine.Bytecode;
+import machine.Context;
+
 /**
- * An interface for a MAQ machine instruction.
+ * An interface for a MAQ machine instruction.  An instruction keeps nothing
+ * about the machine it runs on, so it never changes once it is made: the
+ * stack, variables and output it works on are passed in each time it runs.
  *
  * @author RIT CS
  * @author Tiffany Lee
  */
 public interface Instruction {
     /**
-     * Run this instruction on the Machine, using the Machine's
-     * value stack and symbol table.
+     * Run this instruction against a context's value stack and variables.
+     *
+     * @param context the stack, variables and output of the run
+     */
+    void execute(Context context);
+
+    /**
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
      */
-    void execute();
+    void lower(Bytecode.Builder code);
 
     /**
      * Show the instruction using text so that it can be understood
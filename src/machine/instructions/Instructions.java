@@ -0,0 +1,36 @@
+package machine.instructions;
+
+import machine.Maquina;
+
+/**
+ * The one place the instructions without an operand are made from their
+ * names, for the assembler, the ARB compiler and the object file loader, so
+ * that a new instruction only has to be added here for all of them to know
+ * it.  PUSH, LOAD and STORE are made by their constructors, since each needs
+ * its operand.
+ *
+ * @author Tiffany Lee
+ */
+public class Instructions {
+    /**
+     * Make an instruction that has no operand.
+     *
+     * @param name the instruction name, e.g. Maquina.ADD
+     * @return the instruction, or null if the name is not one of them
+     */
+    public static Instruction operation(String name) {
+        return switch (name) {
+            case Maquina.PRINT -> new Print();
+            case Maquina.NEGATE -> new Negate();
+            case Maquina.SQUARE_ROOT -> new SquareRoot();
+            case Maquina.ADD -> new Add();
+            case Maquina.SUBTRACT -> new Subtract();
+            case Maquina.MULTIPLY -> new Multiply();
+            case Maquina.DIVIDE -> new Divide();
+            case Maquina.MODULUS -> new Modulus();
+            case Maquina.DUPLICATE -> new Duplicate();
+            case Maquina.SWAP -> new Swap();
+            default -> null;
+        };
+    }
+}
@@ -1,9 +1,10 @@
 package machine.instructions;
 
 import common.Errors;
-import common.SymbolTable;
-import machine.InstructionStack;
+import machine.Bytecode;
+import machine.Context;
 import machine.Maquina;
+import machine.RegisterFile;
 
 /**
  * The LOAD instruction
@@ -13,32 +14,76 @@ import machine.Maquina;
 public class Load implements Instruction {
     /** the variable name */
     private final String name;
-    /** the instruction stack */
-    private final InstructionStack stack;
-    /** the symbol table */
-    private final SymbolTable symbolTable;
+    /** the register file slot of the variable */
+    private final int slot;
+    /** whether the variable might not have been stored to yet */
+    private final boolean checked;
 
     /**
      * Creates a new instruction
      * @param name the variable name
-     * @param machine the machine
+     * @param registers the register file the program's variables are given
+     *                  slots in as it is assembled
      */
-    public Load(String name, Maquina machine) {
+    public Load(String name, RegisterFile registers) {
+        this(name, registers, true);
+    }
+
+    /**
+     * Creates a new instruction, which skips the uninitialized variable check
+     * when the variable is known to have been stored to
+     * @param name the variable name
+     * @param registers the register file the program's variables are given
+     *                  slots in as it is assembled
+     * @param checked false if every run stores the variable before this load
+     */
+    public Load(String name, RegisterFile registers, boolean checked) {
         this.name = name;
-        this.stack = machine.getInstructionStack();
-        this.symbolTable = machine.getSymbolTable();
+        this.slot = registers.slot(name);
+        this.checked = checked;
     }
 
     /**
-     * Run this instruction on the Machine, using the Machine's
-     * value stack and symbol table.
+     * Pushes the value of the variable onto the stack.
+     *
+     * @param context the stack, variables and output of the run
      */
     @Override
-    public void execute(){
-        if(!symbolTable.has(name)){
+    public void execute(Context context) {
+        RegisterFile registers = context.getRegisters();
+        int slot = context.slot(this.slot);
+        if (checked && !registers.has(slot)) {
             Errors.report(Errors.Type.UNINITIALIZED, name);
         }
-        stack.push(symbolTable.get(name));
+        context.getStack().push(registers.get(slot));
+    }
+
+    /**
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
+     */
+    @Override
+    public void lower(Bytecode.Builder code) {
+        code.emit(checked ? Bytecode.LOAD : Bytecode.LOAD_DEFINED, this.slot);
+    }
+
+    /**
+     * Get the variable name.
+     *
+     * @return the variable name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Whether the instruction checks that the variable has been stored to.
+     *
+     * @return false if every run stores the variable before this load
+     */
+    public boolean isChecked() {
+        return this.checked;
     }
 
     /**
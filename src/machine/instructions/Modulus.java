@@ -1,7 +1,10 @@
 package machine.instructions;
 
+import machine.Bytecode;
+import machine.Context;
 import machine.InstructionStack;
 import machine.Maquina;
+import common.Errors;
 
 /**
  * The MODULUS instruction
@@ -9,28 +12,33 @@ import machine.Maquina;
  * @author Tiffany Lee
  */
 public class Modulus implements Instruction{
-    /** the instruction stack */
-    private final InstructionStack stack;
-
-    /**
-     * Create a new instruction.
-     * @param machine the machine
-     */
-    public Modulus(Maquina machine) {
-        this.stack = machine.getInstructionStack();
-    }
-
     /**
      * Pops the second and then first operands off the stack, and pushes
      * the result of the first modulus by the second.
+     *
+     * @param context the stack, variables and output of the run
      */
     @Override
-    public void execute() {
+    public void execute(Context context) {
+        InstructionStack stack = context.getStack();
         int p2 = stack.pop();
         int p1 = stack.pop();
+        if(p2 == 0){
+            Errors.report(Errors.Type.DIVIDE_BY_ZERO);
+        }
         stack.push(p1 % p2);
     }
 
+    /**
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
+     */
+    @Override
+    public void lower(Bytecode.Builder code) {
+        code.emit(Bytecode.MODULUS);
+    }
+
     /**
      * Show the instruction using text so that it can be understood by a person.
      *
@@ -1,5 +1,7 @@
 package machine.instructions;
 
+import machine.Bytecode;
+import machine.Context;
 import machine.InstructionStack;
 import machine.Maquina;
 
@@ -9,23 +11,25 @@ import machine.Maquina;
  * @author Tiffany Lee
  */
 public class Negate implements Instruction {
-    /** the instruction stack */
-    private final InstructionStack stack;
-
     /**
-     * Creates a new instruction
-     * @param machine the machine
+     * Pops the operand off the stack, and pushes the result of negating it
+     *
+     * @param context the stack, variables and output of the run
      */
-    public Negate(Maquina machine) {
-        this.stack = machine.getInstructionStack();
+    @Override
+    public void execute(Context context) {
+        InstructionStack stack = context.getStack();
+        stack.push(-stack.pop());
     }
 
     /**
-     * Pops the operand off the stack, and pushes the result of negating it
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
      */
     @Override
-    public void execute(){
-        stack.push(-stack.pop());
+    public void lower(Bytecode.Builder code) {
+        code.emit(Bytecode.NEGATE);
     }
 
     /**
@@ -1,6 +1,7 @@
 package machine.instructions;
 
-import machine.InstructionStack;
+import machine.Bytecode;
+import machine.Context;
 import machine.Maquina;
 
 /**
@@ -9,21 +10,24 @@ import machine.Maquina;
  * @author Tiffany Lee
  */
 public class Print implements Instruction {
-    /** the instruction stack */
-    private final InstructionStack stack;
-
     /**
-     * Creates a new instruction
-     * @param machine the machine
+     * Pops the top operand off the stack and prints the resulting value.
+     *
+     * @param context the stack, variables and output of the run
      */
-    public Print(Maquina machine){
-        this.stack = machine.getInstructionStack();
+    @Override
+    public void execute(Context context) {
+        context.getOutput().println(context.getStack().pop());
     }
 
-    /** Pops the top operand off the stack and prints the resulting value. */
+    /**
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
+     */
     @Override
-    public void execute(){
-        System.out.println(stack.pop());
+    public void lower(Bytecode.Builder code) {
+        code.emit(Bytecode.PRINT);
     }
 
     /**
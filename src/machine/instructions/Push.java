@@ -1,6 +1,7 @@
 package machine.instructions;
 
-import machine.InstructionStack;
+import machine.Bytecode;
+import machine.Context;
 import machine.Maquina;
 
 /**
@@ -12,25 +13,42 @@ import machine.Maquina;
 public class Push implements Instruction {
     /** the value to push */
     private final int value;
-    /** the instruction stack */
-    private final InstructionStack stack;
 
     /**
      * Create a new instruction.
      * @param value value to push
-     * @param machine the machine
      */
-    public Push(int value, Maquina machine) {
+    public Push(int value) {
         this.value = value;
-        this.stack = machine.getInstructionStack();
     }
 
     /**
      * Pushes the saved value onto the instruction stack.
+     *
+     * @param context the stack, variables and output of the run
+     */
+    @Override
+    public void execute(Context context) {
+        context.getStack().push(this.value);
+    }
+
+    /**
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
      */
     @Override
-    public void execute() {
-        this.stack.push(this.value);
+    public void lower(Bytecode.Builder code) {
+        code.emit(Bytecode.PUSH, this.value);
+    }
+
+    /**
+     * Get the value to push.
+     *
+     * @return the value to push
+     */
+    public int getValue() {
+        return this.value;
     }
 
     /**
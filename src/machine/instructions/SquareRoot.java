@@ -1,6 +1,8 @@
 package machine.instructions;
 
 import common.Errors;
+import machine.Bytecode;
+import machine.Context;
 import machine.InstructionStack;
 import machine.Maquina;
 import java.lang.Math;
@@ -11,23 +13,15 @@ import java.lang.Math;
  * @author Tiffany Lee
  */
 public class SquareRoot implements Instruction{
-    /** the instruction stack */
-    private final InstructionStack stack;
-
-    /**
-     * Create a new instruction.
-     * @param machine the machine
-     */
-    public SquareRoot(Maquina machine) {
-        this.stack = machine.getInstructionStack();
-    }
-
     /**
      * Pops the operand off the stack, and pushes the integer result
      * of taking the square root of it
+     *
+     * @param context the stack, variables and output of the run
      */
     @Override
-    public void execute() {
+    public void execute(Context context) {
+        InstructionStack stack = context.getStack();
         int p = stack.pop();
         if(p < 0){
             Errors.report(Errors.Type.NEGATIVE_SQUARE_ROOT);
@@ -35,6 +29,16 @@ public class SquareRoot implements Instruction{
         stack.push((int) Math.sqrt(p));
     }
 
+    /**
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
+     */
+    @Override
+    public void lower(Bytecode.Builder code) {
+        code.emit(Bytecode.SQUARE_ROOT);
+    }
+
     /**
      * Show the instruction using text so that it can be understood by a person.
      *
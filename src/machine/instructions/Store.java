@@ -1,8 +1,9 @@
 package machine.instructions;
 
-import common.SymbolTable;
-import machine.InstructionStack;
+import machine.Bytecode;
+import machine.Context;
 import machine.Maquina;
+import machine.RegisterFile;
 
 /**
  * The STORE instruction
@@ -12,29 +13,48 @@ import machine.Maquina;
 public class Store implements Instruction{
     /** the variable name */
     private final String name;
-    /** the instruction stack */
-    private final InstructionStack stack;
-    /** the symbol table */
-    private final SymbolTable symbolTable;
+    /** the register file slot of the variable */
+    private final int slot;
 
     /**
      * Creates a new instruction
      * @param name the variable name
-     * @param machine the machine
+     * @param registers the register file the program's variables are given
+     *                  slots in as it is assembled
      */
-    public Store(String name, Maquina machine) {
+    public Store(String name, RegisterFile registers) {
         this.name = name;
-        this.stack = machine.getInstructionStack();
-        this.symbolTable = machine.getSymbolTable();
+        this.slot = registers.slot(name);
     }
 
     /**
      * Pops the value off the top of stack and sets the variable's value
-     * in the symbol table to the value.
+     * in the register file to the value.
+     *
+     * @param context the stack, variables and output of the run
+     */
+    @Override
+    public void execute(Context context) {
+        context.getRegisters().set(context.slot(slot), context.getStack().pop());
+    }
+
+    /**
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
      */
     @Override
-    public void execute(){
-        symbolTable.set(name, stack.pop());
+    public void lower(Bytecode.Builder code) {
+        code.emit(Bytecode.STORE, this.slot);
+    }
+
+    /**
+     * Get the variable name.
+     *
+     * @return the variable name
+     */
+    public String getName() {
+        return this.name;
     }
 
     /**
@@ -1,5 +1,7 @@
 package machine.instructions;
 
+import machine.Bytecode;
+import machine.Context;
 import machine.InstructionStack;
 import machine.Maquina;
 
@@ -9,24 +11,26 @@ import machine.Maquina;
  * @author Tiffany Lee
  */
 public class Subtract implements Instruction{
-    /** the instruction stack */
-    private final InstructionStack stack;
-
     /**
-     * Create a new instruction.
-     * @param machine the machine
+     * Pops the second and then first operands off the stack, and pushes
+     * the result of the first subtracted by the second
+     *
+     * @param context the stack, variables and output of the run
      */
-    public Subtract(Maquina machine) {
-        this.stack = machine.getInstructionStack();
+    @Override
+    public void execute(Context context) {
+        InstructionStack stack = context.getStack();
+        stack.push(-stack.pop() + stack.pop());
     }
 
     /**
-     * Pops the second and then first operands off the stack, and pushes
-     * the result of the first subtracted by the second
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
      */
     @Override
-    public void execute() {
-        stack.push(-stack.pop() + stack.pop());
+    public void lower(Bytecode.Builder code) {
+        code.emit(Bytecode.SUBTRACT);
     }
 
     /**
@@ -0,0 +1,47 @@
+package machine.instructions;
+
+import machine.Bytecode;
+import machine.Context;
+import machine.InstructionStack;
+import machine.Maquina;
+
+/**
+ * The SWAP instruction
+ *
+ * @author Tiffany Lee
+ */
+public class Swap implements Instruction {
+    /**
+     * Exchanges the top two operands on the stack.
+     *
+     * @param context the stack, variables and output of the run
+     */
+    @Override
+    public void execute(Context context) {
+        InstructionStack stack = context.getStack();
+        int top = stack.pop();
+        int below = stack.pop();
+        stack.push(top);
+        stack.push(below);
+    }
+
+    /**
+     * Append the compact bytecode form of this instruction.
+     *
+     * @param code the bytecode being built
+     */
+    @Override
+    public void lower(Bytecode.Builder code) {
+        code.emit(Bytecode.SWAP);
+    }
+
+    /**
+     * Show the instruction using text so that it can be understood by a person.
+     *
+     * @return a short string describing what this instruction will do
+     */
+    @Override
+    public String toString() {
+        return Maquina.SWAP;
+    }
+}
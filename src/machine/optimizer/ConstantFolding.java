@@ -0,0 +1,53 @@
+package machine.optimizer;
+
+import machine.instructions.*;
+
+import java.util.List;
+
+/**
+ * Folds an operation whose operands are all pushed constants into a single
+ * PUSH of the result.  Divisions and moduli by zero and square roots of
+ * negative numbers are left alone so that they still fault when executed.
+ *
+ * @author Tiffany Lee
+ */
+public class ConstantFolding implements PeepholeRule {
+    /**
+     * Fold PUSH a, PUSH b, op into PUSH (a op b), and PUSH a, SQRT into
+     * PUSH sqrt(a).
+     *
+     * @param code the instructions optimized so far
+     * @return whether the instructions were changed
+     */
+    @Override
+    public boolean apply(List<Instruction> code) {
+        Instruction op = PeepholeOptimizer.last(code, 1);
+        if (op instanceof SquareRoot && PeepholeOptimizer.last(code, 2) instanceof Push p
+                && p.getValue() >= 0) {
+            PeepholeOptimizer.replace(code, 2, new Push((int) Math.sqrt(p.getValue())));
+            return true;
+        }
+        if (PeepholeOptimizer.last(code, 3) instanceof Push p1
+                && PeepholeOptimizer.last(code, 2) instanceof Push p2) {
+            int a = p1.getValue();
+            int b = p2.getValue();
+            Integer result = null;
+            if (op instanceof Add) {
+                result = a + b;
+            } else if (op instanceof Subtract) {
+                result = a - b;
+            } else if (op instanceof Multiply) {
+                result = a * b;
+            } else if (op instanceof Divide && b != 0) {
+                result = a / b;
+            } else if (op instanceof Modulus && b != 0) {
+                result = a % b;
+            }
+            if (result != null) {
+                PeepholeOptimizer.replace(code, 3, new Push(result));
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package machine.optimizer;
+
+import machine.instructions.*;
+
+import java.util.List;
+
+/**
+ * Removes operations that leave their other operand unchanged.
+ *
+ * @author Tiffany Lee
+ */
+public class IdentityRemoval implements PeepholeRule {
+    /**
+     * Drop PUSH 0, ADD and PUSH 0, SUB and PUSH 1, MUL and PUSH 1, DIV.
+     *
+     * @param code the instructions optimized so far
+     * @return whether the instructions were changed
+     */
+    @Override
+    public boolean apply(List<Instruction> code) {
+        if (PeepholeOptimizer.last(code, 2) instanceof Push push) {
+            Instruction op = PeepholeOptimizer.last(code, 1);
+            boolean identity = switch (push.getValue()) {
+                case 0 -> op instanceof Add || op instanceof Subtract;
+                case 1 -> op instanceof Multiply || op instanceof Divide;
+                default -> false;
+            };
+            if (identity) {
+                PeepholeOptimizer.replace(code, 2);
+                return true;
+            }
+        }
+        return false;
+    }
+}
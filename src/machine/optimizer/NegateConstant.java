@@ -0,0 +1,36 @@
+package machine.optimizer;
+
+import machine.instructions.Instruction;
+import machine.instructions.Negate;
+import machine.instructions.Push;
+
+import java.util.List;
+
+/**
+ * Negates pushed constants in place, and cancels double negations.
+ *
+ * @author Tiffany Lee
+ */
+public class NegateConstant implements PeepholeRule {
+    /**
+     * Rewrite PUSH a, NEG into PUSH -a, and drop NEG, NEG.
+     *
+     * @param code the instructions optimized so far
+     * @return whether the instructions were changed
+     */
+    @Override
+    public boolean apply(List<Instruction> code) {
+        if (!(PeepholeOptimizer.last(code, 1) instanceof Negate)) {
+            return false;
+        }
+        Instruction operand = PeepholeOptimizer.last(code, 2);
+        if (operand instanceof Push p) {
+            PeepholeOptimizer.replace(code, 2, new Push(-p.getValue()));
+            return true;
+        } else if (operand instanceof Negate) {
+            PeepholeOptimizer.replace(code, 2);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package machine.optimizer;
+
+import machine.instructions.Instruction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An optional optimizer stage that rewrites an assembled MAQ program with a
+ * set of peephole rules.  Each instruction is appended to the output and the
+ * rules are applied to the end of the output until none of them match, so
+ * that one rewrite can expose another (e.g. a folded constant feeding the
+ * next operation) and the whole pass stays linear in program length.
+ *
+ * @author Tiffany Lee
+ */
+public class PeepholeOptimizer {
+    /** the rules used when none are given */
+    public static final List<PeepholeRule> DEFAULT_RULES = List.of(
+            new ConstantFolding(),
+            new NegateConstant(),
+            new StoreLoadForwarding(),
+            new IdentityRemoval()
+    );
+
+    /** the rules to apply */
+    private final List<PeepholeRule> rules;
+
+    /**
+     * Create an optimizer with the default rules.
+     */
+    public PeepholeOptimizer() {
+        this(DEFAULT_RULES);
+    }
+
+    /**
+     * Create an optimizer with a chosen set of rules.
+     *
+     * @param rules the rules to apply, tried in order
+     */
+    public PeepholeOptimizer(List<PeepholeRule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Optimize a program.
+     *
+     * @param program the assembled instructions, in program order
+     * @return the optimized instructions
+     */
+    public List<Instruction> optimize(List<Instruction> program) {
+        List<Instruction> code = new ArrayList<>(program.size());
+        for (Instruction instruction : program) {
+            code.add(instruction);
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (PeepholeRule rule : this.rules) {
+                    if (rule.apply(code)) {
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Get the instruction a number of places from the end of a list.
+     *
+     * @param code the instructions
+     * @param back 1 for the last instruction, 2 for the one before, ...
+     * @return the instruction, or null if the list is too short
+     */
+    static Instruction last(List<Instruction> code, int back) {
+        return code.size() >= back ? code.get(code.size() - back) : null;
+    }
+
+    /**
+     * Replace the last instructions of a list.
+     *
+     * @param code the instructions
+     * @param count the number of instructions to remove from the end
+     * @param replacement the instructions to append in their place
+     */
+    static void replace(List<Instruction> code, int count, Instruction... replacement) {
+        for (int i = 0; i < count; i++) {
+            code.remove(code.size() - 1);
+        }
+        code.addAll(List.of(replacement));
+    }
+}
@@ -0,0 +1,25 @@
+package machine.optimizer;
+
+import machine.instructions.Instruction;
+
+import java.util.List;
+
+/**
+ * An interface for one peephole rewrite of MAQ instructions.  The optimizer
+ * appends the program one instruction at a time and offers the end of the
+ * output to each rule, so a rule only ever looks at the last few
+ * instructions of the list.
+ *
+ * @author Tiffany Lee
+ */
+public interface PeepholeRule {
+    /**
+     * Try to rewrite the end of the instructions optimized so far.  A rule
+     * must never remove an instruction that could fault, so that errors are
+     * still reported at the same point of the program.
+     *
+     * @param code the instructions optimized so far
+     * @return whether the instructions were changed
+     */
+    boolean apply(List<Instruction> code);
+}
@@ -0,0 +1,36 @@
+package machine.optimizer;
+
+import machine.instructions.*;
+
+import java.util.List;
+
+/**
+ * Forwards a stored value to a LOAD of the same variable that immediately
+ * follows it, so the value does not make a round trip through the register
+ * file.
+ *
+ * @author Tiffany Lee
+ */
+public class StoreLoadForwarding implements PeepholeRule {
+    /**
+     * Rewrite PUSH a, STORE x, LOAD x into PUSH a, STORE x, PUSH a, and
+     * any other STORE x, LOAD x into DUP, STORE x.
+     *
+     * @param code the instructions optimized so far
+     * @return whether the instructions were changed
+     */
+    @Override
+    public boolean apply(List<Instruction> code) {
+        if (PeepholeOptimizer.last(code, 2) instanceof Store store
+                && PeepholeOptimizer.last(code, 1) instanceof Load load
+                && store.getName().equals(load.getName())) {
+            if (PeepholeOptimizer.last(code, 3) instanceof Push push) {
+                PeepholeOptimizer.replace(code, 1, new Push(push.getValue()));
+            } else {
+                PeepholeOptimizer.replace(code, 2, new Duplicate(), store);
+            }
+            return true;
+        }
+        return false;
+    }
+}
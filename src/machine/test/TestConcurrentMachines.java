@@ -0,0 +1,115 @@
+package machine.test;
+
+import machine.BatchRunner;
+import machine.Maquina;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester that many machines in one JVM keep their state apart.
+ *
+ * @author Tiffany Lee
+ */
+public class TestConcurrentMachines {
+    /** the number of programs to run */
+    private static final int PROGRAMS = 200;
+
+    /**
+     * Make a program whose every variable and printed value depends on n.
+     *
+     * @param n the program number
+     * @return the MAQ source
+     */
+    private static String program(int n) {
+        StringBuilder source = new StringBuilder();
+        source.append("PUSH ").append(n).append('\n').append("STORE n").append('\n');
+        for (int i = 0; i < 500; i++) {
+            source.append("LOAD n\nPUSH 1\nADD\nSTORE n\n");
+        }
+        source.append("LOAD n\nPRINT\n");
+        return source.toString();
+    }
+
+    /**
+     * The output expected from program(n).
+     *
+     * @param n the program number
+     * @return the end of the machine's output
+     */
+    private static String expected(int n) {
+        return "(MAQ) Executing..." + System.lineSeparator() +
+                (n + 500) + System.lineSeparator() +
+                "(MAQ) Completed execution!" + System.lineSeparator() +
+                "(MAQ) Symbol table:" + System.lineSeparator() +
+                "n: " + (n + 500) + System.lineSeparator() +
+                "(MAQ) Instruction stack:" + System.lineSeparator() +
+                "\tEMPTY" + System.lineSeparator() + System.lineSeparator();
+    }
+
+    @Test
+    public void testIsolation() throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int n = 0; n < PROGRAMS; n++) {
+            int program = n;
+            results.add(pool.submit(() -> {
+                ByteArrayOutputStream captured = new ByteArrayOutputStream();
+                Maquina machine = new Maquina(new PrintStream(captured));
+                start.await();
+                machine.assemble(new Scanner(program(program)), false);
+                machine.execute();
+                return captured.toString();
+            }));
+        }
+        start.countDown();
+        for (int n = 0; n < PROGRAMS; n++) {
+            assertTrue(results.get(n).get().endsWith(expected(n)));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testBatchRunner(@TempDir Path dir) throws IOException, InterruptedException, ExecutionException {
+        List<Path> programs = new ArrayList<>();
+        for (int n = 0; n < PROGRAMS; n++) {
+            Path file = dir.resolve("program-" + n + ".maq");
+            Files.writeString(file, program(n));
+            programs.add(file);
+        }
+        List<String> outputs = BatchRunner.run(programs, 8);
+        assertEquals(PROGRAMS, outputs.size());
+        for (int n = 0; n < PROGRAMS; n++) {
+            assertTrue(outputs.get(n).endsWith(expected(n)));
+        }
+    }
+
+    @Test
+    public void testBatchFaults(@TempDir Path dir) throws IOException, InterruptedException, ExecutionException {
+        // programs that fault end with their error, and the rest still run
+        String[] sources = {"PUSH 1\nPUSH x\n", program(1), "PUSH 1\nPUSH 0\nMOD\n", program(3)};
+        List<Path> programs = new ArrayList<>();
+        for (int n = 0; n < sources.length; n++) {
+            Path file = dir.resolve("program-" + n + ".maq");
+            Files.writeString(file, sources[n]);
+            programs.add(file);
+        }
+        List<String> outputs = BatchRunner.run(programs, 2);
+        assertTrue(outputs.get(0).contains("PUSH x"));
+        assertTrue(outputs.get(1).endsWith(expected(1)));
+        assertTrue(outputs.get(2).endsWith("divide by zero" + System.lineSeparator()));
+        assertTrue(outputs.get(3).endsWith(expected(3)));
+    }
+}
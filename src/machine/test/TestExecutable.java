@@ -0,0 +1,136 @@
+package machine.test;
+
+import common.Errors;
+import common.RuntimeFault;
+import machine.Context;
+import machine.Executable;
+import machine.Maquina;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for running one assembled MAQ program against many contexts.
+ *
+ * @author Tiffany Lee
+ */
+public class TestExecutable {
+    /** computes y = x * x + k, and prints it */
+    private static final String PROGRAM = "LOAD x\nDUP\nMUL\nLOAD k\nADD\nDUP\nSTORE y\nPRINT\n";
+
+    /**
+     * Assemble a program on a machine of its own.
+     *
+     * @param text the MAQ program
+     * @return the program
+     */
+    private static Executable link(String text) {
+        Maquina machine = new Maquina(new PrintStream(new ByteArrayOutputStream()));
+        machine.assemble(new Scanner(text), false);
+        return machine.link();
+    }
+
+    @Test
+    public void testPreloaded() {
+        Executable program = link(PROGRAM);
+        assertEquals(List.of("x", "k", "y"), program.getVariables());
+        for (int x = 0; x < 5; x++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Context context = new Context(new PrintStream(out));
+            context.set("k", 100);
+            context.set("x", x);
+            program.execute(context);
+            assertEquals((x * x + 100) + System.lineSeparator(), out.toString());
+            assertEquals("k: 100" + System.lineSeparator() + "x: " + x + System.lineSeparator() +
+                    "y: " + (x * x + 100) + System.lineSeparator(), context.getSymbolTable().toString());
+            assertEquals(0, context.getStack().size());
+        }
+    }
+
+    @Test
+    public void testRelocated() {
+        // the machine's register file gave its own variables the program's slots
+        Executable program = link(PROGRAM);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Maquina machine = new Maquina(new PrintStream(out));
+        machine.assemble(new Scanner("PUSH 7\nSTORE y\nPUSH 3\nSTORE k\nPUSH 4\nSTORE x\n"), false);
+        machine.execute();
+        out.reset();
+        machine.execute(program);
+        assertTrue(out.toString().contains("19" + System.lineSeparator() + "(MAQ) Completed execution!"));
+        assertEquals("y: 19" + System.lineSeparator() + "k: 3" + System.lineSeparator() +
+                "x: 4" + System.lineSeparator(), machine.getSymbolTable().toString());
+
+        out.reset();
+        machine.executeBytecode(program);
+        assertTrue(out.toString().contains("19" + System.lineSeparator() + "(MAQ) Completed execution!"));
+    }
+
+    @Test
+    public void testFaults() {
+        Executable program = link(PROGRAM);
+        Context context = new Context(new PrintStream(new ByteArrayOutputStream()));
+        context.set("x", 2);
+        RuntimeFault fault = assertThrows(RuntimeFault.class, () -> program.execute(context));
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+        assertEquals(3, fault.getInstruction());
+        fault = assertThrows(RuntimeFault.class, () -> program.executeBytecode(
+                new Context(new PrintStream(new ByteArrayOutputStream()))));
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+        assertEquals(0, fault.getInstruction());
+    }
+
+    @Test
+    public void testVerifiedWithVariables() {
+        // x was set on the machine that verified the program, but not in the new context
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Maquina machine = new Maquina(new PrintStream(out));
+        machine.getRegisters().set(machine.getRegisters().slot("x"), 5);
+        machine.assemble(new Scanner("LOAD x\nPRINT\n"), false);
+        machine.verify();
+        machine.executeBytecode();
+        assertTrue(out.toString().contains("5" + System.lineSeparator() + "(MAQ) Completed execution!"));
+        Executable program = machine.link();
+        Context context = new Context(new PrintStream(new ByteArrayOutputStream()));
+        RuntimeFault fault = assertThrows(RuntimeFault.class, () -> program.executeBytecode(context));
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+        assertThrows(RuntimeFault.class, () -> program.execute(
+                new Context(new PrintStream(new ByteArrayOutputStream()))));
+    }
+
+    @Test
+    public void testSharedAcrossThreads() throws Exception {
+        Executable program = link(PROGRAM);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                int x = i;
+                results.add(pool.submit(() -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    Context context = new Context(new PrintStream(out));
+                    context.set("x", x);
+                    context.set("k", -x);
+                    if (x % 2 == 0) {
+                        program.execute(context);
+                    } else {
+                        program.executeBytecode(context);
+                    }
+                    return out.toString();
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals((i * i - i) + System.lineSeparator(), results.get(i).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package machine.test;
+
+import common.Errors;
+import common.RuntimeFault;
+import machine.InstructionStack;
+import machine.Maquina;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for the faults the machine raises instead of exiting.
+ *
+ * @author Tiffany Lee
+ */
+public class TestFaults {
+    /**
+     * Assemble a program on a machine whose output is discarded.
+     *
+     * @param source the MAQ source
+     * @return the machine
+     */
+    private static Maquina assemble(String source) {
+        Maquina machine = new Maquina(new PrintStream(new ByteArrayOutputStream()));
+        machine.assemble(new Scanner(source), false);
+        return machine;
+    }
+
+    @Test
+    public void testDivideByZero() {
+        Maquina machine = assemble("PUSH 10\nPUSH 0\nDIV\nPRINT\n");
+        RuntimeFault fault = assertThrows(RuntimeFault.class, machine::execute);
+        assertEquals(Errors.Type.DIVIDE_BY_ZERO, fault.getType());
+        assertEquals(2, fault.getInstruction());
+        assertEquals("divide by zero", fault.getMessage());
+
+        fault = assertThrows(RuntimeFault.class, assemble("PUSH 10\nPUSH 0\nDIV\n")::executeBytecode);
+        assertEquals(2, fault.getInstruction());
+
+        // a modulus by zero is a divide by zero too
+        fault = assertThrows(RuntimeFault.class, assemble("PUSH 10\nPUSH 0\nMOD\n")::execute);
+        assertEquals(Errors.Type.DIVIDE_BY_ZERO, fault.getType());
+        assertEquals(2, fault.getInstruction());
+        fault = assertThrows(RuntimeFault.class, assemble("PUSH 10\nPUSH 0\nMOD\n")::executeBytecode);
+        assertEquals(Errors.Type.DIVIDE_BY_ZERO, fault.getType());
+    }
+
+    @Test
+    public void testUninitialized() {
+        Maquina machine = assemble("PUSH 10\nSTORE x\nLOAD y\n");
+        RuntimeFault fault = assertThrows(RuntimeFault.class, machine::execute);
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+        assertEquals("y", fault.getInfo());
+        assertEquals(2, fault.getInstruction());
+        assertEquals("uninitialized variable: y", fault.getMessage());
+
+        fault = assertThrows(RuntimeFault.class, assemble("PUSH 10\nSTORE x\nLOAD y\n")::executeBytecode);
+        assertEquals(2, fault.getInstruction());
+    }
+
+    @Test
+    public void testIllegalInstruction() {
+        RuntimeFault fault = assertThrows(RuntimeFault.class, () -> assemble("PUSH 1\nPUSH 2\nXXX\nADD\n"));
+        assertEquals(Errors.Type.ILLEGAL_INSTRUCTION, fault.getType());
+        assertEquals("XXX", fault.getInfo());
+        assertEquals(3, fault.getLine());
+
+        // an operand that is not an integer is illegal too
+        fault = assertThrows(RuntimeFault.class, () -> assemble("PUSH 1\nPUSH 99999999999\n"));
+        assertEquals(Errors.Type.ILLEGAL_INSTRUCTION, fault.getType());
+        assertEquals("PUSH 99999999999", fault.getInfo());
+        assertEquals(2, fault.getLine());
+    }
+
+    @Test
+    public void testUnderflow() {
+        RuntimeFault fault = assertThrows(RuntimeFault.class, new InstructionStack()::pop);
+        assertEquals(Errors.Type.STACK_UNDERFLOW, fault.getType());
+
+        fault = assertThrows(RuntimeFault.class, assemble("PUSH 1\nADD\n")::executeBytecode);
+        assertEquals(Errors.Type.STACK_UNDERFLOW, fault.getType());
+        assertEquals(1, fault.getInstruction());
+    }
+
+    @Test
+    public void testVerify() {
+        Maquina machine = assemble("PUSH 1\nPRINT\nPUSH 2\nADD\nPRINT\n");
+        RuntimeFault fault = assertThrows(RuntimeFault.class, machine::verify);
+        assertEquals(Errors.Type.STACK_UNDERFLOW, fault.getType());
+        assertEquals(3, fault.getInstruction());
+        assertEquals("stack underflow: instruction 3", fault.getMessage());
+
+        machine = assemble("PUSH 1\nPUSH 2\nPUSH 3\nMUL\nDUP\nSWAP\nADD\nADD\nSTORE x\nLOAD x\nPRINT\n");
+        assertEquals(3, machine.verify());
+        machine.executeBytecode();
+        assertEquals(13, machine.getRegisters().get(machine.getRegisters().slot("x")));
+        assertEquals(0, machine.getInstructionStack().size());
+    }
+
+    @Test
+    public void testDefiniteAssignment() {
+        RuntimeFault fault = assertThrows(RuntimeFault.class,
+                assemble("PUSH 1\nSTORE x\nLOAD x\nLOAD y\nADD\nPRINT\n")::verify);
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+        assertEquals("y", fault.getInfo());
+        assertEquals(3, fault.getInstruction());
+        assertEquals(4, fault.getLine());
+
+        // the divide might fault first, so the load stays checked until run
+        Maquina machine = assemble("PUSH 1\nLOAD x\nDIV\nLOAD y\n");
+        assertThrows(RuntimeFault.class, machine::verify);
+        machine = assemble("PUSH 1\nPUSH 0\nDIV\nLOAD y\n");
+        machine.verify();
+        fault = assertThrows(RuntimeFault.class, machine::executeBytecode);
+        assertEquals(Errors.Type.DIVIDE_BY_ZERO, fault.getType());
+
+        // variables left by an earlier run count as stored
+        machine = assemble("PUSH 5\nSTORE x\n");
+        machine.execute();
+        machine.assemble(new Scanner("LOAD x\nPRINT\n"), false);
+        machine.verify();
+        machine.executeBytecode();
+        assertEquals(0, machine.getInstructionStack().size());
+    }
+}
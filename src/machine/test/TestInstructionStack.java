@@ -49,4 +49,18 @@ public class TestInstructionStack {
             "\tEMPTY" + System.lineSeparator();
         assertEquals(expected, stack.toString());
     }
+
+    @Test
+    public void testGrowth() {
+        InstructionStack stack = new InstructionStack(2);
+        for (int i = 0; i < 100; i++) {
+            stack.push(i);
+        }
+        assertEquals(100, stack.size());
+        assertEquals(99, stack.top());
+        for (int i = 99; i >= 0; i--) {
+            assertEquals(i, stack.pop());
+        }
+        assertEquals(0, stack.size());
+    }
 }
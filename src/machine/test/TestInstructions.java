@@ -34,16 +34,16 @@ public class TestInstructions {
     public void testPush() {
         Maquina machine = new Maquina();
 
-        Push push10 = new Push(10, machine);
+        Push push10 = new Push(10);
         assertEquals("PUSH 10", push10.toString());
-        Push push20 = new Push(20, machine);
+        Push push20 = new Push(20);
         assertEquals("PUSH 20", push20.toString());
-        Push push30 = new Push(30, machine);
+        Push push30 = new Push(30);
         assertEquals("PUSH 30", push30.toString());
 
-        push10.execute();
-        push20.execute();
-        push30.execute();
+        push10.execute(machine.getContext());
+        push20.execute(machine.getContext());
+        push30.execute(machine.getContext());
 
         assertEquals(3, machine.getInstructionStack().size());
         String expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -58,17 +58,17 @@ public class TestInstructions {
     public void testPrint() {
         Maquina machine = new Maquina();
 
-        Push push10 = new Push(10, machine);
-        Push push20 = new Push(20, machine);
-        Push push30 = new Push(30, machine);
+        Push push10 = new Push(10);
+        Push push20 = new Push(20);
+        Push push30 = new Push(30);
 
-        push10.execute();
-        push20.execute();
-        push30.execute();
+        push10.execute(machine.getContext());
+        push20.execute(machine.getContext());
+        push30.execute(machine.getContext());
 
-        Print print30 = new Print(machine);
+        Print print30 = new Print();
         assertEquals("PRINT", print30.toString());
-        print30.execute();
+        print30.execute(machine.getContext());
         String expected = "30" + System.lineSeparator();
 
         assertEquals(2, machine.getInstructionStack().size());
@@ -77,9 +77,9 @@ public class TestInstructions {
                 "\t1: 10" + System.lineSeparator();
         assertEquals(expectedStack, machine.getInstructionStack().toString());
 
-        Print print20 = new Print(machine);
+        Print print20 = new Print();
         assertEquals("PRINT", print20.toString());
-        print20.execute();
+        print20.execute(machine.getContext());
         expected += "20" + System.lineSeparator();
         assertEquals(expected, outContent.toString());
 
@@ -94,25 +94,25 @@ public class TestInstructions {
     public void testStore() {
         Maquina machine = new Maquina();
 
-        Push push10 = new Push(10, machine);
-        Push push20 = new Push(20, machine);
-        Push push30 = new Push(30, machine);
+        Push push10 = new Push(10);
+        Push push20 = new Push(20);
+        Push push30 = new Push(30);
 
-        push10.execute();
-        push20.execute();
-        push30.execute();
+        push10.execute(machine.getContext());
+        push20.execute(machine.getContext());
+        push30.execute(machine.getContext());
 
-        Store storeX = new Store("x", machine);
-        Store storeY = new Store("y", machine);
-        Store storeZ = new Store("z", machine);
+        Store storeX = new Store("x", machine.getRegisters());
+        Store storeY = new Store("y", machine.getRegisters());
+        Store storeZ = new Store("z", machine.getRegisters());
 
         assertEquals("STORE x", storeX.toString());
         assertEquals("STORE y", storeY.toString());
         assertEquals("STORE z", storeZ.toString());
 
-        storeX.execute();
-        storeY.execute();
-        storeZ.execute();
+        storeX.execute(machine.getContext());
+        storeY.execute(machine.getContext());
+        storeZ.execute(machine.getContext());
 
         assertEquals(3, machine.getSymbolTable().size());
         String expected = "x: 30" + System.lineSeparator() +
@@ -131,21 +131,21 @@ public class TestInstructions {
     public void testLoad() {
         Maquina machine = new Maquina();
 
-        Push push10 = new Push(10, machine);
-        Push push20 = new Push(20, machine);
-        Push push30 = new Push(30, machine);
+        Push push10 = new Push(10);
+        Push push20 = new Push(20);
+        Push push30 = new Push(30);
 
-        push10.execute();
-        push20.execute();
-        push30.execute();
+        push10.execute(machine.getContext());
+        push20.execute(machine.getContext());
+        push30.execute(machine.getContext());
 
-        Store storeX = new Store("x", machine);
-        Store storeY = new Store("y", machine);
-        Store storeZ = new Store("z", machine);
+        Store storeX = new Store("x", machine.getRegisters());
+        Store storeY = new Store("y", machine.getRegisters());
+        Store storeZ = new Store("z", machine.getRegisters());
 
-        storeX.execute();
-        storeY.execute();
-        storeZ.execute();
+        storeX.execute(machine.getContext());
+        storeY.execute(machine.getContext());
+        storeZ.execute(machine.getContext());
 
         assertEquals(3, machine.getSymbolTable().size());
         String expected = "x: 30" + System.lineSeparator() +
@@ -153,13 +153,13 @@ public class TestInstructions {
                 "z: 10" + System.lineSeparator();
         assertEquals(expected, machine.getSymbolTable().toString());
 
-        Load loadZ = new Load("z", machine);
-        Load loadY = new Load("y", machine);
-        Load loadX = new Load("x", machine);
+        Load loadZ = new Load("z", machine.getRegisters());
+        Load loadY = new Load("y", machine.getRegisters());
+        Load loadX = new Load("x", machine.getRegisters());
 
-        loadX.execute();
-        loadY.execute();
-        loadZ.execute();
+        loadX.execute(machine.getContext());
+        loadY.execute(machine.getContext());
+        loadZ.execute(machine.getContext());
 
         assertEquals("LOAD x", loadX.toString());
         assertEquals("LOAD y", loadY.toString());
@@ -178,17 +178,17 @@ public class TestInstructions {
     public void testNegate() {
         Maquina machine = new Maquina();
 
-        Push push10 = new Push(10, machine);
-        Push push20 = new Push(-20, machine);
-        Push push30 = new Push(30, machine);
+        Push push10 = new Push(10);
+        Push push20 = new Push(-20);
+        Push push30 = new Push(30);
 
-        push10.execute();
-        push20.execute();
-        push30.execute();
+        push10.execute(machine.getContext());
+        push20.execute(machine.getContext());
+        push30.execute(machine.getContext());
 
-        Negate neg30 = new Negate(machine);
+        Negate neg30 = new Negate();
         assertEquals("NEG", neg30.toString());
-        neg30.execute();
+        neg30.execute(machine.getContext());
 
         assertEquals(3, machine.getInstructionStack().size());
         String expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -198,9 +198,9 @@ public class TestInstructions {
         assertEquals(expected, machine.getInstructionStack().toString());
 
         machine.getInstructionStack().pop();
-        Negate neg20 = new Negate(machine);
+        Negate neg20 = new Negate();
         assertEquals("NEG", neg20.toString());
-        neg20.execute();
+        neg20.execute(machine.getContext());
 
         assertEquals(2, machine.getInstructionStack().size());
         expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -214,17 +214,17 @@ public class TestInstructions {
     public void testSquareRoot() {
         Maquina machine = new Maquina();
 
-        Push push30 = new Push(30, machine);
-        Push push112 = new Push(112, machine);
-        Push push25 = new Push(25, machine);
+        Push push30 = new Push(30);
+        Push push112 = new Push(112);
+        Push push25 = new Push(25);
 
-        push30.execute();
-        push112.execute();
-        push25.execute();
+        push30.execute(machine.getContext());
+        push112.execute(machine.getContext());
+        push25.execute(machine.getContext());
 
-        SquareRoot sqrt5 = new SquareRoot(machine);
+        SquareRoot sqrt5 = new SquareRoot();
         assertEquals("SQRT", sqrt5.toString());
-        sqrt5.execute();
+        sqrt5.execute(machine.getContext());
 
         assertEquals(3, machine.getInstructionStack().size());
         String expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -234,9 +234,9 @@ public class TestInstructions {
         assertEquals(expected, machine.getInstructionStack().toString());
 
         machine.getInstructionStack().pop();
-        SquareRoot sqrt10 = new SquareRoot(machine);
+        SquareRoot sqrt10 = new SquareRoot();
         assertEquals("SQRT", sqrt10.toString());
-        sqrt5.execute();
+        sqrt5.execute(machine.getContext());
 
         assertEquals(2, machine.getInstructionStack().size());
         expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -250,20 +250,20 @@ public class TestInstructions {
     public void testAdd() {
         Maquina machine = new Maquina();
 
-        Push push10 = new Push(10, machine);
+        Push push10 = new Push(10);
         assertEquals("PUSH 10", push10.toString());
-        Push push20 = new Push(20, machine);
+        Push push20 = new Push(20);
         assertEquals("PUSH 20", push20.toString());
-        Push push60 = new Push(60, machine);
+        Push push60 = new Push(60);
         assertEquals("PUSH 60", push60.toString());
 
-        push10.execute();
-        push20.execute();
-        push60.execute();
+        push10.execute(machine.getContext());
+        push20.execute(machine.getContext());
+        push60.execute(machine.getContext());
 
-        Add add80 = new Add(machine);
+        Add add80 = new Add();
         assertEquals("ADD", add80.toString());
-        add80.execute();
+        add80.execute(machine.getContext());
 
         assertEquals(2, machine.getInstructionStack().size());
         String expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -271,9 +271,9 @@ public class TestInstructions {
                 "\t1: 10" + System.lineSeparator();
         assertEquals(expected, machine.getInstructionStack().toString());
 
-        Add add90 = new Add(machine);
+        Add add90 = new Add();
         assertEquals("ADD", add90.toString());
-        add90.execute();
+        add90.execute(machine.getContext());
 
         assertEquals(1, machine.getInstructionStack().size());
         expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -286,20 +286,20 @@ public class TestInstructions {
     public void testSubtract() {
         Maquina machine = new Maquina();
 
-        Push push10 = new Push(10, machine);
+        Push push10 = new Push(10);
         assertEquals("PUSH 10", push10.toString());
-        Push push20 = new Push(20, machine);
+        Push push20 = new Push(20);
         assertEquals("PUSH 20", push20.toString());
-        Push push60 = new Push(60, machine);
+        Push push60 = new Push(60);
         assertEquals("PUSH 60", push60.toString());
 
-        push10.execute();
-        push20.execute();
-        push60.execute();
+        push10.execute(machine.getContext());
+        push20.execute(machine.getContext());
+        push60.execute(machine.getContext());
 
-        Subtract sub40 = new Subtract(machine);
+        Subtract sub40 = new Subtract();
         assertEquals("SUB", sub40.toString());
-        sub40.execute();
+        sub40.execute(machine.getContext());
 
         assertEquals(2, machine.getInstructionStack().size());
         String expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -307,9 +307,9 @@ public class TestInstructions {
                 "\t1: 10" + System.lineSeparator();
         assertEquals(expected, machine.getInstructionStack().toString());
 
-        Subtract sub50 = new Subtract(machine);
+        Subtract sub50 = new Subtract();
         assertEquals("SUB", sub50.toString());
-        sub50.execute();
+        sub50.execute(machine.getContext());
 
         assertEquals(1, machine.getInstructionStack().size());
         expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -322,20 +322,20 @@ public class TestInstructions {
     public void testMultiply() {
         Maquina machine = new Maquina();
 
-        Push push10 = new Push(10, machine);
+        Push push10 = new Push(10);
         assertEquals("PUSH 10", push10.toString());
-        Push push20 = new Push(20, machine);
+        Push push20 = new Push(20);
         assertEquals("PUSH 20", push20.toString());
-        Push push60 = new Push(60, machine);
+        Push push60 = new Push(60);
         assertEquals("PUSH 60", push60.toString());
 
-        push10.execute();
-        push20.execute();
-        push60.execute();
+        push10.execute(machine.getContext());
+        push20.execute(machine.getContext());
+        push60.execute(machine.getContext());
 
-        Multiply mul1200 = new Multiply(machine);
+        Multiply mul1200 = new Multiply();
         assertEquals("MUL", mul1200.toString());
-        mul1200.execute();
+        mul1200.execute(machine.getContext());
 
         assertEquals(2, machine.getInstructionStack().size());
         String expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -343,9 +343,9 @@ public class TestInstructions {
                 "\t1: 10" + System.lineSeparator();
         assertEquals(expected, machine.getInstructionStack().toString());
 
-        Multiply mul12000 = new Multiply(machine);
+        Multiply mul12000 = new Multiply();
         assertEquals("MUL", mul12000.toString());
-        mul12000.execute();
+        mul12000.execute(machine.getContext());
 
         assertEquals(1, machine.getInstructionStack().size());
         expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -358,20 +358,20 @@ public class TestInstructions {
     public void testDivide() {
         Maquina machine = new Maquina();
 
-        Push push13 = new Push(13, machine);
+        Push push13 = new Push(13);
         assertEquals("PUSH 13", push13.toString());
-        Push push60 = new Push(60, machine);
+        Push push60 = new Push(60);
         assertEquals("PUSH 60", push60.toString());
-        Push push20 = new Push(20, machine);
+        Push push20 = new Push(20);
         assertEquals("PUSH 20", push20.toString());
 
-        push13.execute();
-        push60.execute();
-        push20.execute();
+        push13.execute(machine.getContext());
+        push60.execute(machine.getContext());
+        push20.execute(machine.getContext());
 
-        Divide div3 = new Divide(machine);
+        Divide div3 = new Divide();
         assertEquals("DIV", div3.toString());
-        div3.execute();
+        div3.execute(machine.getContext());
 
         assertEquals(2, machine.getInstructionStack().size());
         String expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -379,9 +379,9 @@ public class TestInstructions {
                 "\t1: 13" + System.lineSeparator();
         assertEquals(expected, machine.getInstructionStack().toString());
 
-        Divide div4 = new Divide(machine);
+        Divide div4 = new Divide();
         assertEquals("DIV", div4.toString());
-        div4.execute();
+        div4.execute(machine.getContext());
 
         assertEquals(1, machine.getInstructionStack().size());
         expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -394,20 +394,20 @@ public class TestInstructions {
     public void testModulus() {
         Maquina machine = new Maquina();
 
-        Push push3 = new Push(3, machine);
+        Push push3 = new Push(3);
         assertEquals("PUSH 3", push3.toString());
-        Push push64 = new Push(64, machine);
+        Push push64 = new Push(64);
         assertEquals("PUSH 64", push64.toString());
-        Push push20 = new Push(20, machine);
+        Push push20 = new Push(20);
         assertEquals("PUSH 20", push20.toString());
 
-        push3.execute();
-        push64.execute();
-        push20.execute();
+        push3.execute(machine.getContext());
+        push64.execute(machine.getContext());
+        push20.execute(machine.getContext());
 
-        Modulus mod4 = new Modulus(machine);
+        Modulus mod4 = new Modulus();
         assertEquals("MOD", mod4.toString());
-        mod4.execute();
+        mod4.execute(machine.getContext());
 
         assertEquals(2, machine.getInstructionStack().size());
         String expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
@@ -415,13 +415,56 @@ public class TestInstructions {
                 "\t1: 3" + System.lineSeparator();
         assertEquals(expected, machine.getInstructionStack().toString());
 
-        Modulus mod3 = new Modulus(machine);
+        Modulus mod3 = new Modulus();
         assertEquals("MOD", mod3.toString());
-        mod3.execute();
+        mod3.execute(machine.getContext());
 
         assertEquals(1, machine.getInstructionStack().size());
         expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
                 "\t0: 3" + System.lineSeparator();
         assertEquals(expected, machine.getInstructionStack().toString());
     }
+
+    @Test
+    @Order(12)
+    public void testSwap() {
+        Maquina machine = new Maquina();
+
+        Push push10 = new Push(10);
+        Push push20 = new Push(20);
+        Push push30 = new Push(30);
+        push10.execute(machine.getContext());
+        push20.execute(machine.getContext());
+        push30.execute(machine.getContext());
+
+        Swap swap = new Swap();
+        assertEquals("SWAP", swap.toString());
+        swap.execute(machine.getContext());
+
+        assertEquals(3, machine.getInstructionStack().size());
+        String expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
+                "\t0: 20" + System.lineSeparator() +
+                "\t1: 30" + System.lineSeparator() +
+                "\t2: 10" + System.lineSeparator();
+        assertEquals(expected, machine.getInstructionStack().toString());
+
+        Subtract sub10 = new Subtract();
+        sub10.execute(machine.getContext());
+        expected = "(MAQ) Instruction stack:" + System.lineSeparator() +
+                "\t0: 10" + System.lineSeparator() +
+                "\t1: 10" + System.lineSeparator();
+        assertEquals(expected, machine.getInstructionStack().toString());
+    }
+
+    @Test
+    @Order(13)
+    public void testOperations() {
+        String[] names = {Maquina.PRINT, Maquina.NEGATE, Maquina.SQUARE_ROOT, Maquina.ADD, Maquina.SUBTRACT,
+                Maquina.MULTIPLY, Maquina.DIVIDE, Maquina.MODULUS, Maquina.DUPLICATE, Maquina.SWAP};
+        for (String name : names) {
+            assertEquals(name, Instructions.operation(name).toString());
+        }
+        assertNull(Instructions.operation(Maquina.PUSH));
+        assertNull(Instructions.operation("XXX"));
+    }
 }
@@ -0,0 +1,87 @@
+package machine.test;
+
+import machine.Liveness;
+import machine.Maquina;
+import machine.instructions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for removing MAQ stores whose value is never observed.
+ *
+ * @author Tiffany Lee
+ */
+public class TestLiveness {
+    /**
+     * Remove the dead stores from a program and show the result.
+     *
+     * @param machine the machine the instructions belong to
+     * @param keepSymbols whether the final symbol table must be the same
+     * @param program the instructions
+     * @return the kept instructions, as text
+     */
+    private static String eliminate(Maquina machine, boolean keepSymbols, Instruction... program) {
+        boolean[] kept = Liveness.live(List.of(program), machine, keepSymbols);
+        List<Instruction> result = new ArrayList<>();
+        for (int i = 0; i < program.length; i++) {
+            if (kept[i]) {
+                result.add(program[i]);
+            }
+        }
+        return result.stream().map(Object::toString).collect(Collectors.joining(", "));
+    }
+
+    @Test
+    public void testDeadStores() {
+        Maquina machine = new Maquina();
+        // x is overwritten before it is read, y is never read
+        assertEquals("PUSH 2, STORE x, LOAD x, PRINT", eliminate(machine, false,
+                new Push(1), new Store("x", machine.getRegisters()),
+                new Push(2), new Store("x", machine.getRegisters()),
+                new Load("x", machine.getRegisters()), new Push(3), new Add(), new Store("y", machine.getRegisters()),
+                new Load("x", machine.getRegisters()), new Print()));
+    }
+
+    @Test
+    public void testKeepSymbols() {
+        Maquina machine = new Maquina();
+        // the first store of each variable fixes the symbol table order, and
+        // the last its value
+        assertEquals("PUSH 1, STORE x, PUSH 5, STORE y, PUSH 3, STORE x", eliminate(machine, true,
+                new Push(1), new Store("x", machine.getRegisters()),
+                new Push(5), new Store("y", machine.getRegisters()),
+                new Push(2), new Store("x", machine.getRegisters()),
+                new Push(3), new Store("x", machine.getRegisters())));
+    }
+
+    @Test
+    public void testKept() {
+        Maquina machine = new Maquina();
+        // the divide might fault, and y might not be stored yet
+        assertEquals("PUSH 1, PUSH 0, DIV, STORE x", eliminate(machine, false,
+                new Push(1), new Push(0), new Divide(), new Store("x", machine.getRegisters())));
+        assertEquals("LOAD y, STORE x", eliminate(machine, false,
+                new Load("y", machine.getRegisters()), new Store("x", machine.getRegisters())));
+        // the duplicated value is still printed
+        assertEquals("PUSH 4, DUP, STORE x, PRINT", eliminate(machine, false,
+                new Push(4), new Duplicate(), new Store("x", machine.getRegisters()), new Print()));
+        // values left on the stack below the expression are untouched
+        assertEquals("PUSH 7", eliminate(machine, false,
+                new Push(7), new Push(4), new Negate(), new Store("x", machine.getRegisters())));
+    }
+
+    @Test
+    public void testRun() {
+        Maquina machine = new Maquina();
+        machine.assemble(new Scanner("PUSH 1\nSTORE a\nPUSH 2\nSTORE b\nLOAD b\nPRINT\n"), false);
+        assertEquals(2, machine.eliminate(false));
+        machine.execute();
+        assertEquals("b: 2" + System.lineSeparator(), machine.getSymbolTable().toString());
+    }
+}
@@ -0,0 +1,188 @@
+package machine.test;
+
+import common.Errors;
+import common.RuntimeFault;
+import machine.Bytecode;
+import machine.Context;
+import machine.Executable;
+import machine.Maquina;
+import machine.ObjectFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for writing MAQ programs as binary object files and loading
+ * them back.
+ *
+ * @author Tiffany Lee
+ */
+public class TestObjectFile {
+    /**
+     * Run a machine, through its instructions or its bytecode, and capture
+     * everything it printed along with the fault it stopped on.
+     *
+     * @param machine the machine, with its program assembled or loaded
+     * @param output where the machine prints to
+     * @param bytecode whether to run the bytecode
+     * @return the output
+     */
+    private static String run(Maquina machine, ByteArrayOutputStream output, boolean bytecode) {
+        output.reset();
+        try {
+            if (bytecode) {
+                machine.executeBytecode();
+            } else {
+                machine.execute();
+            }
+        } catch (RuntimeFault fault) {
+            return output + fault.getMessage() + " at instruction " + fault.getInstruction();
+        }
+        return output.toString();
+    }
+
+    /**
+     * Write an object file by hand, as "MAQO" and version 1 followed by the
+     * given header, names and code.
+     *
+     * @param path the object file
+     * @param header the number of names, instructions and code ints
+     * @param names the variable names
+     * @param code the code ints
+     * @throws IOException if the file cannot be written
+     */
+    private static void write(Path path, int[] header, String[] names, int... code) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+            out.writeInt(0x4D41514F);
+            out.writeInt(1);
+            for (int value : header) {
+                out.writeInt(value);
+            }
+            for (String name : names) {
+                out.writeInt(name.length());
+                out.write(name.getBytes(StandardCharsets.UTF_8));
+            }
+            for (int value : code) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip(@TempDir Path dir) throws IOException {
+        File[] files = new File("maq").listFiles((parent, name) -> name.endsWith(".maq"));
+        assertNotNull(files);
+        Arrays.sort(files);
+        int converted = 0;
+        for (File file : files) {
+            ByteArrayOutputStream textOut = new ByteArrayOutputStream();
+            Maquina text = new Maquina(new PrintStream(textOut));
+            try (Scanner in = new Scanner(file)) {
+                text.assemble(in, false);
+            } catch (RuntimeFault fault) {
+                // not a valid program, so there is nothing to convert
+                continue;
+            }
+            String listing = textOut.toString();
+            Path object = dir.resolve(file.getName() + "o");
+            text.writeObject(object);
+
+            for (boolean bytecode : new boolean[]{false, true}) {
+                ByteArrayOutputStream loadedOut = new ByteArrayOutputStream();
+                Maquina loaded = new Maquina(new PrintStream(loadedOut));
+                loaded.load(object);
+                assertEquals(listing, loadedOut.toString(), file.getName());
+
+                Maquina reassembled = new Maquina(new PrintStream(textOut));
+                try (Scanner in = new Scanner(file)) {
+                    reassembled.assemble(in, false);
+                }
+                assertEquals(run(reassembled, textOut, bytecode), run(loaded, loadedOut, bytecode), file.getName());
+            }
+            converted++;
+        }
+        assertTrue(converted > 10);
+    }
+
+    @Test
+    public void testVariablesInterned(@TempDir Path dir) throws IOException {
+        Maquina text = new Maquina(new PrintStream(new ByteArrayOutputStream()));
+        text.assemble(new Scanner("PUSH 3\nSTORE b\nPUSH 4\nSTORE a\nLOAD b\nLOAD a\nSWAP\nSUB\nDUP\nPRINT\n"), false);
+        text.verify();
+        Path object = dir.resolve("program.maqo");
+        text.writeObject(object);
+
+        // the loading machine already has its own slots for other variables
+        Maquina loaded = new Maquina(new PrintStream(new ByteArrayOutputStream()));
+        loaded.getRegisters().slot("z");
+        loaded.getRegisters().slot("a");
+        loaded.load(object);
+        loaded.executeBytecode();
+        assertEquals("b: 3" + System.lineSeparator() + "a: 4" + System.lineSeparator(),
+                loaded.getSymbolTable().toString());
+        assertEquals(1, loaded.getInstructionStack().size());
+        assertEquals(1, loaded.getInstructionStack().pop());
+    }
+
+    @Test
+    public void testMalformed(@TempDir Path dir) throws IOException {
+        Path object = dir.resolve("bad.maqo");
+        Files.writeString(object, "PUSH 1\nPRINT\n");
+        Maquina machine = new Maquina(new PrintStream(new ByteArrayOutputStream()));
+        assertThrows(IOException.class, () -> machine.load(object));
+
+        Maquina text = new Maquina(new PrintStream(new ByteArrayOutputStream()));
+        text.assemble(new Scanner("PUSH 1\nSTORE x\nLOAD x\nPRINT\n"), false);
+        text.writeObject(object);
+        byte[] bytes = Files.readAllBytes(object);
+        Files.write(object, Arrays.copyOf(bytes, bytes.length - 6));
+        assertThrows(IOException.class, () -> machine.load(object));
+
+        // counts and lengths that do not fit in the file
+        int[][] headers = {{-1, 2, 3}, {1 << 28, 2, 3}, {1, -2, 3}, {1, 4, 3}, {1, 2, -3}, {1, 2, 1 << 28}};
+        for (int[] header : headers) {
+            write(object, header, new String[]{"x"}, Bytecode.LOAD, 0, Bytecode.PRINT);
+            assertThrows(IOException.class, () -> ObjectFile.read(object));
+        }
+        for (int size : new int[]{-1, Integer.MAX_VALUE}) {
+            write(object, new int[]{1, 2, 3}, new String[]{"x"}, Bytecode.LOAD, 0, Bytecode.PRINT);
+            bytes = Files.readAllBytes(object);
+            // the length of the first name follows the five header ints
+            ByteBuffer.wrap(bytes).putInt(20, size);
+            Files.write(object, bytes);
+            assertThrows(IOException.class, () -> ObjectFile.read(object));
+        }
+    }
+
+    @Test
+    public void testLoadsChecked(@TempDir Path dir) throws IOException {
+        // the verified LOAD skips its check, but the file keeps it
+        Maquina text = new Maquina(new PrintStream(new ByteArrayOutputStream()));
+        text.assemble(new Scanner("PUSH 1\nSTORE x\nLOAD x\nPRINT\n"), false);
+        text.verify();
+        Path object = dir.resolve("program.maqo");
+        text.writeObject(object);
+        byte[] bytes = Files.readAllBytes(object);
+        assertEquals(Bytecode.LOAD, bytes[bytes.length - 9]);
+
+        // a file that claims a load is always stored first is not trusted
+        write(object, new int[]{1, 2, 3}, new String[]{"x"}, Bytecode.LOAD_DEFINED, 0, Bytecode.PRINT);
+        Executable program = ObjectFile.read(object);
+        RuntimeFault fault = assertThrows(RuntimeFault.class, () -> program.executeBytecode(
+                new Context(new PrintStream(new ByteArrayOutputStream()))));
+        assertEquals(Errors.Type.UNINITIALIZED, fault.getType());
+    }
+}
@@ -0,0 +1,82 @@
+package machine.test;
+
+import machine.Maquina;
+import machine.RegisterFile;
+import machine.instructions.*;
+import machine.optimizer.PeepholeOptimizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for the peephole optimizer rules.
+ *
+ * @author Tiffany Lee
+ */
+public class TestPeepholeOptimizer {
+    /**
+     * Optimize a program and show the result one instruction per line.
+     *
+     * @param program the instructions
+     * @return the optimized instructions, as text
+     */
+    private static String optimize(Instruction... program) {
+        return new PeepholeOptimizer().optimize(List.of(program)).stream()
+                .map(Object::toString)
+                .collect(Collectors.joining(", "));
+    }
+
+    @Test
+    public void testConstantFolding() {
+        assertEquals("PUSH 20", optimize(
+                new Push(2), new Push(3), new Add(),
+                new Push(7), new Multiply(), new Push(5),
+                new Subtract(), new Push(25), new Modulus(),
+                new Push(16), new SquareRoot(), new Multiply()));
+        assertEquals("PUSH -100", optimize(new Push(100), new Negate()));
+        assertEquals("PUSH 4", optimize(
+                new Push(4), new Negate(), new Negate()));
+    }
+
+    @Test
+    public void testFaultsKept() {
+        assertEquals("PUSH 10, PUSH 0, DIV", optimize(
+                new Push(10), new Push(0), new Divide()));
+        assertEquals("PUSH 10, PUSH 0, MOD", optimize(
+                new Push(10), new Push(0), new Modulus()));
+        assertEquals("PUSH -10, SQRT", optimize(
+                new Push(-10), new SquareRoot()));
+    }
+
+    @Test
+    public void testForwardingAndIdentities() {
+        RegisterFile registers = new RegisterFile();
+        assertEquals("LOAD a, DUP, STORE x, PRINT", optimize(
+                new Load("a", registers), new Store("x", registers),
+                new Load("x", registers), new Print()));
+        assertEquals("PUSH 5, STORE x, PUSH 5, PRINT", optimize(
+                new Push(5), new Store("x", registers),
+                new Load("x", registers), new Print()));
+        assertEquals("LOAD a", optimize(
+                new Load("a", registers), new Push(0), new Add(),
+                new Push(1), new Multiply(), new Push(0),
+                new Subtract(), new Push(1), new Divide()));
+    }
+
+    @Test
+    public void testExecution() {
+        Maquina machine = new Maquina();
+        List<Instruction> program = new PeepholeOptimizer().optimize(List.of(
+                new Push(6), new Store("a", machine.getRegisters()), new Load("a", machine.getRegisters()),
+                new Push(7), new Multiply(), new Store("b", machine.getRegisters()),
+                new Load("b", machine.getRegisters()), new Push(0), new Add()));
+        assertEquals(5, program.size());
+        program.forEach(instruction -> instruction.execute(machine.getContext()));
+        assertEquals(42, machine.getInstructionStack().pop());
+        assertEquals("a: 6" + System.lineSeparator() + "b: 42" + System.lineSeparator(),
+                machine.getSymbolTable().toString());
+    }
+}
@@ -0,0 +1,173 @@
+package machine.test;
+
+import common.ProgramCache;
+import interpreter.bench.ProgramGenerator;
+import machine.Executable;
+import machine.Maquina;
+import machine.ObjectFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for keeping assembled MAQ programs in a cache.
+ *
+ * @author Tiffany Lee
+ */
+public class TestProgramCache {
+    /**
+     * Assemble and execute a program the usual way.
+     *
+     * @param text the MAQ program
+     * @return what the machine printed
+     */
+    private static String uncached(String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Maquina machine = new Maquina(new PrintStream(out));
+        machine.assemble(new Scanner(text), false);
+        machine.execute();
+        return out.toString();
+    }
+
+    /**
+     * Assemble, unless cached, and execute a program.
+     *
+     * @param text the MAQ program
+     * @param cache the cache
+     * @return what the machine printed
+     */
+    private static String cached(String text, ProgramCache<Executable> cache) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Maquina machine = new Maquina(new PrintStream(out));
+        machine.assemble(text.getBytes(StandardCharsets.UTF_8), cache);
+        machine.execute();
+        return out.toString();
+    }
+
+    @Test
+    public void testKey() {
+        byte[] source = "PUSH 1\nPRINT\n".getBytes(StandardCharsets.UTF_8);
+        assertEquals(64, ProgramCache.key(source).length());
+        assertEquals(ProgramCache.key(source), ProgramCache.key(source.clone()));
+        assertNotEquals(ProgramCache.key(source), ProgramCache.key("PUSH 2\nPRINT\n".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testLeastRecentlyUsed() {
+        ProgramCache<String> cache = new ProgramCache<>(2);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        assertEquals("A", cache.get("a"));
+        // b is now the least recently used
+        cache.put("c", "C");
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(0, cache.getDiskHits());
+        assertThrows(IllegalArgumentException.class, () -> new ProgramCache<String>(0));
+    }
+
+    @Test
+    public void testSameAsUncached() {
+        ProgramCache<Executable> cache = new ProgramCache<>(ProgramCache.DEFAULT_CAPACITY);
+        String text = new ProgramGenerator(25, 1_000).maq();
+        String expected = uncached(text);
+        assertEquals(expected, cached(text, cache));
+        assertEquals(expected, cached(text, cache));
+        assertEquals(expected, cached(text, cache));
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void testRelocated() {
+        // a machine with variables of its own uses a program assembled elsewhere
+        ProgramCache<Executable> cache = new ProgramCache<>(1);
+        String text = "PUSH 3\nSTORE x\nPUSH 4\nSTORE y\nLOAD x\nLOAD y\nMUL\nPRINT\n";
+        cached(text, cache);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Maquina machine = new Maquina(new PrintStream(out));
+        machine.assemble(new Scanner("PUSH 1\nSTORE y\n"), false);
+        machine.execute();
+        machine.assemble(text.getBytes(StandardCharsets.UTF_8), cache);
+        assertEquals(1, cache.getHits());
+        machine.verify();
+        out.reset();
+        machine.executeBytecode();
+        assertEquals(String.join(System.lineSeparator(), "(MAQ) Executing...", "12",
+                "(MAQ) Completed execution!", "(MAQ) Symbol table:", "y: 4", "x: 3", ""),
+                out.toString().substring(0, out.toString().indexOf("(MAQ) Instruction stack:")));
+    }
+
+    @Test
+    public void testDisk(@TempDir Path dir) throws IOException {
+        String text = new ProgramGenerator(26, 500).maq();
+        String expected = uncached(text);
+        ProgramCache<Executable> first = new ProgramCache<>(4, dir.resolve("cache"), ObjectFile.CODEC);
+        assertEquals(expected, cached(text, first));
+        Path file = dir.resolve("cache").resolve(ProgramCache.key(text.getBytes(StandardCharsets.UTF_8))
+                + ObjectFile.EXTENSION);
+        assertTrue(Files.exists(file));
+
+        // a new cache, as in a new process, starts from the directory
+        ProgramCache<Executable> second = new ProgramCache<>(4, dir.resolve("cache"), ObjectFile.CODEC);
+        assertEquals(expected, cached(text, second));
+        assertEquals(expected, cached(text, second));
+        assertEquals(1, second.getDiskHits());
+        assertEquals(1, second.getHits());
+        assertEquals(0, second.getMisses());
+
+        // a damaged file is a miss, and is written again
+        Files.write(file, new byte[]{1, 2, 3});
+        ProgramCache<Executable> third = new ProgramCache<>(4, dir.resolve("cache"), ObjectFile.CODEC);
+        assertEquals(expected, cached(text, third));
+        assertEquals(1, third.getMisses());
+        ProgramCache<Executable> fourth = new ProgramCache<>(4, dir.resolve("cache"), ObjectFile.CODEC);
+        assertEquals(expected, cached(text, fourth));
+        assertEquals(1, fourth.getDiskHits());
+
+        // so is a codec that fails other than with an IOException
+        ProgramCache.Codec<Executable> failing = new ProgramCache.Codec<>() {
+            @Override
+            public String extension() {
+                return ObjectFile.EXTENSION;
+            }
+
+            @Override
+            public Executable read(Path path) {
+                throw new IllegalStateException("damaged");
+            }
+
+            @Override
+            public void write(Executable program, Path path) throws IOException {
+                ObjectFile.write(program, path);
+            }
+        };
+        ProgramCache<Executable> fifth = new ProgramCache<>(4, dir.resolve("cache"), failing);
+        assertEquals(expected, cached(text, fifth));
+        assertEquals(1, fifth.getMisses());
+        assertTrue(Files.exists(file));
+
+        // and a file whose first name claims to be longer than the file
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(20, Integer.MAX_VALUE);
+        Files.write(file, bytes);
+        ProgramCache<Executable> sixth = new ProgramCache<>(4, dir.resolve("cache"), ObjectFile.CODEC);
+        assertEquals(expected, cached(text, sixth));
+        assertEquals(1, sixth.getMisses());
+    }
+}
@@ -0,0 +1,52 @@
+package machine.test;
+
+import machine.RegisterFile;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for the register file.
+ *
+ * @author Tiffany Lee
+ */
+public class TestRegisterFile {
+    @Test
+    public void testRegisterFile() {
+        RegisterFile registers = new RegisterFile();
+        int y = registers.slot("y");
+        int x = registers.slot("x");
+        assertEquals(0, y);
+        assertEquals(1, x);
+        assertEquals(x, registers.slot("x"));
+        assertFalse(registers.has(x));
+
+        registers.set(x, 10);
+        registers.set(y, 20);
+        registers.set(x, 30);
+        assertTrue(registers.has(x));
+        assertEquals(30, registers.get(x));
+        assertEquals("y", registers.name(y));
+
+        // the symbol table view follows the order of the first stores
+        String expected = "x: 30" + System.lineSeparator() +
+                "y: 20" + System.lineSeparator();
+        assertEquals(expected, registers.toSymbolTable().toString());
+
+        for (int i = 0; i < 100; i++) {
+            registers.set(registers.slot("v" + i), i);
+        }
+        assertEquals(102, registers.slots());
+        assertEquals(99, registers.get(registers.slot("v99")));
+    }
+
+    @Test
+    public void testTemporaries() {
+        RegisterFile registers = new RegisterFile();
+        registers.set(registers.slot("_total"), 7);
+        registers.set(registers.temporary("_t1"), 18);
+        assertEquals(18, registers.get(registers.slot("_t1")));
+        // only the compiler's temporaries are left out, whatever the names
+        assertEquals("_total: 7" + System.lineSeparator(), registers.toSymbolTable().toString());
+    }
+}
@@ -0,0 +1,144 @@
+package machine.test;
+
+import common.Errors;
+import common.RuntimeFault;
+import common.Tokenizer;
+import interpreter.bench.ProgramGenerator;
+import machine.Maquina;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A JUnit tester for executing MAQ programs an instruction at a time as they
+ * are read.
+ *
+ * @author Tiffany Lee
+ */
+public class TestStreaming {
+    /**
+     * Tokenize some text as a stream.
+     *
+     * @param text the source
+     * @return the tokenizer, before its first line
+     */
+    private static Tokenizer stream(String text) {
+        return new Tokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Assemble and execute a program the usual way.
+     *
+     * @param text the MAQ program
+     * @return what was printed from the start of execution
+     */
+    private static String batch(String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Maquina machine = new Maquina(new PrintStream(out));
+        machine.assemble(new Scanner(text), false);
+        machine.execute();
+        String printed = out.toString();
+        return printed.substring(printed.indexOf("(MAQ) Executing..."));
+    }
+
+    /**
+     * Stream a program.
+     *
+     * @param text the MAQ program
+     * @param out where the machine's output goes
+     * @return the machine
+     */
+    private static Maquina run(String text, ByteArrayOutputStream out) {
+        Maquina machine = new Maquina(new PrintStream(out));
+        machine.stream(stream(text), false);
+        return machine;
+    }
+
+    @Test
+    public void testSameAsBatch() throws IOException {
+        for (File file : new File("maq").listFiles((dir, name) -> name.startsWith("simple")
+                || name.startsWith("complex"))) {
+            String text = Files.readString(file.toPath());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            run(text, out);
+            assertEquals(batch(text), out.toString(), file.getName());
+        }
+        String generated = new ProgramGenerator(23, 2_000).maq();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        run(generated, out);
+        assertEquals(batch(generated), out.toString());
+    }
+
+    @Test
+    public void testAnswersEachLine() {
+        // each PRINT is answered before the line after it is read
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InputStream in = new InputStream() {
+            private final byte[] lines = "PUSH 4\nPRINT\nPUSH 9\nSQRT\nPRINT\n.\nPUSH 1\n".getBytes(StandardCharsets.UTF_8);
+            private int at = 0;
+
+            @Override
+            public int read() {
+                return at < lines.length ? lines[at++] : -1;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (at == lines.length) {
+                    return -1;
+                }
+                if (at == 13) {
+                    // the first PRINT has been read, and so must have run
+                    assertTrue(out.toString().contains("4" + System.lineSeparator()));
+                }
+                // hand over a single line at a time, as a terminal does
+                int end = at;
+                while (lines[end++] != '\n') {
+                }
+                int count = Math.min(length, end - at);
+                System.arraycopy(lines, at, buffer, offset, count);
+                at += count;
+                return count;
+            }
+        };
+        Maquina machine = new Maquina(new PrintStream(out));
+        machine.stream(new Tokenizer(in), false);
+        assertTrue(out.toString().contains("4" + System.lineSeparator() + "3" + System.lineSeparator()));
+        assertEquals(0, machine.getInstructionStack().size());
+    }
+
+    @Test
+    public void testFaults() {
+        // instructions run until the fault, which has its index and line
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RuntimeFault fault = assertThrows(RuntimeFault.class,
+                () -> run("PUSH 7\nPRINT\nPUSH 1\nPUSH 0\nDIV\n", out));
+        assertEquals(Errors.Type.DIVIDE_BY_ZERO, fault.getType());
+        assertEquals(4, fault.getInstruction());
+        assertEquals(5, fault.getLine());
+        assertTrue(out.toString().contains("7" + System.lineSeparator()));
+
+        fault = assertThrows(RuntimeFault.class, () -> run("PUSH 1\nPRINT\nXXX\n", new ByteArrayOutputStream()));
+        assertEquals(Errors.Type.ILLEGAL_INSTRUCTION, fault.getType());
+        assertEquals(3, fault.getLine());
+
+        fault = assertThrows(RuntimeFault.class, () -> run("PUSH\n", new ByteArrayOutputStream()));
+        assertEquals(Errors.Type.ILLEGAL_INSTRUCTION, fault.getType());
+        assertEquals(1, fault.getLine());
+
+        fault = assertThrows(RuntimeFault.class, () -> run("PUSH 1\nPUSH x\n", new ByteArrayOutputStream()));
+        assertEquals(Errors.Type.ILLEGAL_INSTRUCTION, fault.getType());
+        assertEquals("PUSH x", fault.getInfo());
+        assertEquals(2, fault.getLine());
+    }
+}
@@ -30,5 +30,11 @@ public class TestSymbolTable {
                 "y: 30" + System.lineSeparator() +
                 "z: 40" + System.lineSeparator();
         assertEquals(expected, symTbl.toString());
+
+        symTbl.setTemporary("_t1", 50);
+        symTbl.set("_total", 60);
+        assertEquals(50, symTbl.getTemporary("_t1"));
+        assertFalse(symTbl.has("_t1"));
+        assertEquals(expected + "_total: 60" + System.lineSeparator(), symTbl.toString());
     }
 }